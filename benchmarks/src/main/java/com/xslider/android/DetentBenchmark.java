@@ -0,0 +1,62 @@
+package com.xslider.android;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 拖动时每次 ACTION_MOVE 更新吸附状态的耗时，吸附点数量从 16 到 100 万，耗时应基本不变。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DetentBenchmark {
+
+    private static final float WIDTH = 1080;
+
+    @Param({"16", "1024", "65536", "1048576"})
+    int detentCount;
+
+    DetentTable detents;
+    float[] moves;
+    int index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        float[] values = new float[detentCount];
+        for (int i = 0; i < detentCount; i++) {
+            values[i] = random.nextFloat();
+        }
+        detents = new DetentTable(values);
+        for (int i = 0; i < detentCount; i++) {
+            detents.setPosition(i, detents.getValue(i));
+        }
+
+        // 模拟手指来回拖动，每次移动不超过 8 像素
+        moves = new float[4096];
+        float position = 0.5f;
+        for (int i = 0; i < moves.length; i++) {
+            position += (random.nextFloat() - 0.5f) * 16 / WIDTH;
+            position = Math.min(1f, Math.max(0f, position));
+            moves[i] = position;
+        }
+    }
+
+    @Benchmark
+    public int move() {
+        index = (index + 1) & (moves.length - 1);
+        return detents.update(moves[index], 12 / WIDTH, 18 / WIDTH);
+    }
+}
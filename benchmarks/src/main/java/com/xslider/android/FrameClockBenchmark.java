@@ -0,0 +1,166 @@
+package com.xslider.android;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多个滑动条同时动画时每一帧的调度开销：共用的 {@link FrameClock} 与每个滑动条各自重新提交帧回调。
+ * 后者按 Choreographer 的 CallbackQueue 模拟：回调记录从对象池中取出，按到期时间插入有序链表，
+ * 每帧取出到期的回调依次执行。每个动画只做很少的计算，结果主要反映调度本身的开销。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FrameClockBenchmark {
+
+    private static final long FRAME_INTERVAL = 16666667L;
+
+    @Param({"10", "40", "100"})
+    int sliderCount;
+
+    FrameClock clock;
+    CallbackQueue queue;
+    long frameTime;
+
+    @Setup
+    public void setup() {
+        clock = new FrameClock(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+        queue = new CallbackQueue();
+        for (int i = 0; i < sliderCount; i++) {
+            clock.register(new ClockAnimation());
+            queue.post(new QueueAnimation(queue), 0);
+        }
+    }
+
+    @Benchmark
+    public int sharedClock() {
+        frameTime += FRAME_INTERVAL;
+        clock.tick(frameTime);
+        return clock.size();
+    }
+
+    @Benchmark
+    public int perViewCallbacks() {
+        frameTime += FRAME_INTERVAL;
+        return queue.doFrame(frameTime);
+    }
+
+    /**
+     * 永不结束的动画，每帧按时间计算一次位置。
+     */
+    static final class ClockAnimation extends FrameClock.Client {
+
+        float mPosition;
+
+        @Override
+        boolean onFrame(long frameTimeNanos) {
+            mPosition = (frameTimeNanos % 1000000000L) / 1e9f;
+            return true;
+        }
+    }
+
+    static final class QueueAnimation {
+
+        final CallbackQueue mQueue;
+        float mPosition;
+
+        QueueAnimation(CallbackQueue queue) {
+            mQueue = queue;
+        }
+
+        void doFrame(long frameTimeNanos) {
+            mPosition = (frameTimeNanos % 1000000000L) / 1e9f;
+            mQueue.post(this, 0);
+        }
+    }
+
+    /**
+     * 与 Choreographer 中帧回调队列相同的数据结构。
+     */
+    static final class CallbackQueue {
+
+        private final Object mLock = new Object();
+        private CallbackRecord mHead;
+        private CallbackRecord mPool;
+
+        void post(QueueAnimation action, long dueTime) {
+            synchronized (mLock) {
+                CallbackRecord callback = mPool;
+                if (callback == null) {
+                    callback = new CallbackRecord();
+                } else {
+                    mPool = callback.next;
+                    callback.next = null;
+                }
+                callback.dueTime = dueTime;
+                callback.action = action;
+
+                CallbackRecord entry = mHead;
+                if (entry == null) {
+                    mHead = callback;
+                    return;
+                }
+                if (dueTime < entry.dueTime) {
+                    callback.next = entry;
+                    mHead = callback;
+                    return;
+                }
+                while (entry.next != null) {
+                    if (dueTime < entry.next.dueTime) {
+                        callback.next = entry.next;
+                        break;
+                    }
+                    entry = entry.next;
+                }
+                entry.next = callback;
+            }
+        }
+
+        int doFrame(long frameTimeNanos) {
+            CallbackRecord callbacks;
+            synchronized (mLock) {
+                callbacks = mHead;
+                mHead = null;
+            }
+
+            int count = 0;
+            for (CallbackRecord c = callbacks; c != null; c = c.next) {
+                c.action.doFrame(frameTimeNanos);
+                count++;
+            }
+
+            synchronized (mLock) {
+                while (callbacks != null) {
+                    CallbackRecord next = callbacks.next;
+                    callbacks.action = null;
+                    callbacks.next = mPool;
+                    mPool = callbacks;
+                    callbacks = next;
+                }
+            }
+            return count;
+        }
+    }
+
+    static final class CallbackRecord {
+
+        CallbackRecord next;
+        long dueTime;
+        QueueAnimation action;
+    }
+}
@@ -0,0 +1,91 @@
+package com.xslider.android;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多个滑块时查找被点中的滑块的耗时：查找最近的滑块、判断是否在触摸范围内、选择重叠滑块的一端，
+ * 与 XSlider 处理按下事件时的顺序相同。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HitTestBenchmark {
+
+    @Param({"2", "100", "1000"})
+    int thumbCount;
+
+    /**
+     * 控件的宽度和高度，滑块的触摸范围，单位: 像素。
+     */
+    private static final float WIDTH = 1080;
+    private static final float HEIGHT = 60;
+    private static final float RANGE = 30;
+
+    float[] positions;
+    float[] touches;
+    float[] touchYs;
+    int index;
+
+    @Setup
+    public void setup() {
+        positions = new float[thumbCount];
+        for (int i = 0; i < thumbCount; i++) {
+            positions[i] = (i + 0.5f) / thumbCount;
+        }
+
+        Random random = new Random(42);
+        touches = new float[1024];
+        touchYs = new float[touches.length];
+        for (int i = 0; i < touches.length; i++) {
+            touches[i] = random.nextFloat();
+            touchYs[i] = random.nextFloat() * HEIGHT * 2 - HEIGHT / 2;
+        }
+    }
+
+    @Benchmark
+    public int nearestThumb() {
+        index = (index + 1) & (touches.length - 1);
+        return SliderMath.nearestIndex(positions, thumbCount, touches[index]);
+    }
+
+    @Benchmark
+    public int thumbHit() {
+        index = (index + 1) & (touches.length - 1);
+        float position = touches[index];
+        int nearest = SliderMath.nearestIndex(positions, thumbCount, position);
+        if (!SliderMath.isInTouchRange(position * WIDTH, touchYs[index],
+                positions[nearest] * WIDTH, HEIGHT / 2, RANGE, true)) {
+            return -1;
+        }
+        return SliderMath.stackEnd(positions, thumbCount, nearest, position - positions[nearest]);
+    }
+
+    @Benchmark
+    public int linearScan() {
+        index = (index + 1) & (touches.length - 1);
+        float key = touches[index];
+        int nearest = 0;
+        float distance = Float.MAX_VALUE;
+        for (int i = 0; i < thumbCount; i++) {
+            float d = Math.abs(positions[i] - key);
+            if (d < distance) {
+                distance = d;
+                nearest = i;
+            }
+        }
+        return nearest;
+    }
+}
@@ -0,0 +1,95 @@
+package com.xslider.android;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 区间集合在 10000 段区间规模下的耗时：在已有区间中查找、乱序加入 10000 段会互相合并的区间，
+ * 以及遍历全部区间按 1 像素合并成绘制段（模拟一次绘制）。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class IntervalSetBenchmark {
+
+    private static final int RANGES = 10000;
+    private static final float WIDTH = 1080;
+
+    IntervalSet set;
+    float[] starts;
+    float[] shuffled;
+    int index;
+
+    @Setup
+    public void setup() {
+        // 区间 [2i, 2i + 1]，之间留出长度为 1 的空隙
+        set = new IntervalSet();
+        for (int i = 0; i < RANGES; i++) {
+            set.add(2 * i, 2 * i + 1);
+        }
+
+        Random random = new Random(42);
+        starts = new float[1024];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = random.nextInt(RANGES) * 2;
+        }
+
+        // 长度在 0.5 ~ 2.5 之间的区间，乱序加入时既有插入也有合并
+        shuffled = new float[RANGES * 2];
+        for (int i = 0; i < RANGES; i++) {
+            int j = random.nextInt(i + 1);
+            shuffled[i * 2] = shuffled[j * 2];
+            shuffled[i * 2 + 1] = shuffled[j * 2 + 1];
+            shuffled[j * 2] = 2 * i;
+            shuffled[j * 2 + 1] = 2 * i + 0.5f + random.nextFloat() * 2;
+        }
+    }
+
+    private float next() {
+        index = (index + 1) & (starts.length - 1);
+        return starts[index];
+    }
+
+    @Benchmark
+    public boolean addContained() {
+        // 落在已有区间内，只有二分查找
+        float start = next();
+        return set.add(start + 0.25f, start + 0.75f);
+    }
+
+    @Benchmark
+    public int addShuffled() {
+        IntervalSet ranges = new IntervalSet();
+        for (int i = 0; i < shuffled.length; i += 2) {
+            ranges.add(shuffled[i], shuffled[i + 1]);
+        }
+        return ranges.size();
+    }
+
+    @Benchmark
+    public int coalesceToPixels() {
+        int size = set.size();
+        float scale = WIDTH / (2 * RANGES);
+        int runs = 1;
+        float runEnd = set.getEnd(0) * scale;
+        for (int i = 1; i < size; i++) {
+            float start = set.getStart(i) * scale;
+            if (start - runEnd >= 1f) {
+                runs++;
+            }
+            runEnd = Math.max(runEnd, set.getEnd(i) * scale);
+        }
+        return runs;
+    }
+}
@@ -0,0 +1,52 @@
+package com.xslider.android;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getExactValue / setValue 的换算以及步长吸附的耗时。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValueMathBenchmark {
+
+    float[] positions;
+    int index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        positions = new float[1024];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = random.nextFloat();
+        }
+    }
+
+    private float nextPosition() {
+        index = (index + 1) & (positions.length - 1);
+        return positions[index];
+    }
+
+    @Benchmark
+    public float valueRoundTrip() {
+        float value = SliderMath.toValue(nextPosition(), 10, 80);
+        return SliderMath.toPosition(value, 10, 80);
+    }
+
+    @Benchmark
+    public float snapToStep() {
+        return SliderMath.snap(nextPosition(), 0, 10000, 7);
+    }
+}
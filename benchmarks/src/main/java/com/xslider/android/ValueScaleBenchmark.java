@@ -0,0 +1,72 @@
+package com.xslider.android;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对数映射（20 ~ 20000）直接计算与查找表插值的耗时对比。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValueScaleBenchmark {
+
+    private static final float MIN = 20;
+    private static final float MAX = 20000;
+
+    ValueScale scale;
+    ValueScaleTable table;
+    float[] positions;
+    float[] values;
+    int index;
+
+    @Setup
+    public void setup() {
+        scale = ValueScale.log();
+        table = new ValueScaleTable(scale, MIN, MAX, ValueScaleTable.DEFAULT_SIZE);
+
+        Random random = new Random(42);
+        positions = new float[1024];
+        values = new float[1024];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = random.nextFloat();
+            values[i] = scale.toValue(random.nextFloat(), MIN, MAX);
+        }
+    }
+
+    private int next() {
+        index = (index + 1) & (positions.length - 1);
+        return index;
+    }
+
+    @Benchmark
+    public float toValueDirect() {
+        return scale.toValue(positions[next()], MIN, MAX);
+    }
+
+    @Benchmark
+    public float toValueTable() {
+        return table.toValue(positions[next()]);
+    }
+
+    @Benchmark
+    public float toPositionDirect() {
+        return scale.toPosition(values[next()], MIN, MAX);
+    }
+
+    @Benchmark
+    public float toPositionTable() {
+        return table.toPosition(values[next()]);
+    }
+}
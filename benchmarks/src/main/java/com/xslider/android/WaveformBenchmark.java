@@ -0,0 +1,91 @@
+package com.xslider.android;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 把数百万个采样降采样到 1080 列像素的耗时：逐个比较采样与利用块最小值/最大值的对比，
+ * 以及实时追加采样的耗时。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WaveformBenchmark {
+
+    private static final int BUCKETS = 1080;
+
+    @Param({"1000000", "4000000"})
+    int size;
+
+    float[] samples;
+    float[] chunk;
+    WaveformData data;
+    float[] min;
+    float[] max;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        samples = new float[size];
+        for (int i = 0; i < size; i++) {
+            samples[i] = (float) random.nextGaussian();
+        }
+        chunk = new float[1024];
+        System.arraycopy(samples, 0, chunk, 0, chunk.length);
+
+        data = new WaveformData(size);
+        data.append(samples, 0, size);
+        min = new float[BUCKETS];
+        max = new float[BUCKETS];
+    }
+
+    @Benchmark
+    public float[] downsampleDirect() {
+        for (int b = 0; b < BUCKETS; b++) {
+            int start = (int) ((long) b * size / BUCKETS);
+            int end = (int) ((long) (b + 1) * size / BUCKETS);
+            float lo = Float.POSITIVE_INFINITY;
+            float hi = Float.NEGATIVE_INFINITY;
+            for (int i = start; i < end; i++) {
+                float v = samples[i];
+                if (v < lo) {
+                    lo = v;
+                }
+                if (v > hi) {
+                    hi = v;
+                }
+            }
+            min[b] = lo;
+            max[b] = hi;
+        }
+        return max;
+    }
+
+    @Benchmark
+    public float[] downsampleBlocks() {
+        data.downsample(BUCKETS, min, max);
+        return max;
+    }
+
+    @Benchmark
+    public int appendChunk() {
+        // 从空数据开始分 64 次追加，每次 1024 个采样
+        WaveformData live = new WaveformData(chunk.length * 64);
+        for (int i = 0; i < 64; i++) {
+            live.append(chunk, 0, chunk.length);
+        }
+        return live.size();
+    }
+}
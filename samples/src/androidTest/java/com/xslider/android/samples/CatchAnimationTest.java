@@ -0,0 +1,145 @@
+package com.xslider.android.samples;
+
+import android.app.Instrumentation;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.rule.ActivityTestRule;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.MotionEvent;
+
+import com.xslider.android.OnPositionChangeListener;
+import com.xslider.android.ValueConsumer;
+import com.xslider.android.XSlider;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 动画进行中被打断：抓住移动中的滑块或者直接设置新的位置时，停在当前绘制的位置，
+ * 不会先以动画的终点回调一次停止。
+ */
+@RunWith(AndroidJUnit4.class)
+public class CatchAnimationTest {
+
+    /**
+     * 控件的高度是宽度的两倍，触摸范围覆盖整个滑动条，按在任何位置都能抓住滑块。
+     */
+    private static final int WIDTH = 200;
+    private static final int HEIGHT = 400;
+
+    @Rule
+    public ActivityTestRule<MainActivity> mActivityRule =
+            new ActivityTestRule<MainActivity>(MainActivity.class);
+
+    private Instrumentation mInstrumentation;
+    private XSlider mSlider;
+    private final List<Float> mPositions = new ArrayList<Float>();
+    private final List<Float> mSettledValues = new ArrayList<Float>();
+
+    @Before
+    public void setUp() {
+        mInstrumentation = InstrumentationRegistry.getInstrumentation();
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                MainActivity activity = mActivityRule.getActivity();
+                mSlider = new XSlider(activity);
+                SliderFixtures.attach(activity, mSlider, WIDTH, HEIGHT);
+            }
+        });
+        mInstrumentation.waitForIdleSync();
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mSlider.setPosition(0f, false);
+                mSlider.setDispatchMode(XSlider.DISPATCH_MODE_GESTURE_END);
+                mSlider.setOnPositionChangeListener(new OnPositionChangeListener() {
+                    @Override
+                    public void onPositionChanged(XSlider view, boolean fromUser, float oldPos,
+                                                  float newPos, int oldValue, int newValue) {
+                        mPositions.add(newPos);
+                    }
+                });
+                mSlider.subscribeValues(new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        command.run();
+                    }
+                }, new ValueConsumer() {
+                    @Override
+                    public void onValue(float value, boolean settled) {
+                        mSettledValues.add(value);
+                    }
+                }, true);
+                mSettledValues.clear();
+                mSlider.setPosition(1f, true);
+            }
+        });
+        // 动画时长约 400 毫秒，在中途打断
+        SystemClock.sleep(150);
+    }
+
+    @Test
+    public void catchingMovingThumbDoesNotSettle() {
+        final float[] caught = new float[1];
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                touch(MotionEvent.ACTION_DOWN);
+                caught[0] = mSlider.getPosition();
+                assertTrue("caught at " + caught[0], caught[0] > 0f && caught[0] < 1f);
+                // 拖动中，不回调停止，也不以动画的终点回调
+                assertEquals(0, mPositions.size());
+                assertEquals(0, mSettledValues.size());
+            }
+        });
+
+        SystemClock.sleep(500);
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                // 抓住后动画不再继续
+                assertEquals(caught[0], mSlider.getPosition(), 0f);
+                assertEquals(0, mPositions.size());
+
+                touch(MotionEvent.ACTION_UP);
+                assertEquals(1, mPositions.size());
+                assertEquals(caught[0], mPositions.get(0), 0f);
+                assertEquals(1, mSettledValues.size());
+                assertEquals(mSlider.getExactValue(), mSettledValues.get(0), 0f);
+            }
+        });
+    }
+
+    @Test
+    public void setPositionWithoutAnimationSettlesOnce() {
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mSlider.setPosition(0.25f, false);
+                assertEquals(0.25f, mSlider.getPosition(), 0f);
+                // 只回调新的位置，不会先回调动画的终点
+                assertEquals(1, mPositions.size());
+                assertEquals(0.25f, mPositions.get(0), 0f);
+                assertEquals(1, mSettledValues.size());
+                assertEquals(mSlider.getExactValue(), mSettledValues.get(0), 0f);
+            }
+        });
+    }
+
+    private void touch(int action) {
+        long now = SystemClock.uptimeMillis();
+        MotionEvent event = MotionEvent.obtain(now, now, action, WIDTH / 2f, HEIGHT / 2f, 0);
+        mSlider.dispatchTouchEvent(event);
+        event.recycle();
+    }
+}
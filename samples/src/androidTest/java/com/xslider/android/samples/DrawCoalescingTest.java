@@ -0,0 +1,140 @@
+package com.xslider.android.samples;
+
+import android.app.Instrumentation;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.rule.ActivityTestRule;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.Choreographer;
+import android.view.ViewGroup;
+
+import com.xslider.android.samples.SliderFixtures.CountingSlider;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 同一帧内多次修改只绘制一次；动画期间每帧最多绘制一次。
+ */
+@RunWith(AndroidJUnit4.class)
+public class DrawCoalescingTest {
+
+    private static final int UPDATES = 50;
+
+    @Rule
+    public ActivityTestRule<MainActivity> mActivityRule =
+            new ActivityTestRule<MainActivity>(MainActivity.class);
+
+    private Instrumentation mInstrumentation;
+    private CountingSlider mSlider;
+
+    @Before
+    public void setUp() {
+        mInstrumentation = InstrumentationRegistry.getInstrumentation();
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                MainActivity activity = mActivityRule.getActivity();
+                mSlider = new CountingSlider(activity);
+                SliderFixtures.attach(activity, mSlider,
+                        ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT);
+            }
+        });
+        mInstrumentation.waitForIdleSync();
+        awaitFrames(2);
+    }
+
+    @Test
+    public void setValueWithinFrameDrawsOnce() throws Exception {
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mSlider.mDraws = 0;
+                for (int i = 1; i <= UPDATES; i++) {
+                    mSlider.setValue(i, false);
+                }
+            }
+        });
+        awaitFrames(3);
+
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                assertEquals(1, mSlider.mDraws);
+                assertEquals(UPDATES, mSlider.getValue());
+            }
+        });
+    }
+
+    @Test
+    public void animationDrawsAtMostOncePerFrame() throws Exception {
+        final int[] frames = new int[1];
+        final CountDownLatch done = new CountDownLatch(1);
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mSlider.mDraws = 0;
+                mSlider.setValue(mSlider.getMaxValue(), true);
+                Choreographer.getInstance().postFrameCallback(new Choreographer.FrameCallback() {
+                    @Override
+                    public void doFrame(long frameTimeNanos) {
+                        frames[0]++;
+                        if (mSlider.getThumbPosition(0) == 1f) {
+                            done.countDown();
+                        } else {
+                            Choreographer.getInstance().postFrameCallback(this);
+                        }
+                    }
+                });
+            }
+        });
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                assertTrue(mSlider.mDraws > 0);
+                // 最后一帧的绘制在帧回调之后
+                assertTrue(mSlider.mDraws + " draws in " + frames[0] + " frames",
+                        mSlider.mDraws <= frames[0] + 1);
+            }
+        });
+    }
+
+    /**
+     * 等待指定数量的帧，保证前面的修改已经绘制。
+     */
+    private void awaitFrames(final int count) {
+        final CountDownLatch latch = new CountDownLatch(count);
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                Choreographer.getInstance().postFrameCallback(new Choreographer.FrameCallback() {
+                    @Override
+                    public void doFrame(long frameTimeNanos) {
+                        latch.countDown();
+                        if (latch.getCount() > 0) {
+                            Choreographer.getInstance().postFrameCallback(this);
+                        }
+                    }
+                });
+            }
+        });
+        try {
+            assertTrue(latch.await(1, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+        // 帧回调之后才是绘制，再等待绘制完成
+        SystemClock.sleep(50);
+        mInstrumentation.waitForIdleSync();
+    }
+}
@@ -0,0 +1,53 @@
+package com.xslider.android.samples;
+
+import android.app.Activity;
+import android.content.Context;
+import android.graphics.Canvas;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.xslider.android.XSlider;
+
+/**
+ * 示例中的测试和基准测试共用的滑动条和布局方法。
+ */
+final class SliderFixtures {
+
+    private SliderFixtures() {
+    }
+
+    /**
+     * 添加到 Activity 的内容区域中，需要在主线程中调用。
+     */
+    static void attach(Activity activity, View view, int width, int height) {
+        ViewGroup content = (ViewGroup) activity.findViewById(android.R.id.content);
+        content.addView(view, new ViewGroup.LayoutParams(width, height));
+    }
+
+    /**
+     * 按指定的尺寸测量并布局，不需要添加到窗口中。
+     */
+    static void layout(View view, int width, int height) {
+        view.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, width, height);
+    }
+
+    /**
+     * 统计绘制的次数。
+     */
+    static class CountingSlider extends XSlider {
+
+        int mDraws;
+
+        CountingSlider(Context context) {
+            super(context);
+        }
+
+        @Override
+        public void draw(Canvas canvas) {
+            mDraws++;
+            super.draw(canvas);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.xslider.android.samples;
+
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+import android.view.Choreographer;
+
+import com.xslider.android.OnSliderGroupChangeListener;
+import com.xslider.android.SliderGroup;
+import com.xslider.android.XSlider;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 64 个相互约束的滑动条，每帧多次修改其中一个滑动条（模拟连续拖动），检查每一帧最多回调一次、
+ * 回调时所有约束都满足，并且滑动条的值与组内的值一致。耗时输出到 logcat（tag: XSliderBenchmark）。
+ */
+@RunWith(AndroidJUnit4.class)
+public class SliderGroupStressTest {
+
+    private static final String TAG = "XSliderBenchmark";
+    private static final int COUNT = 64;
+    private static final int FRAMES = 240;
+    private static final int MOVES_PER_FRAME = 4;
+    private static final float TOLERANCE = 0.01f;
+
+    @Test
+    public void sumConstraint() throws Exception {
+        run("sum = 100", 0, 100, new Configurator() {
+            @Override
+            public void configure(SliderGroup group) {
+                group.setSumConstraint(100);
+            }
+
+            @Override
+            public void check(SliderGroup group) {
+                float sum = 0;
+                for (int i = 0; i < group.size(); i++) {
+                    sum += group.getValue(i);
+                }
+                assertEquals(100, sum, TOLERANCE);
+            }
+        });
+    }
+
+    @Test
+    public void neighbourConstraint() throws Exception {
+        run("neighbour ±6", -12, 12, new Configurator() {
+            @Override
+            public void configure(SliderGroup group) {
+                group.setNeighbourConstraint(6);
+            }
+
+            @Override
+            public void check(SliderGroup group) {
+                for (int i = 1; i < group.size(); i++) {
+                    assertTrue(Math.abs(group.getValue(i) - group.getValue(i - 1)) <= 6 + TOLERANCE);
+                }
+            }
+        });
+    }
+
+    private interface Configurator {
+        void configure(SliderGroup group);
+
+        void check(SliderGroup group);
+    }
+
+    private void run(final String name, final int min, final int max,
+                     final Configurator configurator) throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final CountDownLatch done = new CountDownLatch(1);
+        final Throwable[] failure = new Throwable[1];
+        final int[] frame = new int[1];
+        final int[] lastCallbackFrame = {-1};
+        final int[] callbacks = new int[1];
+        final long[] driveNanos = new long[1];
+
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                final SliderGroup group = new SliderGroup();
+                for (int i = 0; i < COUNT; i++) {
+                    XSlider slider = new XSlider(context);
+                    slider.setValueRange(min, max, false);
+                    slider.setValue((min + max) / 2f, false);
+                    group.addSlider(slider);
+                }
+                configurator.configure(group);
+
+                group.setOnGroupChangeListener(new OnSliderGroupChangeListener() {
+                    @Override
+                    public void onGroupChanged(SliderGroup g, int[] changedIndices, int count) {
+                        try {
+                            assertTrue("more than one callback in a frame",
+                                    lastCallbackFrame[0] != frame[0]);
+                            lastCallbackFrame[0] = frame[0];
+                            callbacks[0]++;
+                            configurator.check(g);
+                            for (int i = 0; i < count; i++) {
+                                int index = changedIndices[i];
+                                assertEquals(g.getValue(index), g.getSlider(index).getExactValue(),
+                                        TOLERANCE);
+                            }
+                        } catch (Throwable t) {
+                            failure[0] = t;
+                        }
+                    }
+                });
+
+                final Random random = new Random(7);
+                Choreographer.getInstance().postFrameCallback(new Choreographer.FrameCallback() {
+                    int dragging;
+                    float value;
+
+                    @Override
+                    public void doFrame(long frameTimeNanos) {
+                        frame[0]++;
+                        if (frame[0] > FRAMES || failure[0] != null) {
+                            done.countDown();
+                            return;
+                        }
+
+                        long start = System.nanoTime();
+                        if (frame[0] % 60 == 1) {
+                            // 每秒换一个滑动条拖动
+                            dragging = random.nextInt(COUNT);
+                            value = group.getValue(dragging);
+                        }
+                        for (int i = 0; i < MOVES_PER_FRAME; i++) {
+                            value += (random.nextFloat() - 0.5f) * (max - min) / 20f;
+                            value = Math.min(max, Math.max(min, value));
+                            group.getSlider(dragging).setValue(value, false);
+                        }
+                        driveNanos[0] += System.nanoTime() - start;
+                        Choreographer.getInstance().postFrameCallback(this);
+                    }
+                });
+            }
+        });
+
+        assertTrue(done.await(FRAMES * 100, TimeUnit.MILLISECONDS));
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+        if (failure[0] != null) {
+            throw new AssertionError(failure[0]);
+        }
+        assertTrue(callbacks[0] > 0 && callbacks[0] <= FRAMES + 1);
+
+        Log.i(TAG, name + ": " + COUNT + " linked sliders, " + callbacks[0] + " callbacks in " +
+                FRAMES + " frames, " + driveNanos[0] / FRAMES / 1000f + " us per frame for " +
+                MOVES_PER_FRAME + " moves");
+    }
+}
@@ -0,0 +1,125 @@
+package com.xslider.android.samples;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.LinearLayout;
+
+import com.xslider.android.SliderStyle;
+import com.xslider.android.XSlider;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertSame;
+
+/**
+ * 创建 500 个滑动条并完成第一次绘制的耗时，以及每个滑动条占用的内存：
+ * 布局中直接设置属性（每个都解析）、只使用 style（共享解析结果）、代码中使用共享的 {@link SliderStyle}。
+ * 结果输出到 logcat（tag: XSliderBenchmark）。
+ */
+@RunWith(AndroidJUnit4.class)
+public class SliderInflateBenchmark {
+
+    private static final String TAG = "XSliderBenchmark";
+    private static final int COUNT = 500;
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 40;
+    private static final int ROUNDS = 5;
+
+    private interface Factory {
+        View create(LayoutInflater inflater, ViewGroup parent);
+    }
+
+    @Test
+    public void styleIsSharedPerResource() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                assertSame(SliderStyle.obtain(context, R.style.SampleSlider),
+                        SliderStyle.obtain(context, R.style.SampleSlider));
+            }
+        });
+    }
+
+    @Test
+    public void inflateAndDraw() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                final SliderStyle style = SliderStyle.obtain(context, R.style.SampleSlider);
+                measure("inline attributes", context, new Factory() {
+                    @Override
+                    public View create(LayoutInflater inflater, ViewGroup parent) {
+                        return inflater.inflate(R.layout.item_slider_inline, parent, false);
+                    }
+                });
+                measure("style only", context, new Factory() {
+                    @Override
+                    public View create(LayoutInflater inflater, ViewGroup parent) {
+                        return inflater.inflate(R.layout.item_slider_styled, parent, false);
+                    }
+                });
+                measure("shared SliderStyle", context, new Factory() {
+                    @Override
+                    public View create(LayoutInflater inflater, ViewGroup parent) {
+                        XSlider slider = new XSlider(parent.getContext(), style);
+                        slider.setLayoutParams(new ViewGroup.LayoutParams(
+                                ViewGroup.LayoutParams.MATCH_PARENT, 40));
+                        return slider;
+                    }
+                });
+            }
+        });
+    }
+
+    private static void measure(String name, Context context, Factory factory) {
+        LayoutInflater inflater = LayoutInflater.from(context);
+        Bitmap bitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+
+        long best = Long.MAX_VALUE;
+        long bytes = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long before = usedMemory();
+            long start = System.nanoTime();
+
+            LinearLayout parent = new LinearLayout(context);
+            parent.setOrientation(LinearLayout.VERTICAL);
+            for (int i = 0; i < COUNT; i++) {
+                View view = factory.create(inflater, parent);
+                parent.addView(view);
+                SliderFixtures.layout(view, WIDTH, HEIGHT);
+                view.draw(canvas);
+            }
+
+            best = Math.min(best, System.nanoTime() - start);
+            bytes = usedMemory() - before;
+            // 保证内存统计时 parent 仍然存活
+            if (parent.getChildCount() != COUNT) {
+                throw new AssertionError();
+            }
+        }
+        bitmap.recycle();
+
+        Log.i(TAG, name + ": inflate + first draw of " + COUNT + " sliders " + best / 1000000f +
+                " ms, retained " + bytes / COUNT + " bytes per slider");
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            runtime.gc();
+            System.runFinalization();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,131 @@
+package com.xslider.android.samples;
+
+import android.app.Instrumentation;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.rule.ActivityTestRule;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.ViewGroup;
+
+import com.xslider.android.OnPositionChangeListener;
+import com.xslider.android.XSlider;
+import com.xslider.android.samples.SliderFixtures.CountingSlider;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 滑块动画在图层上运行：动画期间控件不重绘；阻塞主线程后，动画结束时滑块的位置、值和回调的结果应该保持一致。
+ */
+@RunWith(AndroidJUnit4.class)
+public class ThumbLayerAnimationTest {
+
+    private static final long BLOCK_MILLIS = 1000;
+
+    @Rule
+    public ActivityTestRule<MainActivity> mActivityRule =
+            new ActivityTestRule<MainActivity>(MainActivity.class);
+
+    @Test
+    public void settlesAfterMainThreadIsBlocked() throws Exception {
+        final Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+        final XSlider slider = (XSlider) mActivityRule.getActivity().findViewById(R.id.slider);
+        final CountDownLatch settled = new CountDownLatch(1);
+        final float[] delivered = new float[1];
+
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                slider.setPosition(0f, false);
+                slider.setThumbLayerEnabled(true);
+                slider.requestLayout();
+            }
+        });
+        instrumentation.waitForIdleSync();
+
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                slider.setDispatchMode(XSlider.DISPATCH_MODE_GESTURE_END);
+                slider.setOnPositionChangeListener(new OnPositionChangeListener() {
+                    @Override
+                    public void onPositionChanged(XSlider view, boolean fromUser, float oldPos,
+                                                  float newPos, int oldValue, int newValue) {
+                        delivered[0] = newPos;
+                        settled.countDown();
+                    }
+                });
+                slider.setPosition(1f, true);
+                assertEquals(1f, slider.getPosition(), 0f);
+
+                // 动画期间主线程被占用
+                SystemClock.sleep(BLOCK_MILLIS);
+            }
+        });
+
+        assertTrue(settled.await(BLOCK_MILLIS * 2, TimeUnit.MILLISECONDS));
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                assertEquals(1f, delivered[0], 0f);
+                assertEquals(1f, slider.getPosition(), 0f);
+                assertEquals(1f, slider.getThumbPosition(0), 0f);
+                assertEquals(slider.getMaxValue(), slider.getValue());
+            }
+        });
+    }
+
+    @Test
+    public void animationDoesNotRedrawSlider() throws Exception {
+        final Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+        final CountingSlider[] slider = new CountingSlider[1];
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                MainActivity activity = mActivityRule.getActivity();
+                slider[0] = new CountingSlider(activity);
+                SliderFixtures.attach(activity, slider[0],
+                        ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT);
+                slider[0].setPosition(0f, false);
+                slider[0].setThumbLayerEnabled(true);
+            }
+        });
+        instrumentation.waitForIdleSync();
+        SystemClock.sleep(100);
+
+        final CountDownLatch settled = new CountDownLatch(1);
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                slider[0].mDraws = 0;
+                slider[0].setDispatchMode(XSlider.DISPATCH_MODE_GESTURE_END);
+                slider[0].setOnPositionChangeListener(new OnPositionChangeListener() {
+                    @Override
+                    public void onPositionChanged(XSlider view, boolean fromUser, float oldPos,
+                                                  float newPos, int oldValue, int newValue) {
+                        settled.countDown();
+                    }
+                });
+                slider[0].setPosition(1f, true);
+            }
+        });
+
+        assertTrue(settled.await(2, TimeUnit.SECONDS));
+        SystemClock.sleep(100);
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                // 动画只改变图层的属性，控件本身一次也不重绘
+                assertEquals(0, slider[0].mDraws);
+                assertEquals(1f, slider[0].getThumbPosition(0), 0f);
+            }
+        });
+    }
+}
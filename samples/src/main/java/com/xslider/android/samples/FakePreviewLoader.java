@@ -0,0 +1,70 @@
+package com.xslider.android.samples;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+import com.xslider.android.PreviewLoader;
+import com.xslider.android.PreviewRequest;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 模拟加载延迟的预览图加载器：延迟 50 ~ 150 毫秒后返回一张按值着色的位图。
+ */
+public class FakePreviewLoader implements PreviewLoader {
+
+    private static final int WIDTH = 160;
+    private static final int HEIGHT = 90;
+
+    private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(2);
+    private final Map<PreviewRequest, Future<?>> pending =
+            new ConcurrentHashMap<PreviewRequest, Future<?>>();
+    private final Random random = new Random();
+
+    private int loadCount;
+    private int cancelCount;
+
+    @Override
+    public void load(final PreviewRequest request) {
+        loadCount++;
+        long delay = 50 + random.nextInt(100);
+        Future<?> future = executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                pending.remove(request);
+                if (request.isCancelled()) {
+                    return;
+                }
+
+                Bitmap bitmap = request.getReusableBitmap();
+                if (bitmap == null || bitmap.getWidth() != WIDTH || bitmap.getHeight() != HEIGHT) {
+                    bitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+                }
+                float hue = (request.getValue() * 3.6f) % 360;
+                bitmap.eraseColor(Color.HSVToColor(new float[]{hue, 0.6f, 0.9f}));
+                request.deliver(bitmap);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+        pending.put(request, future);
+    }
+
+    @Override
+    public void cancel(PreviewRequest request) {
+        cancelCount++;
+        Future<?> future = pending.remove(request);
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FakePreviewLoader{loads=" + loadCount + ", cancels=" + cancelCount + "}";
+    }
+}
@@ -2,10 +2,12 @@ package com.xslider.android.samples;
 
 import android.os.Bundle;
 import android.support.v7.app.AppCompatActivity;
+import android.util.Log;
 import android.view.View;
 import android.widget.TextView;
 
 import com.xslider.android.OnPositionChangeListener;
+import com.xslider.android.SliderMetricsAggregator;
 import com.xslider.android.XSlider;
 
 public class MainActivity extends AppCompatActivity
@@ -14,6 +16,8 @@ public class MainActivity extends AppCompatActivity
 
     TextView tv1, tv2, tv3;
     XSlider slider;
+    SliderMetricsAggregator metrics = new SliderMetricsAggregator();
+    FakePreviewLoader previewLoader = new FakePreviewLoader();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -26,6 +30,10 @@ public class MainActivity extends AppCompatActivity
 
         slider = (XSlider) findViewById(R.id.slider);
         slider.setOnPositionChangeListener(this);
+        slider.setMetrics(metrics);
+        slider.setPreviewLoader(previewLoader, 1);
+        float density = getResources().getDisplayMetrics().density;
+        slider.setPreviewSize((int) (80 * density), (int) (45 * density));
 
         findViewById(R.id.btn1).setOnClickListener(this);
         findViewById(R.id.btn2).setOnClickListener(this);
@@ -34,6 +42,14 @@ public class MainActivity extends AppCompatActivity
         tv3.setText(String.valueOf(slider.getMaxValue()));
     }
 
+    @Override
+    protected void onPause() {
+        super.onPause();
+        Log.i("XSlider", metrics.toString());
+        Log.i("XSlider", previewLoader + ", preview cache hits=" + slider.getPreviewCacheHitCount()
+                + ", misses=" + slider.getPreviewCacheMissCount());
+    }
+
     @Override
     public void onPositionChanged(XSlider view, boolean fromUser, float oldPos, float newPos, int oldValue, int newValue) {
         tv1.setText("当前值: " + view.getValue() + ", 确切值: " + view.getExactValue());
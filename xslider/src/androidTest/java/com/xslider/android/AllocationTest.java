@@ -0,0 +1,109 @@
+package com.xslider.android;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Debug;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.MotionEvent;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 稳定状态下 draw()、onTouchEvent()、setPosition() 不分配对象：预热一轮后统计主线程 10000 帧拖动和绘制的分配次数。
+ * {@link Debug#startAllocCounting()} 只在 Dalvik（Android 4.4 及以前）上有效，ART 上这个测试会被跳过；
+ * 其中不依赖 Android 的计算部分由 JVM 上的 HotPathAllocationTest 检查。
+ */
+@RunWith(AndroidJUnit4.class)
+public class AllocationTest {
+
+    private static final int WIDTH = SliderFixtures.BENCHMARK_WIDTH;
+    private static final int HEIGHT = SliderFixtures.BENCHMARK_HEIGHT;
+    private static final int FRAMES = 10000;
+    private static final int FRAMES_PER_DRAG = 100;
+
+    @Test
+    public void dragAndDrawAllocateNothing() {
+        final int[] allocations = new int[1];
+        final boolean[] supported = new boolean[1];
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                supported[0] = isAllocCountingSupported();
+                if (!supported[0]) {
+                    return;
+                }
+
+                XSlider slider = SliderFixtures.createForBenchmark(SliderFixtures.style()
+                        .setOvalThumb(30).setTrackSize(8).setStepSize(5).setShowTicks(true));
+                slider.setSecondaryRanges(new float[]{10, 20, 40, 60, 70, 75});
+                slider.setTouchPredictionEnabled(true);
+
+                Bitmap bitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+                Canvas canvas = new Canvas(bitmap);
+                long now = SystemClock.uptimeMillis();
+                MotionEvent down = MotionEvent.obtain(now, now, MotionEvent.ACTION_DOWN, 0, 0, 0);
+                MotionEvent move = MotionEvent.obtain(now, now, MotionEvent.ACTION_MOVE, 0, 0, 0);
+                MotionEvent up = MotionEvent.obtain(now, now, MotionEvent.ACTION_UP, 0, 0, 0);
+
+                // 预热：第一次绘制和拖动时才创建的缓存不算在内
+                drag(slider, canvas, down, move, up, FRAMES_PER_DRAG);
+
+                Debug.resetThreadAllocCount();
+                Debug.startAllocCounting();
+                drag(slider, canvas, down, move, up, FRAMES);
+                Debug.stopAllocCounting();
+                allocations[0] = Debug.getThreadAllocCount();
+
+                down.recycle();
+                move.recycle();
+                up.recycle();
+                bitmap.recycle();
+            }
+        });
+
+        assumeTrue("allocation counting is not supported", supported[0]);
+        assertEquals("allocations in " + FRAMES + " frames", 0, allocations[0]);
+    }
+
+    /**
+     * 每次拖动从滑块所在的位置按下，移动 {@code FRAMES_PER_DRAG - 2} 帧后抬起，每帧绘制一次。
+     */
+    private static void drag(XSlider slider, Canvas canvas, MotionEvent down, MotionEvent move,
+                             MotionEvent up, int frames) {
+        float left = slider.getPaddingLeft() + 30;
+        float width = WIDTH - slider.getPaddingLeft() - slider.getPaddingRight() - 60;
+        float y = HEIGHT / 2f;
+        for (int frame = 0; frame < frames; frame++) {
+            int step = frame % FRAMES_PER_DRAG;
+            float x = left + width * step / (FRAMES_PER_DRAG - 1);
+            MotionEvent event;
+            if (step == 0) {
+                slider.setPosition(0, false);
+                event = down;
+            } else if (step == FRAMES_PER_DRAG - 1) {
+                event = up;
+            } else {
+                event = move;
+            }
+            event.setLocation(x, y);
+            slider.onTouchEvent(event);
+            slider.draw(canvas);
+        }
+    }
+
+    private static boolean isAllocCountingSupported() {
+        Debug.resetThreadAllocCount();
+        Debug.startAllocCounting();
+        Object[] probe = new Object[1];
+        Debug.stopAllocCounting();
+        boolean supported = Debug.getThreadAllocCount() > 0 && probe.length == 1;
+        Debug.resetThreadAllocCount();
+        return supported;
+    }
+}
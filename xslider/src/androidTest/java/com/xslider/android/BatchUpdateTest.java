@@ -0,0 +1,145 @@
+package com.xslider.android;
+
+import android.graphics.Color;
+import android.support.test.runner.AndroidJUnit4;
+
+import com.xslider.android.SliderFixtures.CountingSlider;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+/**
+ * 批量修改：无论中间修改了多少次，结束时只重绘一次、只请求一次布局、只回调一次监听事件；
+ * 中间抛出异常时也能正确结束。
+ */
+@RunWith(AndroidJUnit4.class)
+public class BatchUpdateTest {
+
+    @Test
+    public void oneInvalidateLayoutAndCallbackPerBatch() {
+        RecordingSlider slider = create();
+        slider.reset();
+
+        slider.beginBatchUpdate();
+        for (int i = 1; i <= 10; i++) {
+            slider.setValue(i * 5, false);
+        }
+        slider.setProgressColor(Color.RED);
+        slider.setTrackColor(Color.GRAY);
+        slider.requestLayout();
+        slider.requestLayout();
+        slider.endBatchUpdate();
+
+        slider.assertCounts(1, 1, 1);
+        assertEquals(0f, slider.mOldPos, 0f);
+        assertEquals(0.5f, slider.mNewPos, 1e-6f);
+    }
+
+    @Test
+    public void nestedBatchesFlushOnce() {
+        RecordingSlider slider = create();
+        slider.reset();
+
+        slider.beginBatchUpdate();
+        slider.setValue(20, false);
+        slider.beginBatchUpdate();
+        slider.setValue(40, false);
+        slider.endBatchUpdate();
+        // 内层结束时不生效
+        slider.assertCounts(0, 0, 0);
+        slider.setValue(60, false);
+        slider.endBatchUpdate();
+
+        slider.assertCounts(1, 0, 1);
+        assertEquals(0.6f, slider.mNewPos, 1e-6f);
+    }
+
+    @Test
+    public void unchangedBatchDoesNotNotify() {
+        final RecordingSlider slider = create();
+        slider.setValue(30, false);
+        slider.reset();
+
+        slider.batch(new Runnable() {
+            @Override
+            public void run() {
+                slider.setValue(70, false);
+                slider.setValue(30, false);
+            }
+        });
+        assertEquals(0, slider.mCallbacks);
+    }
+
+    @Test
+    public void batchEndsWhenUpdatesThrow() {
+        final RecordingSlider slider = create();
+        slider.reset();
+
+        try {
+            slider.batch(new Runnable() {
+                @Override
+                public void run() {
+                    slider.setValue(50, false);
+                    throw new IllegalStateException("update failed");
+                }
+            });
+            fail();
+        } catch (IllegalStateException expected) {
+            // 期望的异常
+        }
+        assertFalse(slider.isBatchUpdating());
+        // 异常之前的修改照常生效
+        slider.assertCounts(1, 0, 1);
+
+        // 之后的修改不再被批量修改吞掉
+        slider.setValue(80, false);
+        assertEquals(2, slider.mCallbacks);
+        assertEquals(0.8f, slider.mNewPos, 1e-6f);
+    }
+
+    private static RecordingSlider create() {
+        RecordingSlider slider = new RecordingSlider(SliderFixtures.style()
+                .setOvalThumb(10).setTrackSize(4).setValueRange(0, 100).build());
+        SliderFixtures.layout(slider, SliderFixtures.WIDTH, SliderFixtures.HEIGHT);
+        return slider;
+    }
+
+    /**
+     * 记录位置改变的回调。
+     */
+    static class RecordingSlider extends CountingSlider implements OnPositionChangeListener {
+
+        int mCallbacks;
+        float mOldPos;
+        float mNewPos;
+
+        RecordingSlider(SliderStyle style) {
+            super(SliderFixtures.context(), style);
+            setOnPositionChangeListener(this);
+        }
+
+        @Override
+        void reset() {
+            super.reset();
+            mCallbacks = 0;
+        }
+
+        void assertCounts(int invalidates, int layouts, int callbacks) {
+            assertEquals("invalidates", invalidates, getInvalidates());
+            assertEquals("layouts", layouts, mLayouts);
+            assertEquals("callbacks", callbacks, mCallbacks);
+        }
+
+        @Override
+        public void onPositionChanged(XSlider view, boolean fromUser, float oldPos, float newPos,
+                                      int oldValue, int newValue) {
+            mCallbacks++;
+            mOldPos = oldPos;
+            mNewPos = newPos;
+        }
+    }
+}
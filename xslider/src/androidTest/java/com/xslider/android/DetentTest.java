@@ -0,0 +1,110 @@
+package com.xslider.android;
+
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.MotionEvent;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 吸附点与步长同时使用时，滑块停在吸附点上而不是最近的步长位置；清除吸附点时回调放开。
+ */
+@RunWith(AndroidJUnit4.class)
+public class DetentTest {
+
+    /**
+     * 控件的高度是宽度的两倍，触摸范围覆盖整个滑动条，按在任何位置都能抓住滑块。
+     */
+    private static final int WIDTH = 200;
+    private static final int HEIGHT = 400;
+
+    private final List<Integer> mDetentChanges = new ArrayList<Integer>();
+
+    @Test
+    public void setValueKeepsDetentOffStep() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                XSlider slider = create();
+                slider.setValue(33, false);
+                assertEquals(33, slider.getExactValue(), 1e-3f);
+
+                // 不在吸附点上时仍然吸附到步长
+                slider.setValue(37, false);
+                assertEquals(40, slider.getExactValue(), 1e-3f);
+            }
+        });
+    }
+
+    @Test
+    public void dragStaysOnDetentOffStep() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                XSlider slider = create();
+                dragUntilCaptured(slider);
+                assertEquals(0, slider.getCapturedDetent());
+                assertEquals(33, slider.getExactValue(), 1e-3f);
+            }
+        });
+    }
+
+    @Test
+    public void clearingDetentsReleasesCapture() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                XSlider slider = create();
+                slider.setOnDetentChangeListener(new OnDetentChangeListener() {
+                    @Override
+                    public void onDetentChanged(XSlider view, int index, float value) {
+                        mDetentChanges.add(index);
+                    }
+                });
+                dragUntilCaptured(slider);
+                assertEquals(1, mDetentChanges.size());
+                assertEquals(0, (int) mDetentChanges.get(0));
+
+                slider.setDetents((float[]) null);
+                assertEquals(-1, slider.getCapturedDetent());
+                assertEquals(2, mDetentChanges.size());
+                assertEquals(-1, (int) mDetentChanges.get(1));
+            }
+        });
+    }
+
+    private static XSlider create() {
+        XSlider slider = SliderFixtures.create(SliderFixtures.style()
+                .setValueRange(0, 100).setStepSize(10), WIDTH, HEIGHT);
+        slider.setDetents(33);
+        slider.setValue(0, false);
+        return slider;
+    }
+
+    /**
+     * 从滑块所在的位置按下，每次向右移动 1 像素，直到吸住吸附点，不抬起。
+     */
+    private static void dragUntilCaptured(XSlider slider) {
+        long now = SystemClock.uptimeMillis();
+        float y = HEIGHT / 2f;
+        touch(slider, MotionEvent.ACTION_DOWN, now, 0, y);
+        for (int x = 1; x < WIDTH && slider.getCapturedDetent() < 0; x++) {
+            touch(slider, MotionEvent.ACTION_MOVE, now + x * 8, x, y);
+        }
+        assertTrue("detent not captured", slider.getCapturedDetent() >= 0);
+    }
+
+    private static void touch(XSlider slider, int action, long time, float x, float y) {
+        MotionEvent event = MotionEvent.obtain(time, time, action, x, y, 0);
+        slider.onTouchEvent(event);
+        event.recycle();
+    }
+}
@@ -0,0 +1,106 @@
+package com.xslider.android;
+
+import android.graphics.Rect;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.View;
+
+import com.xslider.android.SliderFixtures.CountingSlider;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 滑块移动时只重绘新旧滑块的区域以及两者之间的滑动条，并且不多于此。
+ * <p>
+ * 控件宽 220、高 40，圆形滑块半径 10 时滑动条从 x = 10 到 x = 210，中心 y = 20；
+ * 每个方向多留 1 像素给抗锯齿的边缘。
+ */
+@RunWith(AndroidJUnit4.class)
+public class DirtyRectTest {
+
+    @Test
+    public void ovalThumbLtr() {
+        CountingSlider slider = SliderFixtures.create(
+                SliderFixtures.style().setOvalThumb(10).setTrackSize(4));
+
+        move(slider, 0f, 0.5f);
+        // 旧滑块 [0, 20]，新滑块 [100, 120]
+        assertDirty(slider, -1, 9, 121, 31);
+        assertCovers(slider.mDirty, 0, 10, 20, 30);
+        assertCovers(slider.mDirty, 100, 10, 120, 30);
+    }
+
+    @Test
+    public void ovalThumbRtl() {
+        CountingSlider slider = SliderFixtures.create(
+                SliderFixtures.style().setOvalThumb(10).setTrackSize(4));
+        slider.onRtlPropertiesChanged(View.LAYOUT_DIRECTION_RTL);
+
+        move(slider, 0f, 0.5f);
+        // RTL 时位置 0 在右端：旧滑块 [200, 220]，新滑块 [100, 120]
+        assertDirty(slider, 99, 9, 221, 31);
+        assertCovers(slider.mDirty, 200, 10, 220, 30);
+    }
+
+    @Test
+    public void trackThickerThanThumb() {
+        CountingSlider slider = SliderFixtures.create(
+                SliderFixtures.style().setOvalThumb(10).setTrackSize(30));
+
+        move(slider, 0.25f, 0.75f);
+        // 纵向按滑动条的粗细
+        assertDirty(slider, 49, 4, 171, 36);
+    }
+
+    @Test
+    public void rectangleThumb() {
+        CountingSlider slider = SliderFixtures.create(
+                SliderFixtures.style().setRectangleThumb(12, 20, 2).setTrackSize(4));
+
+        // 滑动条从 x = 6 到 x = 214
+        move(slider, 0f, 0.25f);
+        assertDirty(slider, -1, 9, 65, 31);
+    }
+
+    @Test
+    public void disabledRectangleThumbIsDrawnLarger() {
+        CountingSlider slider = SliderFixtures.create(
+                SliderFixtures.style().setRectangleThumb(12, 20, 2).setTrackSize(4)
+                        .setEnabled(false));
+
+        // 未启用时绘制为 24 x 40
+        move(slider, 0f, 0.25f);
+        assertDirty(slider, -7, -1, 71, 41);
+    }
+
+    @Test
+    public void noMoveNoInvalidate() {
+        CountingSlider slider = SliderFixtures.create(
+                SliderFixtures.style().setOvalThumb(10).setTrackSize(4));
+
+        move(slider, 0.5f, 0.5f);
+        assertEquals(0, slider.mPartialInvalidates);
+        assertEquals(0, slider.mFullInvalidates);
+    }
+
+    private static void move(CountingSlider slider, float from, float to) {
+        slider.setPosition(from, false);
+        slider.reset();
+        slider.setPosition(to, false);
+    }
+
+    private static void assertDirty(CountingSlider slider, int left, int top, int right,
+                                    int bottom) {
+        assertEquals(0, slider.mFullInvalidates);
+        assertEquals(1, slider.mPartialInvalidates);
+        assertEquals(new Rect(left, top, right, bottom), slider.mDirty);
+    }
+
+    private static void assertCovers(Rect dirty, int left, int top, int right, int bottom) {
+        assertTrue(dirty + " does not cover thumb",
+                dirty.contains(new Rect(left, top, right, bottom)));
+    }
+}
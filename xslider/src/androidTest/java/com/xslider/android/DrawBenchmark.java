@@ -0,0 +1,122 @@
+package com.xslider.android;
+
+import android.graphics.Canvas;
+import android.graphics.Picture;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import com.xslider.android.SliderFixtures.CountingSlider;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * 移动滑块并绘制一帧（{@link XSlider#draw(Canvas)}）的耗时，与 benchmarks 模块中纯计算部分的基准测试互为补充。
+ * 绘制到 {@link Picture} 的录制画布上，只记录绘制命令、不光栅化，结果主要反映 draw() 本身在 CPU 上的开销。
+ * 结果输出到 logcat（tag: XSliderBenchmark）。
+ */
+@RunWith(AndroidJUnit4.class)
+public class DrawBenchmark {
+
+    private static final String TAG = "XSliderBenchmark";
+    private static final int WIDTH = SliderFixtures.BENCHMARK_WIDTH;
+    private static final int HEIGHT = SliderFixtures.BENCHMARK_HEIGHT;
+    private static final int FRAMES = 2000;
+    private static final int BATCH = 100;
+    private static final int ROUNDS = 5;
+
+    /**
+     * 比较滑动条形状只生成一次与每次绘制前都重新生成（原来的做法）的耗时，差值即生成形状的开销。
+     */
+    @Test
+    public void trackGeometry() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                CountingSlider oval = SliderFixtures.createForBenchmark(
+                        SliderFixtures.style().setOvalThumb(30).setTrackSize(8));
+                CountingSlider rectangle = SliderFixtures.createForBenchmark(
+                        SliderFixtures.style().setRectangleThumb(12, 40, 4).setTrackSize(8));
+
+                Log.i(TAG, "track geometry: oval cached " + measure(oval, false) / FRAMES
+                        + " ns, rebuilt " + measure(oval, true) / FRAMES
+                        + " ns; rectangle cached " + measure(rectangle, false) / FRAMES
+                        + " ns, rebuilt " + measure(rectangle, true) / FRAMES + " ns per draw");
+            }
+        });
+    }
+
+    /**
+     * 开启静态滑动条缓存后，每帧只合成缓存与每次绘制前都重新生成缓存的耗时，差值即生成缓存的开销。
+     */
+    @Test
+    public void staticTrackCache() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                CountingSlider slider = SliderFixtures.createForBenchmark(SliderFixtures.style()
+                        .setOvalThumb(30).setTrackSize(8).setValueRange(0, 1000)
+                        .setStepSize(10).setShowTicks(true));
+                slider.setStaticTrackCacheEnabled(true);
+
+                Log.i(TAG, "static track cache: cached " + measure(slider, false) / FRAMES
+                        + " ns, rebuilt " + measure(slider, true) / FRAMES + " ns per draw");
+            }
+        });
+    }
+
+    @Test
+    public void drawFrame() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                long plain = measure(SliderFixtures.createForBenchmark(
+                        SliderFixtures.style().setOvalThumb(30).setTrackSize(8)), false);
+
+                CountingSlider decorated = SliderFixtures.createForBenchmark(SliderFixtures.style()
+                        .setOvalThumb(30).setTrackSize(8).setValueRange(0, 1000)
+                        .setStepSize(10).setShowTicks(true));
+                float[] ranges = new float[40];
+                for (int i = 0; i < ranges.length; i += 2) {
+                    ranges[i] = i * 25;
+                    ranges[i + 1] = i * 25 + 20;
+                }
+                decorated.setSecondaryRanges(ranges);
+                long ticks = measure(decorated, false);
+
+                Log.i(TAG, "draw: plain " + plain / FRAMES + " ns per draw, ticks and ranges "
+                        + ticks / FRAMES + " ns per draw");
+            }
+        });
+    }
+
+    /**
+     * @param rebuild 每次绘制前是否让形状失效
+     * @return 多轮中最快的一轮移动滑块并绘制 {@link #FRAMES} 帧的耗时，单位: 纳秒
+     */
+    private static long measure(CountingSlider slider, boolean rebuild) {
+        Picture picture = new Picture();
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int batch = 0; batch < FRAMES / BATCH; batch++) {
+                // 每批重新开始录制，避免录制的命令无限增长
+                Canvas canvas = picture.beginRecording(WIDTH, HEIGHT);
+                for (int i = 0; i < BATCH; i++) {
+                    slider.setPosition(i / (float) BATCH, false);
+                    if (rebuild) {
+                        slider.invalidateGeometry();
+                    }
+                    slider.draw(canvas);
+                }
+                picture.endRecording();
+            }
+            // 第一轮用于预热
+            if (round > 0) {
+                best = Math.min(best, System.nanoTime() - start);
+            }
+        }
+        return best;
+    }
+}
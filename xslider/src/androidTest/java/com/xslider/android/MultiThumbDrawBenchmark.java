@@ -0,0 +1,81 @@
+package com.xslider.android;
+
+import android.graphics.Canvas;
+import android.graphics.Picture;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * 2、100、1000 个滑块时每帧的绘制耗时（圆形滑块一次 drawPoints，矩形滑块逐个绘制），
+ * 每帧移动其中一个滑块。绘制到 {@link Picture} 的录制画布上，只统计 draw() 在 CPU 上的开销。
+ * 结果输出到 logcat（tag: XSliderBenchmark）。
+ */
+@RunWith(AndroidJUnit4.class)
+public class MultiThumbDrawBenchmark {
+
+    private static final String TAG = "XSliderBenchmark";
+    private static final int WIDTH = SliderFixtures.BENCHMARK_WIDTH;
+    private static final int HEIGHT = SliderFixtures.BENCHMARK_HEIGHT;
+    private static final int FRAMES = 1000;
+    private static final int BATCH = 50;
+    private static final int ROUNDS = 5;
+    private static final int[] THUMB_COUNTS = {2, 100, 1000};
+
+    @Test
+    public void drawManyThumbs() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                for (int count : THUMB_COUNTS) {
+                    long oval = measure(create(count,
+                            SliderFixtures.style().setOvalThumb(12).setTrackSize(4)));
+                    long rectangle = measure(create(count,
+                            SliderFixtures.style().setRectangleThumb(8, 24, 2).setTrackSize(4)));
+                    Log.i(TAG, count + " thumbs: oval " + oval / FRAMES + " ns per draw, rectangle "
+                            + rectangle / FRAMES + " ns per draw");
+                }
+            }
+        });
+    }
+
+    private static XSlider create(int count, SliderStyle.Builder builder) {
+        XSlider slider = SliderFixtures.createForBenchmark(builder);
+        float[] positions = new float[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = (i + 0.5f) / count;
+        }
+        slider.setThumbPositions(positions);
+        return slider;
+    }
+
+    /**
+     * @return 多轮中最快的一轮绘制 {@link #FRAMES} 帧的耗时，单位: 纳秒
+     */
+    private static long measure(XSlider slider) {
+        Picture picture = new Picture();
+        int middle = slider.getThumbCount() / 2;
+        float base = slider.getThumbPosition(middle);
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int batch = 0; batch < FRAMES / BATCH; batch++) {
+                Canvas canvas = picture.beginRecording(WIDTH, HEIGHT);
+                for (int i = 0; i < BATCH; i++) {
+                    // 在相邻两个滑块之间来回移动
+                    slider.setThumbPosition(middle, base + (i % 2) * 1e-4f, false);
+                    slider.draw(canvas);
+                }
+                picture.endRecording();
+            }
+            // 第一轮用于预热
+            if (round > 0) {
+                best = Math.min(best, System.nanoTime() - start);
+            }
+        }
+        return best;
+    }
+}
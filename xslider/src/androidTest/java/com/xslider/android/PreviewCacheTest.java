@@ -0,0 +1,156 @@
+package com.xslider.android;
+
+import android.app.Instrumentation;
+import android.graphics.Bitmap;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 预览图缓存的命中率和淘汰：按最近最少使用的顺序淘汰，缓存和复用池加起来不超过上限；
+ * 拖动时沿拖动方向预取，手指到达时大多已经在缓存中。
+ */
+@RunWith(AndroidJUnit4.class)
+public class PreviewCacheTest {
+
+    private static final int SIZE = 10;
+    private static final int BITMAP_BYTES = SIZE * SIZE * 4;
+    private static final int CAPACITY = 8;
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        PreviewCache cache = new PreviewCache(CAPACITY * BITMAP_BYTES);
+        for (int key = 0; key < CAPACITY; key++) {
+            cache.put(key, newBitmap());
+        }
+        // 访问 0 之后它成为最近使用的，下一次淘汰 1
+        assertNotNull(cache.get(0));
+        cache.put(CAPACITY, newBitmap());
+        assertTrue(cache.contains(0));
+        assertFalse(cache.contains(1));
+        assertTrue(cache.contains(CAPACITY));
+
+        assertNull(cache.get(1));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void neverExceedsCapacity() {
+        PreviewCache cache = new PreviewCache(CAPACITY * BITMAP_BYTES);
+        for (int key = 0; key < 100; key++) {
+            // 淘汰的位图进入复用池，再被取出用于下一次加载
+            Bitmap bitmap = key % 3 == 0 ? cache.obtainReusable(null) : null;
+            cache.put(key, bitmap != null ? bitmap : newBitmap());
+            assertTrue("size " + cache.getSize(), cache.getSize() <= CAPACITY * BITMAP_BYTES);
+            if (key % 5 == 0) {
+                // 取消的请求把位图还给复用池
+                cache.release(newBitmap());
+                assertTrue("size " + cache.getSize(), cache.getSize() <= CAPACITY * BITMAP_BYTES);
+            }
+        }
+
+        // 缩小上限时立即淘汰
+        cache.setMaxBytes(3 * BITMAP_BYTES);
+        assertTrue(cache.getSize() <= 3 * BITMAP_BYTES);
+        assertTrue(cache.contains(99));
+        assertFalse(cache.contains(96));
+    }
+
+    @Test
+    public void reusesEvictedBitmaps() {
+        PreviewCache cache = new PreviewCache(2 * BITMAP_BYTES);
+        Bitmap first = newBitmap();
+        cache.put(0, first);
+        cache.put(1, newBitmap());
+        cache.setMaxBytes(BITMAP_BYTES);
+        // 被淘汰的位图超出上限，不进入复用池
+        assertNull(cache.obtainReusable(null));
+
+        cache.setMaxBytes(2 * BITMAP_BYTES);
+        Bitmap second = newBitmap();
+        cache.release(second);
+        assertNull(cache.obtainReusable(second));
+        assertSame(second, cache.obtainReusable(null));
+    }
+
+    @Test
+    public void scrubPrefetchesAlongDirection() {
+        Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+        final ScrubPreview preview = new ScrubPreview(new ScrubPreview.Callback() {
+            @Override
+            public void onPreviewChanged() {
+            }
+        });
+        preview.setLoader(new PreviewLoader() {
+            @Override
+            public void load(PreviewRequest request) {
+                Bitmap bitmap = request.getReusableBitmap();
+                request.deliver(bitmap != null ? bitmap : newBitmap());
+            }
+
+            @Override
+            public void cancel(PreviewRequest request) {
+            }
+        }, 1);
+        preview.setCacheSize(CAPACITY * BITMAP_BYTES);
+        final PreviewCache cache = preview.getCache();
+
+        // 向右拖动到 40，再拖回 0，每帧移动一个步长，速度估计为 4 个步长
+        int lookups = 0;
+        for (int value = 0; value <= 40; value++) {
+            frame(instrumentation, preview, value, value + 4);
+            lookups++;
+            assertTrue("size " + cache.getSize(), cache.getSize() <= CAPACITY * BITMAP_BYTES);
+        }
+        // 只有第一帧未命中，之后手指到达的位置都已经预取
+        assertEquals(1, preview.getMissCount());
+        assertEquals(lookups - 1, preview.getHitCount());
+        // 已经远离的位置被淘汰
+        assertFalse(cache.contains(0));
+
+        for (int value = 39; value >= 0; value--) {
+            frame(instrumentation, preview, value, value - 4);
+            lookups++;
+            assertTrue("size " + cache.getSize(), cache.getSize() <= CAPACITY * BITMAP_BYTES);
+        }
+        // 转向时预取的方向也跟着改变
+        float hitRate = (float) preview.getHitCount() / lookups;
+        assertTrue("hit rate " + hitRate, hitRate > 0.9f);
+
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                preview.stop();
+            }
+        });
+    }
+
+    /**
+     * 在主线程更新手指的位置并处理这一帧，再等待加载结果回到主线程。
+     */
+    private static void frame(Instrumentation instrumentation, final ScrubPreview preview,
+                              final int value, final int predicted) {
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                preview.update(value, Math.max(0, Math.min(100, predicted)), 0, 100);
+                preview.doFrame(System.nanoTime());
+            }
+        });
+        instrumentation.waitForIdleSync();
+    }
+
+    private static Bitmap newBitmap() {
+        return Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888);
+    }
+}
@@ -0,0 +1,126 @@
+package com.xslider.android;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.support.test.InstrumentationRegistry;
+import android.view.View;
+
+/**
+ * 测试和基准测试共用的滑动条：按固定的尺寸测量、布局，并统计重绘、布局和绘制的次数。
+ */
+final class SliderFixtures {
+
+    /**
+     * 测试使用的尺寸。
+     */
+    static final int WIDTH = 220;
+    static final int HEIGHT = 40;
+
+    /**
+     * 基准测试使用的尺寸，接近手机屏幕的宽度。
+     */
+    static final int BENCHMARK_WIDTH = 1080;
+    static final int BENCHMARK_HEIGHT = 60;
+
+    private SliderFixtures() {
+    }
+
+    static Context context() {
+        return InstrumentationRegistry.getTargetContext();
+    }
+
+    static SliderStyle.Builder style() {
+        return new SliderStyle.Builder(context());
+    }
+
+    static CountingSlider create(SliderStyle.Builder builder) {
+        return create(builder, WIDTH, HEIGHT);
+    }
+
+    static CountingSlider createForBenchmark(SliderStyle.Builder builder) {
+        return create(builder, BENCHMARK_WIDTH, BENCHMARK_HEIGHT);
+    }
+
+    static CountingSlider create(SliderStyle.Builder builder, int width, int height) {
+        CountingSlider slider = new CountingSlider(context(), builder.build());
+        layout(slider, width, height);
+        return slider;
+    }
+
+    /**
+     * 按指定的尺寸测量并布局，不需要添加到窗口中。
+     */
+    static void layout(View view, int width, int height) {
+        view.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, width, height);
+    }
+
+    /**
+     * 统计真正交给系统的重绘、布局请求以及绘制的次数，批量修改期间被合并的调用不计入。
+     */
+    static class CountingSlider extends XSlider {
+
+        final Rect mDirty = new Rect();
+        int mPartialInvalidates;
+        int mFullInvalidates;
+        int mLayouts;
+        int mDraws;
+
+        CountingSlider(Context context, SliderStyle style) {
+            super(context, style);
+        }
+
+        void reset() {
+            mDirty.setEmpty();
+            mPartialInvalidates = 0;
+            mFullInvalidates = 0;
+            mLayouts = 0;
+            mDraws = 0;
+        }
+
+        int getInvalidates() {
+            return mPartialInvalidates + mFullInvalidates;
+        }
+
+        /**
+         * 尺寸改变时形状会重新生成，不改变尺寸地回调一次，模拟每帧都重新生成形状。
+         */
+        void invalidateGeometry() {
+            onSizeChanged(getWidth(), getHeight(), getWidth(), getHeight());
+        }
+
+        @Override
+        public void invalidate() {
+            if (!isBatchUpdating()) {
+                mFullInvalidates++;
+            }
+            super.invalidate();
+        }
+
+        @Override
+        public void invalidate(int l, int t, int r, int b) {
+            // 父类的构造方法中就会调用，此时字段还没有初始化
+            if (mDirty != null && !isBatchUpdating()) {
+                mPartialInvalidates++;
+                mDirty.union(l, t, r, b);
+            }
+            super.invalidate(l, t, r, b);
+        }
+
+        @Override
+        public void requestLayout() {
+            if (!isBatchUpdating()) {
+                mLayouts++;
+            }
+            super.requestLayout();
+        }
+
+        @Override
+        public void draw(Canvas canvas) {
+            mDraws++;
+            super.draw(canvas);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.xslider.android;
+
+import android.app.Instrumentation;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 组内的滑动条：在批量修改中更新，滑动条单独修改的范围立即生效，全部离开窗口时立即更新并停止等待下一帧。
+ */
+@RunWith(AndroidJUnit4.class)
+public class SliderGroupTest {
+
+    private Instrumentation mInstrumentation;
+    private SliderGroup mGroup;
+    private XSlider mFirst;
+    private XSlider mSecond;
+    private CountDownLatch mPublished;
+    private int mGroupChanges;
+
+    @Before
+    public void setUp() {
+        mInstrumentation = InstrumentationRegistry.getInstrumentation();
+        mPublished = new CountDownLatch(1);
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mFirst = SliderFixtures.create(SliderFixtures.style().setValueRange(0, 100));
+                mSecond = SliderFixtures.create(SliderFixtures.style().setValueRange(0, 100));
+                mFirst.setValue(50, false);
+                mSecond.setValue(50, false);
+
+                mGroup = new SliderGroup();
+                mGroup.addSlider(mFirst);
+                mGroup.addSlider(mSecond);
+                mGroup.setNeighbourConstraint(10);
+                mGroup.setOnGroupChangeListener(new OnSliderGroupChangeListener() {
+                    @Override
+                    public void onGroupChanged(SliderGroup group, int[] changedIndices,
+                                               int changedCount) {
+                        mGroupChanges++;
+                        mPublished.countDown();
+                    }
+                });
+            }
+        });
+    }
+
+    @Test
+    public void listenersSeeTheWholeGroupUpdated() throws Exception {
+        final float[] secondSeen = new float[1];
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mFirst.setOnPositionChangeListener(new OnPositionChangeListener() {
+                    @Override
+                    public void onPositionChanged(XSlider view, boolean fromUser, float oldPos,
+                                                  float newPos, int oldValue, int newValue) {
+                        secondSeen[0] = mSecond.getExactValue();
+                    }
+                });
+                mGroup.setValue(0, 80);
+            }
+        });
+
+        assertTrue(mPublished.await(1, TimeUnit.SECONDS));
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                assertEquals(80, mFirst.getExactValue(), 1e-3f);
+                assertEquals(70, mSecond.getExactValue(), 1e-3f);
+                // 第一个滑动条回调时，第二个滑动条已经更新
+                assertEquals(70, secondSeen[0], 1e-3f);
+            }
+        });
+    }
+
+    @Test
+    public void rangeChangedOnSliderIsUsedImmediately() throws Exception {
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mSecond.setValueRange(0, 60, false);
+                mGroup.setValue(0, 90);
+                // 按新的范围修正，第二个滑动条最多到 60
+                assertEquals(60, mGroup.getValue(1), 1e-3f);
+            }
+        });
+        assertTrue(mPublished.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void detachingAllSlidersPublishesAndStopsWaiting() throws Exception {
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mGroup.setValue(0, 80);
+                // 所有滑动条都不在窗口中，立即更新
+                mFirst.onDetachedFromWindow();
+                assertEquals(1, mGroupChanges);
+                assertEquals(70, mSecond.getExactValue(), 1e-3f);
+            }
+        });
+
+        // 已经从帧时钟移除，下一帧不会再回调
+        mInstrumentation.waitForIdleSync();
+        Thread.sleep(100);
+        mInstrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                assertEquals(1, mGroupChanges);
+            }
+        });
+    }
+}
@@ -0,0 +1,90 @@
+package com.xslider.android;
+
+import java.util.Arrays;
+
+/**
+ * 滑块的吸附点（例如预设的缩放比例、章节位置）。吸附点按位置从小到大保存在基本类型数组中，
+ * 每次移动只做一次二分查找，耗时只随吸附点数量对数增长。
+ * <p>
+ * 吸附和脱离使用不同的半径：进入吸附半径时被吸住，离开更大的脱离半径后才放开，避免在边界上来回跳动。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ */
+final class DetentTable {
+
+    static final int NONE = -1;
+
+    private final float[] mValues;
+    private final float[] mPositions;
+    private int mCaptured = NONE;
+
+    /**
+     * @param values 吸附点的值，会被复制并排序
+     */
+    DetentTable(float[] values) {
+        mValues = Arrays.copyOf(values, values.length);
+        Arrays.sort(mValues);
+        mPositions = new float[mValues.length];
+    }
+
+    int size() {
+        return mValues.length;
+    }
+
+    float getValue(int index) {
+        return mValues[index];
+    }
+
+    float getPosition(int index) {
+        return mPositions[index];
+    }
+
+    /**
+     * 设置吸附点的位置。值到位置的映射是单调的，位置仍然有序。
+     */
+    void setPosition(int index, float position) {
+        mPositions[index] = position;
+    }
+
+    int getCaptured() {
+        return mCaptured;
+    }
+
+    void release() {
+        mCaptured = NONE;
+    }
+
+    /**
+     * 查找离指定位置最近的吸附点。
+     *
+     * @return 吸附点的索引，没有吸附点时返回 {@link #NONE}
+     */
+    int nearest(float position) {
+        return mPositions.length == 0 ? NONE :
+                SliderMath.nearestIndex(mPositions, mPositions.length, position);
+    }
+
+    /**
+     * 根据手指所在的位置更新吸附状态。
+     *
+     * @param position      手指所在的位置
+     * @param captureRadius 吸附半径（位置的百分比）
+     * @param releaseRadius 脱离半径（位置的百分比），不小于吸附半径
+     * @return 当前吸住的吸附点，没有时返回 {@link #NONE}
+     */
+    int update(float position, float captureRadius, float releaseRadius) {
+        if (mCaptured != NONE) {
+            if (Math.abs(position - mPositions[mCaptured]) <= releaseRadius) {
+                return mCaptured;
+            }
+            mCaptured = NONE;
+        }
+
+        int nearest = nearest(position);
+        if (nearest != NONE && Math.abs(position - mPositions[nearest]) <= captureRadius) {
+            mCaptured = nearest;
+        }
+        return mCaptured;
+    }
+}
@@ -0,0 +1,94 @@
+package com.xslider.android;
+
+/**
+ * 拖动预测：根据手指的速度把滑块画在下一帧显示出来时手指预计所在的位置。
+ * <p>
+ * 事件在某一帧的输入阶段处理，这一帧绘制的内容在下一个垂直同步显示，因此需要预测的时间是
+ * 从事件发生到“处理事件的那一帧的下一个垂直同步”，而不是固定的一帧。
+ * 不依赖 Android，可以在 JVM 上用录制的事件回放测试。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ */
+final class DragPredictor {
+
+    private static final long NANOS_PER_MILLI = 1000000L;
+    private static final float VELOCITY_SMOOTHING = 0.6f;
+
+    private float mVelocity;
+    private long mLastTime;
+
+    /**
+     * 开始新的拖动。
+     *
+     * @param eventTime 按下的时间，单位: 毫秒
+     */
+    void reset(long eventTime) {
+        mVelocity = 0;
+        mLastTime = eventTime;
+    }
+
+    /**
+     * 根据相邻两个采样点更新速度（平滑处理）。
+     *
+     * @param dx        与上一个采样点的距离，单位: 像素
+     * @param eventTime 采样的时间，单位: 毫秒
+     */
+    void addSample(float dx, long eventTime) {
+        long dt = eventTime - mLastTime;
+        if (dt > 0) {
+            mVelocity = VELOCITY_SMOOTHING * dx / dt + (1 - VELOCITY_SMOOTHING) * mVelocity;
+            mLastTime = eventTime;
+        }
+    }
+
+    /**
+     * 获取拖动的速度，单位: 像素/毫秒。
+     */
+    float getVelocity() {
+        return mVelocity;
+    }
+
+    /**
+     * 预测最后一个采样点之后手指移动的距离。
+     *
+     * @param frameTimeNanos   最近一次已知的垂直同步时间，0 表示未知
+     * @param intervalNanos    每帧的时长，单位: 纳秒
+     * @param maxLookaheadNanos 预测时间的上限，单位: 纳秒
+     * @param maxDistance      预测距离的上限，单位: 像素
+     * @return 预测的距离，单位: 像素
+     */
+    float predict(long frameTimeNanos, long intervalNanos, long maxLookaheadNanos,
+                  float maxDistance) {
+        long lookahead = Math.min(maxLookaheadNanos,
+                lookahead(mLastTime * NANOS_PER_MILLI, frameTimeNanos, intervalNanos));
+        float distance = mVelocity * lookahead / NANOS_PER_MILLI;
+        return Math.min(maxDistance, Math.max(-maxDistance, distance));
+    }
+
+    /**
+     * 计算从事件发生到它所在的那一帧显示出来的时间。
+     * <p>
+     * 事件在发生之后的第一个垂直同步被处理（批量的历史事件也在这时一起处理），
+     * 绘制的内容在再下一个垂直同步显示。
+     *
+     * @param eventTimeNanos 事件的时间，单位: 纳秒
+     * @param frameTimeNanos 最近一次已知的垂直同步时间，0 表示未知，此时按一帧计算
+     * @param intervalNanos  每帧的时长，单位: 纳秒
+     * @return 预测的时间，单位: 纳秒
+     */
+    static long lookahead(long eventTimeNanos, long frameTimeNanos, long intervalNanos) {
+        if (frameTimeNanos <= 0 || intervalNanos <= 0) {
+            return Math.max(0, intervalNanos);
+        }
+
+        // 处理事件的垂直同步：不早于事件、并且在最近一次已知的垂直同步之后
+        long frames = 1;
+        if (eventTimeNanos > frameTimeNanos) {
+            frames = Math.max(1, (eventTimeNanos - frameTimeNanos + intervalNanos - 1)
+                    / intervalNanos);
+        }
+        long presentTime = frameTimeNanos + (frames + 1) * intervalNanos;
+        return Math.max(0, presentTime - eventTimeNanos);
+    }
+}
@@ -0,0 +1,148 @@
+package com.xslider.android;
+
+import java.util.Arrays;
+
+/**
+ * 所有正在动画的滑动条共用的帧时钟。正在动画的对象紧凑地保存在数组中，每帧只请求一次帧回调，
+ * 依次驱动所有对象；对象返回 false（停止）后自动移除，注册和移除都是 O(1)，每帧不分配对象。
+ * <p>
+ * 只在主线程使用。如何请求下一帧由外部决定，这里不依赖 Android，可以在普通 JVM 上测试。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ */
+final class FrameClock {
+
+    /**
+     * 由帧时钟驱动的对象。
+     */
+    abstract static class Client {
+
+        int mClockIndex = -1;
+
+        /**
+         * 每帧回调一次。
+         *
+         * @param frameTimeNanos 帧的时间戳，单位: 纳秒
+         * @return 是否需要继续回调，返回 false 后会被移除
+         */
+        abstract boolean onFrame(long frameTimeNanos);
+    }
+
+    private final Runnable mFrameRequest;
+    private Client[] mClients = new Client[8];
+    private int mCount;
+    private boolean mFrameRequested;
+    private boolean mTicking;
+    private boolean mHasRemoved;
+
+    /**
+     * @param frameRequest 请求下一帧，在下一帧到来时调用 {@link #tick(long)}
+     */
+    FrameClock(Runnable frameRequest) {
+        mFrameRequest = frameRequest;
+    }
+
+    int size() {
+        return mCount;
+    }
+
+    boolean isRegistered(Client client) {
+        return client.mClockIndex >= 0;
+    }
+
+    /**
+     * 注册对象，从下一帧开始回调。已经注册时不做任何事。
+     */
+    void register(Client client) {
+        if (client.mClockIndex >= 0) {
+            return;
+        }
+
+        if (mCount == mClients.length) {
+            mClients = Arrays.copyOf(mClients, mCount * 2);
+        }
+        client.mClockIndex = mCount;
+        mClients[mCount++] = client;
+        requestFrame();
+    }
+
+    /**
+     * 移除对象。回调过程中移除时先留空，本帧结束后再压缩数组。
+     */
+    void unregister(Client client) {
+        int index = client.mClockIndex;
+        if (index < 0) {
+            return;
+        }
+
+        client.mClockIndex = -1;
+        if (mTicking) {
+            mClients[index] = null;
+            mHasRemoved = true;
+        } else {
+            // 用最后一个对象填补空位
+            Client last = mClients[--mCount];
+            mClients[mCount] = null;
+            if (last != client) {
+                mClients[index] = last;
+                last.mClockIndex = index;
+            }
+        }
+    }
+
+    /**
+     * 驱动本帧开始前注册的所有对象。回调中新注册的对象从下一帧开始回调。
+     */
+    void tick(long frameTimeNanos) {
+        mFrameRequested = false;
+        mTicking = true;
+        try {
+            final int count = mCount;
+            for (int i = 0; i < count; i++) {
+                // 回调中注册的对象可能使数组扩容，之后的移除只在新的数组上留空，每次都重新读取
+                Client client = mClients[i];
+                if (client != null && !client.onFrame(frameTimeNanos)
+                        && client.mClockIndex == i) {
+                    client.mClockIndex = -1;
+                    mClients[i] = null;
+                    mHasRemoved = true;
+                }
+            }
+        } finally {
+            mTicking = false;
+            if (mHasRemoved) {
+                compact();
+            }
+        }
+
+        if (mCount > 0) {
+            requestFrame();
+        }
+    }
+
+    /**
+     * 移除空位，保持对象原来的顺序。
+     */
+    private void compact() {
+        final Client[] clients = mClients;
+        int count = 0;
+        for (int i = 0; i < mCount; i++) {
+            Client client = clients[i];
+            if (client != null) {
+                client.mClockIndex = count;
+                clients[count++] = client;
+            }
+        }
+        Arrays.fill(clients, count, mCount, null);
+        mCount = count;
+        mHasRemoved = false;
+    }
+
+    private void requestFrame() {
+        if (!mFrameRequested && !mTicking) {
+            mFrameRequested = true;
+            mFrameRequest.run();
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.xslider.android;
+
+import java.util.Arrays;
+
+/**
+ * 一组相互约束的值，支持“总和等于固定值”和“相邻两个值之差不超过固定值”两种约束。
+ * 修改其中一个值时，固定这个值并增量地调整其他值，同时记录哪些值发生了改变。
+ * <p>
+ * 总和约束按其他值可以移动的余量按比例分摊，保证不超出各自的范围；相邻约束从修改的位置向两侧传递，
+ * 遇到已经满足约束的值就停止。两种约束同时存在时把其他值整体平移，见 {@link #shiftToSum(int)}。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ */
+final class GroupSolver {
+
+    static final int MAX_PASSES = 8;
+
+    private static final float EPSILON = 1e-4f;
+
+    private float[] mValues = new float[8];
+    private float[] mMin = new float[8];
+    private float[] mMax = new float[8];
+    private int mCount;
+
+    private boolean mSumEnabled;
+    private float mSum;
+    private float mNeighbourDelta = -1;
+    private float[] mLower = new float[8];
+    private float[] mUpper = new float[8];
+
+    private boolean[] mChanged = new boolean[8];
+    private int[] mChangedIndices = new int[8];
+    private int mChangedCount;
+
+    int size() {
+        return mCount;
+    }
+
+    float getValue(int index) {
+        return mValues[index];
+    }
+
+    /**
+     * 添加一个值，不会修正约束。
+     *
+     * @return 值的索引
+     */
+    int add(float value, float min, float max) {
+        if (mCount == mValues.length) {
+            int capacity = mCount * 2;
+            mValues = Arrays.copyOf(mValues, capacity);
+            mMin = Arrays.copyOf(mMin, capacity);
+            mMax = Arrays.copyOf(mMax, capacity);
+            mLower = new float[capacity];
+            mUpper = new float[capacity];
+            mChanged = Arrays.copyOf(mChanged, capacity);
+            mChangedIndices = Arrays.copyOf(mChangedIndices, capacity);
+        }
+        mValues[mCount] = Math.min(max, Math.max(min, value));
+        mMin[mCount] = min;
+        mMax[mCount] = max;
+        return mCount++;
+    }
+
+    void clear() {
+        clearChanged();
+        mCount = 0;
+    }
+
+    void setRange(int index, float min, float max) {
+        mMin[index] = min;
+        mMax[index] = max;
+    }
+
+    /**
+     * @param enabled 是否约束总和
+     * @param sum     总和
+     */
+    void setSum(boolean enabled, float sum) {
+        mSumEnabled = enabled;
+        mSum = sum;
+    }
+
+    /**
+     * @param delta 相邻两个值之差的最大值，小于 0 表示没有相邻约束
+     */
+    void setNeighbourDelta(float delta) {
+        mNeighbourDelta = delta;
+    }
+
+    /**
+     * 修改一个值并修正其他值。
+     *
+     * @return 修正后这个值实际的大小，其他值无法满足约束时会被限制
+     */
+    float set(int index, float value) {
+        setValue(index, clamp(index, value));
+        solve(index);
+        return mValues[index];
+    }
+
+    /**
+     * 在不固定任何值的情况下修正所有约束，用于设置约束之后。
+     */
+    void solveAll() {
+        solve(-1);
+    }
+
+    private void solve(int pinned) {
+        if (mSumEnabled && mNeighbourDelta >= 0) {
+            if (pinned < 0) {
+                propagateNeighbours(0, true);
+            }
+            shiftToSum(pinned);
+            // 平移的舍入误差会慢慢累积，再修正一遍，改变量都很小
+            propagateNeighbours(pinned < 0 ? 0 : pinned, true);
+        } else if (mSumEnabled) {
+            distributeSum(pinned);
+        } else if (mNeighbourDelta >= 0) {
+            propagateNeighbours(pinned < 0 ? 0 : pinned, pinned < 0);
+        }
+    }
+
+    /**
+     * 把总和的差额按余量分摊给除了固定的值以外的其他值，余量不足时再调整固定的值。
+     */
+    private void distributeSum(int pinned) {
+        float residual = mSum - sum();
+        if (Math.abs(residual) <= sumTolerance()) {
+            return;
+        }
+
+        float room = 0;
+        for (int i = 0; i < mCount; i++) {
+            if (i != pinned) {
+                room += residual > 0 ? mMax[i] - mValues[i] : mValues[i] - mMin[i];
+            }
+        }
+
+        if (room > 0) {
+            float ratio = Math.min(1f, Math.abs(residual) / room);
+            for (int i = 0; i < mCount; i++) {
+                if (i != pinned) {
+                    float r = residual > 0 ? mMax[i] - mValues[i] : mValues[i] - mMin[i];
+                    setValue(i, mValues[i] + Math.signum(residual) * r * ratio);
+                }
+            }
+            residual = mSum - sum();
+        }
+        if (pinned >= 0 && Math.abs(residual) > sumTolerance()) {
+            setValue(pinned, clamp(pinned, mValues[pinned] + residual));
+        }
+    }
+
+    /**
+     * 两种约束同时存在时，把其他值整体平移同一个量，再限制在固定的值周围允许的范围内。
+     * 其他值之间原本满足相邻约束，平移和限制都不会破坏它；平移量用二分查找求出，使总和正好相等。
+     * 其他值移动到极限仍然不够时再调整固定的值，重复最多 {@link #MAX_PASSES} 轮，仍然无法满足时优先保证相邻约束。
+     */
+    private void shiftToSum(int pinned) {
+        final float[] lower = mLower;
+        final float[] upper = mUpper;
+        final float tolerance = sumTolerance();
+        for (int pass = 0; pass < MAX_PASSES; pass++) {
+            // 固定的值上下限相同，平移时不动
+            float low = Float.MAX_VALUE;
+            float high = -Float.MAX_VALUE;
+            for (int i = 0; i < mCount; i++) {
+                if (i == pinned) {
+                    lower[i] = mValues[i];
+                    upper[i] = mValues[i];
+                } else if (pinned < 0) {
+                    lower[i] = mMin[i];
+                    upper[i] = mMax[i];
+                } else {
+                    float cone = mNeighbourDelta * Math.abs(i - pinned);
+                    lower[i] = Math.max(mMin[i], mValues[pinned] - cone);
+                    upper[i] = Math.min(mMax[i], mValues[pinned] + cone);
+                }
+                low = Math.min(low, lower[i] - mValues[i]);
+                high = Math.max(high, upper[i] - mValues[i]);
+            }
+
+            float shift;
+            if (shiftedSum(high) <= mSum) {
+                shift = high;
+            } else if (shiftedSum(low) >= mSum) {
+                shift = low;
+            } else {
+                shift = (low + high) / 2;
+                for (int i = 0; i < 32; i++) {
+                    float sum = shiftedSum(shift);
+                    if (Math.abs(sum - mSum) <= tolerance) {
+                        break;
+                    }
+                    if (sum < mSum) {
+                        low = shift;
+                    } else {
+                        high = shift;
+                    }
+                    shift = (low + high) / 2;
+                }
+            }
+            for (int i = 0; i < mCount; i++) {
+                setValue(i, Math.min(upper[i], Math.max(lower[i], mValues[i] + shift)));
+            }
+
+            float residual = mSum - sum();
+            if (pinned < 0 || Math.abs(residual) <= tolerance || pass == MAX_PASSES - 1) {
+                // 最后一轮以平移结束，优先保证相邻约束
+                return;
+            }
+            float value = clamp(pinned, mValues[pinned] + residual);
+            if (value == mValues[pinned]) {
+                return;
+            }
+            setValue(pinned, value);
+        }
+    }
+
+    private float shiftedSum(float shift) {
+        final float[] values = mValues;
+        final float[] lower = mLower;
+        final float[] upper = mUpper;
+        float sum = 0;
+        for (int i = 0; i < mCount; i++) {
+            sum += Math.min(upper[i], Math.max(lower[i], values[i] + shift));
+        }
+        return sum;
+    }
+
+    private float clamp(int index, float value) {
+        return Math.min(mMax[index], Math.max(mMin[index], value));
+    }
+
+    /**
+     * 从指定的位置向两侧传递相邻约束。
+     *
+     * @param full 是否检查所有的值，否则遇到已经满足约束的值就停止
+     */
+    private void propagateNeighbours(int from, boolean full) {
+        final float delta = mNeighbourDelta;
+        for (int i = from + 1; i < mCount; i++) {
+            float previous = mValues[i - 1];
+            float value = Math.min(previous + delta, Math.max(previous - delta, mValues[i]));
+            value = Math.min(mMax[i], Math.max(mMin[i], value));
+            if (value == mValues[i]) {
+                if (full) {
+                    continue;
+                }
+                break;
+            }
+            setValue(i, value);
+        }
+        for (int i = from - 1; i >= 0; i--) {
+            float next = mValues[i + 1];
+            float value = Math.min(next + delta, Math.max(next - delta, mValues[i]));
+            value = Math.min(mMax[i], Math.max(mMin[i], value));
+            if (value == mValues[i]) {
+                if (full) {
+                    continue;
+                }
+                break;
+            }
+            setValue(i, value);
+        }
+    }
+
+    /**
+     * 总和的误差允许范围，总和较大时 float 的精度不足 {@link #EPSILON}。
+     */
+    private float sumTolerance() {
+        return Math.max(EPSILON, Math.abs(mSum) * 1e-6f);
+    }
+
+    private float sum() {
+        float sum = 0;
+        for (int i = 0; i < mCount; i++) {
+            sum += mValues[i];
+        }
+        return sum;
+    }
+
+    private void setValue(int index, float value) {
+        if (mValues[index] != value) {
+            mValues[index] = value;
+            if (!mChanged[index]) {
+                mChanged[index] = true;
+                mChangedIndices[mChangedCount++] = index;
+            }
+        }
+    }
+
+    int getChangedCount() {
+        return mChangedCount;
+    }
+
+    /**
+     * 发生改变的值的索引，只有前 {@link #getChangedCount()} 个有效。
+     */
+    int[] getChangedIndices() {
+        return mChangedIndices;
+    }
+
+    void clearChanged() {
+        for (int i = 0; i < mChangedCount; i++) {
+            mChanged[mChangedIndices[i]] = false;
+        }
+        mChangedCount = 0;
+    }
+}
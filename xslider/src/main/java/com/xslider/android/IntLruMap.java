@@ -0,0 +1,127 @@
+package com.xslider.android;
+
+/**
+ * 以 int 为键、按访问顺序排列的映射，键和值分别保存在数组中，不装箱也不为每个元素分配节点，
+ * 容量稳定后读写都不分配对象。查找是线性的 O(n)，适合预览图缓存这种只有几十个元素的场景。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ */
+final class IntLruMap<V> {
+
+    /**
+     * 从最近最少使用到最近使用排列。
+     */
+    private int[] mKeys = new int[16];
+    private Object[] mValues = new Object[16];
+    private int mSize;
+
+    int size() {
+        return mSize;
+    }
+
+    /**
+     * 获取值并标记为最近使用。
+     */
+    V get(int key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        V value = valueAt(index);
+        moveToEnd(index);
+        return value;
+    }
+
+    /**
+     * 是否包含指定的键，不改变访问顺序。
+     */
+    boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * 放入值并标记为最近使用。
+     *
+     * @return 被替换的值，没有时返回 null
+     */
+    V put(int key, V value) {
+        int index = indexOf(key);
+        if (index >= 0) {
+            V previous = valueAt(index);
+            moveToEnd(index);
+            mValues[mSize - 1] = value;
+            return previous;
+        }
+
+        ensureCapacity(mSize + 1);
+        mKeys[mSize] = key;
+        mValues[mSize] = value;
+        mSize++;
+        return null;
+    }
+
+    /**
+     * 移除最近最少使用的元素。
+     *
+     * @return 被移除的值，为空时返回 null
+     */
+    V removeEldest() {
+        if (mSize == 0) {
+            return null;
+        }
+        V value = valueAt(0);
+        mSize--;
+        System.arraycopy(mKeys, 1, mKeys, 0, mSize);
+        System.arraycopy(mValues, 1, mValues, 0, mSize);
+        mValues[mSize] = null;
+        return value;
+    }
+
+    void clear() {
+        for (int i = 0; i < mSize; i++) {
+            mValues[i] = null;
+        }
+        mSize = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int index) {
+        return (V) mValues[index];
+    }
+
+    private int indexOf(int key) {
+        // 从最近使用的一端开始查找，拖动时命中的多是刚刚访问过的位置
+        for (int i = mSize - 1; i >= 0; i--) {
+            if (mKeys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void moveToEnd(int index) {
+        int last = mSize - 1;
+        if (index == last) {
+            return;
+        }
+        int key = mKeys[index];
+        Object value = mValues[index];
+        System.arraycopy(mKeys, index + 1, mKeys, index, last - index);
+        System.arraycopy(mValues, index + 1, mValues, index, last - index);
+        mKeys[last] = key;
+        mValues[last] = value;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > mKeys.length) {
+            int newCapacity = Math.max(capacity, mKeys.length * 2);
+            int[] keys = new int[newCapacity];
+            Object[] values = new Object[newCapacity];
+            System.arraycopy(mKeys, 0, keys, 0, mSize);
+            System.arraycopy(mValues, 0, values, 0, mSize);
+            mKeys = keys;
+            mValues = values;
+        }
+    }
+}
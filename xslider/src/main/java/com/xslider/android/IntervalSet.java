@@ -0,0 +1,119 @@
+package com.xslider.android;
+
+/**
+ * 有序、互不相交的区间集合，起点和终点分别保存在两个基本类型数组中。
+ * 新加入的区间会和重叠或相接的区间合并：二分查找定位 O(log n)，合并 k 个区间后整体移动数组。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ */
+final class IntervalSet {
+
+    private float[] mStarts = new float[16];
+    private float[] mEnds = new float[16];
+    private int mSize;
+
+    int size() {
+        return mSize;
+    }
+
+    float getStart(int index) {
+        return mStarts[index];
+    }
+
+    float getEnd(int index) {
+        return mEnds[index];
+    }
+
+    void clear() {
+        mSize = 0;
+    }
+
+    /**
+     * 加入区间 [start, end]，与已有的重叠或相接的区间合并。
+     *
+     * @return 是否改变了集合
+     */
+    boolean add(float start, float end) {
+        if (!(end > start)) {
+            return false;
+        }
+
+        // 第一个终点不小于 start 的区间
+        int first = lowerBoundOfEnds(start);
+        // 第一个起点大于 end 的区间
+        int last = upperBoundOfStarts(end);
+
+        if (first < last) {
+            // [first, last) 这些区间都与新区间重叠或相接，合并成一个
+            float mergedStart = Math.min(start, mStarts[first]);
+            float mergedEnd = Math.max(end, mEnds[last - 1]);
+            if (last - first == 1 && mergedStart == mStarts[first] &&
+                    mergedEnd == mEnds[first]) {
+                return false;
+            }
+
+            mStarts[first] = mergedStart;
+            mEnds[first] = mergedEnd;
+            int removed = last - first - 1;
+            if (removed > 0) {
+                System.arraycopy(mStarts, last, mStarts, first + 1, mSize - last);
+                System.arraycopy(mEnds, last, mEnds, first + 1, mSize - last);
+                mSize -= removed;
+            }
+        } else {
+            ensureCapacity(mSize + 1);
+            System.arraycopy(mStarts, first, mStarts, first + 1, mSize - first);
+            System.arraycopy(mEnds, first, mEnds, first + 1, mSize - first);
+            mStarts[first] = start;
+            mEnds[first] = end;
+            mSize++;
+        }
+        return true;
+    }
+
+    /**
+     * 二分查找第一个终点不小于指定值的区间，即第一个可能与 [key, +∞) 重叠的区间。
+     *
+     * @return 区间的索引，没有时返回 {@link #size()}
+     */
+    int lowerBoundOfEnds(float key) {
+        int low = 0;
+        int high = mSize;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (mEnds[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int upperBoundOfStarts(float key) {
+        int low = 0;
+        int high = mSize;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (mStarts[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > mStarts.length) {
+            int newCapacity = Math.max(capacity, mStarts.length * 2);
+            float[] starts = new float[newCapacity];
+            float[] ends = new float[newCapacity];
+            System.arraycopy(mStarts, 0, starts, 0, mSize);
+            System.arraycopy(mEnds, 0, ends, 0, mSize);
+            mStarts = starts;
+            mEnds = ends;
+        }
+    }
+}
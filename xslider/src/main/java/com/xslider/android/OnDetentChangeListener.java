@@ -0,0 +1,19 @@
+package com.xslider.android;
+
+/**
+ * 拖动时滑块被吸附点吸住或放开的监听事件。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ */
+public interface OnDetentChangeListener {
+
+    /**
+     * 吸住的吸附点改变。
+     *
+     * @param view  Slider
+     * @param index 吸附点按值从小到大排序后的索引，放开时为 -1
+     * @param value 吸附点的值，放开时为当前的确切值
+     */
+    void onDetentChanged(XSlider view, int index, float value);
+}
@@ -0,0 +1,19 @@
+package com.xslider.android;
+
+/**
+ * 滑动条组的值改变的监听事件。同一帧内的所有改变合并为一次回调。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ */
+public interface OnSliderGroupChangeListener {
+
+    /**
+     * 组内的值改变，回调时所有滑动条都已经更新。
+     *
+     * @param group          滑动条组
+     * @param changedIndices 值发生改变的滑动条的索引，数组会被复用，只在回调中有效
+     * @param changedCount   改变的数量，只有 changedIndices 的前 changedCount 个有效
+     */
+    void onGroupChanged(SliderGroup group, int[] changedIndices, int changedCount);
+}
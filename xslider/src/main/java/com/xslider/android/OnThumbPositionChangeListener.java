@@ -0,0 +1,22 @@
+package com.xslider.android;
+
+/**
+ * 多个滑块时，每个滑块位置改变的监听事件。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ */
+public interface OnThumbPositionChangeListener {
+
+    /**
+     * 滑块的位置改变。
+     *
+     * @param view     Slider
+     * @param index    滑块的索引，滑块按位置从小到大排列
+     * @param fromUser 是否用户改变的
+     * @param oldPos   原来的位置
+     * @param newPos   新的位置
+     */
+    void onThumbPositionChanged(XSlider view, int index, boolean fromUser, float oldPos,
+                                float newPos);
+}
@@ -0,0 +1,24 @@
+package com.xslider.android;
+
+/**
+ * 用户开始、结束拖动滑块时的监听事件。可以在拖动结束后再执行耗时的操作。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ */
+public interface OnTrackingTouchListener {
+
+    /**
+     * 用户开始拖动滑块。
+     *
+     * @param view Slider
+     */
+    void onStartTrackingTouch(XSlider view);
+
+    /**
+     * 用户结束拖动滑块（抬起或取消）。
+     *
+     * @param view Slider
+     */
+    void onStopTrackingTouch(XSlider view);
+}
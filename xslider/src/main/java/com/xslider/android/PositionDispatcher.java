@@ -0,0 +1,154 @@
+package com.xslider.android;
+
+/**
+ * 按照回调方式（{@link XSlider#DISPATCH_MODE_ALWAYS} 等）决定一次位置改变是立即回调、暂缓还是忽略，
+ * 并记录上一次回调的位置和值。每个监听的对象（整个滑动条或者某一个滑块）各使用一个。
+ * 不依赖 Android，时间由调用者传入，延迟回调也由调用者安排。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ */
+final class PositionDispatcher {
+
+    /**
+     * 不回调。
+     */
+    static final int SKIP = 0;
+
+    /**
+     * 立即回调，回调后需要调用 {@link #onDelivered(float, int, long)}。
+     */
+    static final int DELIVER = 1;
+
+    /**
+     * 暂缓，需要在 {@link #getDelay(long)} 毫秒后调用 {@link #flush(float, int)}。
+     */
+    static final int SCHEDULE = 2;
+
+    private int mMode = XSlider.DISPATCH_MODE_ALWAYS;
+    private long mInterval;
+    private long mLastTime;
+    private boolean mPending;
+    private boolean mPendingFromUser;
+    private float mPosition;
+    private int mValue;
+
+    void setMode(int mode) {
+        mMode = mode;
+    }
+
+    /**
+     * 设置 {@link XSlider#DISPATCH_MODE_THROTTLED} 模式下两次回调之间的最小间隔。
+     *
+     * @param interval 间隔，单位: 毫秒
+     */
+    void setInterval(long interval) {
+        mInterval = interval;
+    }
+
+    /**
+     * 丢弃暂缓的事件，以指定的位置和值作为上一次回调的结果。
+     */
+    void reset(float position, int value) {
+        mPending = false;
+        mPosition = position;
+        mValue = value;
+    }
+
+    /**
+     * 位置改变。
+     *
+     * @param fromUser 是否用户改变的
+     * @param position 新的位置
+     * @param value    新的值
+     * @param moving   是否正在拖动或者动画中
+     * @param now      当前时间，单位: 毫秒
+     * @return {@link #SKIP}、{@link #DELIVER} 或 {@link #SCHEDULE}
+     */
+    int offer(boolean fromUser, float position, int value, boolean moving, long now) {
+        switch (mMode) {
+            case XSlider.DISPATCH_MODE_VALUE_CHANGED:
+                return value != mValue ? DELIVER : SKIP;
+            case XSlider.DISPATCH_MODE_THROTTLED:
+                if (getDelay(now) <= 0) {
+                    mPending = false;
+                    return DELIVER;
+                }
+                mPendingFromUser = fromUser;
+                if (mPending) {
+                    return SKIP;
+                }
+                mPending = true;
+                return SCHEDULE;
+            case XSlider.DISPATCH_MODE_GESTURE_END:
+                if (moving) {
+                    mPendingFromUser = fromUser;
+                    mPending = true;
+                    return SKIP;
+                }
+                mPending = false;
+                return DELIVER;
+            default:
+                return DELIVER;
+        }
+    }
+
+    /**
+     * 距离下一次可以回调还需要等待的时间。
+     *
+     * @param now 当前时间，单位: 毫秒
+     * @return 等待的时间，单位: 毫秒，小于等于 0 表示可以立即回调
+     */
+    long getDelay(long now) {
+        return mLastTime + mInterval - now;
+    }
+
+    /**
+     * 取出暂缓的事件。
+     *
+     * @param position 当前的位置
+     * @param value    当前的值
+     * @return 有暂缓的事件，并且位置或值与上一次回调的不同时返回 true，此时需要回调
+     */
+    boolean flush(float position, int value) {
+        if (!mPending) {
+            return false;
+        }
+        mPending = false;
+        return position != mPosition || value != mValue;
+    }
+
+    boolean isPending() {
+        return mPending;
+    }
+
+    /**
+     * 暂缓的事件中最后一次是否用户改变的。
+     */
+    boolean isPendingFromUser() {
+        return mPendingFromUser;
+    }
+
+    /**
+     * 上一次回调的位置。
+     */
+    float getPosition() {
+        return mPosition;
+    }
+
+    /**
+     * 上一次回调的值。
+     */
+    int getValue() {
+        return mValue;
+    }
+
+    /**
+     * 记录一次回调。
+     */
+    void onDelivered(float position, int value, long now) {
+        mLastTime = now;
+        mPosition = position;
+        mValue = value;
+    }
+}
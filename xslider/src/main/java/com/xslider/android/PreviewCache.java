@@ -0,0 +1,127 @@
+package com.xslider.android;
+
+import android.graphics.Bitmap;
+
+import java.util.ArrayList;
+
+/**
+ * 按字节数限制大小的预览图 LRU 缓存，被移除的可变位图放入复用池，供下一次加载复用。
+ * 复用池中的位图也计入大小，缓存和复用池加起来不会超过上限。键不装箱，拖动时读写缓存不分配对象。只在主线程使用。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ */
+final class PreviewCache {
+
+    private static final int REUSE_POOL_SIZE = 4;
+
+    private final IntLruMap<Bitmap> mMap = new IntLruMap<Bitmap>();
+    private final ArrayList<Bitmap> mReusePool = new ArrayList<Bitmap>(REUSE_POOL_SIZE);
+    private int mMaxBytes;
+    private int mBytes;
+    private int mPoolBytes;
+    private int mHitCount;
+    private int mMissCount;
+
+    PreviewCache(int maxBytes) {
+        mMaxBytes = maxBytes;
+    }
+
+    /**
+     * 获取缓存的预览图，计入命中率。
+     */
+    Bitmap get(int key) {
+        Bitmap bitmap = mMap.get(key);
+        if (bitmap != null) {
+            mHitCount++;
+        } else {
+            mMissCount++;
+        }
+        return bitmap;
+    }
+
+    /**
+     * 是否已缓存，不改变访问顺序也不计入命中率。
+     */
+    boolean contains(int key) {
+        return mMap.containsKey(key);
+    }
+
+    void put(int key, Bitmap bitmap) {
+        Bitmap previous = mMap.put(key, bitmap);
+        if (previous != null) {
+            mBytes -= previous.getByteCount();
+            if (previous != bitmap) {
+                release(previous);
+            }
+        }
+        mBytes += bitmap.getByteCount();
+        trimToSize(mMaxBytes);
+    }
+
+    void setMaxBytes(int maxBytes) {
+        mMaxBytes = maxBytes;
+        trimToSize(maxBytes);
+    }
+
+    /**
+     * 放入复用池，池满、超出大小的上限或者位图不可复用时直接丢弃。
+     */
+    void release(Bitmap bitmap) {
+        if (bitmap.isMutable() && !bitmap.isRecycled() && mReusePool.size() < REUSE_POOL_SIZE
+                && mBytes + mPoolBytes + bitmap.getByteCount() <= mMaxBytes) {
+            mReusePool.add(bitmap);
+            mPoolBytes += bitmap.getByteCount();
+        }
+    }
+
+    /**
+     * 从复用池中取出一个位图。
+     *
+     * @param exclude 正在显示、不能被覆盖的位图
+     */
+    Bitmap obtainReusable(Bitmap exclude) {
+        for (int i = mReusePool.size() - 1; i >= 0; i--) {
+            if (mReusePool.get(i) != exclude) {
+                Bitmap bitmap = mReusePool.remove(i);
+                mPoolBytes -= bitmap.getByteCount();
+                return bitmap;
+            }
+        }
+        return null;
+    }
+
+    void clear() {
+        mMap.clear();
+        mReusePool.clear();
+        mBytes = 0;
+        mPoolBytes = 0;
+    }
+
+    /**
+     * 缓存和复用池中所有位图的字节数。
+     */
+    int getSize() {
+        return mBytes + mPoolBytes;
+    }
+
+    int getHitCount() {
+        return mHitCount;
+    }
+
+    int getMissCount() {
+        return mMissCount;
+    }
+
+    private void trimToSize(int maxBytes) {
+        // 先丢弃复用池中的位图，再按最近最少使用的顺序移除缓存
+        while (mBytes + mPoolBytes > maxBytes && !mReusePool.isEmpty()) {
+            mPoolBytes -= mReusePool.remove(0).getByteCount();
+        }
+        while (mBytes > maxBytes && mMap.size() > 0) {
+            Bitmap bitmap = mMap.removeEldest();
+            mBytes -= bitmap.getByteCount();
+            release(bitmap);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.xslider.android;
+
+/**
+ * 拖动时预览图的加载器。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ */
+public interface PreviewLoader {
+
+    /**
+     * 开始加载预览图。在主线程调用，必须立即返回，加载完成后在任意线程调用
+     * {@link PreviewRequest#deliver(android.graphics.Bitmap)}，之后请求会被复用，不能再访问。
+     *
+     * @param request 加载请求
+     */
+    void load(PreviewRequest request);
+
+    /**
+     * 请求已经不再需要（手指已经远离这个位置），可以中止加载。在主线程调用。
+     *
+     * @param request 被取消的请求
+     */
+    void cancel(PreviewRequest request);
+}
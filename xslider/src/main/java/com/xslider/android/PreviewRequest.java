@@ -0,0 +1,92 @@
+package com.xslider.android;
+
+import android.graphics.Bitmap;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 一次预览图的加载请求。请求对象会被复用：提交结果之后加载器不能再持有或访问它。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ */
+public final class PreviewRequest {
+
+    private final ScrubPreview mOwner;
+    private final AtomicBoolean mDelivered = new AtomicBoolean();
+    private final Runnable mResultTask = new Runnable() {
+        @Override
+        public void run() {
+            mOwner.onLoaded(PreviewRequest.this);
+        }
+    };
+    private int mValue;
+    private Bitmap mReusableBitmap;
+    private Bitmap mResult;
+    private volatile boolean mCancelled;
+
+    PreviewRequest(ScrubPreview owner) {
+        mOwner = owner;
+    }
+
+    /**
+     * 开始一次新的请求。
+     */
+    void reset(int value, Bitmap reusableBitmap) {
+        mValue = value;
+        mReusableBitmap = reusableBitmap;
+        mResult = null;
+        mCancelled = false;
+        mDelivered.set(false);
+    }
+
+    /**
+     * 结果已经处理完，放回复用池前释放对位图的引用。
+     */
+    void recycle() {
+        mReusableBitmap = null;
+        mResult = null;
+    }
+
+    /**
+     * 获取需要预览的值。
+     */
+    public int getValue() {
+        return mValue;
+    }
+
+    /**
+     * 获取可以复用的位图（例如作为 BitmapFactory.Options.inBitmap），可能为 null。
+     */
+    public Bitmap getReusableBitmap() {
+        return mReusableBitmap;
+    }
+
+    /**
+     * 请求是否已被取消，加载器可以据此提前结束。
+     */
+    public boolean isCancelled() {
+        return mCancelled;
+    }
+
+    /**
+     * 提交加载结果，可以在任意线程调用，只有第一次调用有效。调用之后请求会被复用，不能再访问。
+     *
+     * @param bitmap 预览图，加载失败时为 null
+     */
+    public void deliver(Bitmap bitmap) {
+        if (mDelivered.compareAndSet(false, true)) {
+            // 投递到主线程的消息保证了 mResult 的可见性
+            mResult = bitmap;
+            mOwner.postResult(mResultTask);
+        }
+    }
+
+    Bitmap getResult() {
+        return mResult;
+    }
+
+    void cancel() {
+        mCancelled = true;
+    }
+}
@@ -0,0 +1,259 @@
+package com.xslider.android;
+
+import android.graphics.Bitmap;
+import android.util.SparseArray;
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+
+/**
+ * 拖动时的预览图：每帧最多处理一次手指位置，优先加载手指所在位置的预览图，
+ * 再沿拖动方向预取手指即将到达的位置，并取消已经不需要的请求。
+ * 处理完结果的请求对象放回复用池，拖动时不为每次请求分配对象。只在主线程使用。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ */
+final class ScrubPreview implements Choreographer.FrameCallback {
+
+    static final int DEFAULT_CACHE_BYTES = 8 * 1024 * 1024;
+
+    /**
+     * 同时进行的预取请求数量的上限，不包括手指所在位置的请求。
+     */
+    private static final int MAX_IN_FLIGHT = 4;
+
+    /**
+     * 沿拖动方向最多预取的数量。
+     */
+    private static final int MAX_PREFETCH = 8;
+
+    interface Callback {
+
+        void onPreviewChanged();
+    }
+
+    private final Callback mCallback;
+    private final PreviewCache mCache = new PreviewCache(DEFAULT_CACHE_BYTES);
+    private final SparseArray<PreviewRequest> mInFlight = new SparseArray<PreviewRequest>();
+    private final ArrayList<PreviewRequest> mRequestPool =
+            new ArrayList<PreviewRequest>(MAX_IN_FLIGHT + 1);
+
+    private PreviewLoader mLoader;
+    private int mStep = 1;
+    private int mMinValue;
+    private int mMaxValue;
+
+    private boolean mActive;
+    private boolean mFramePosted;
+    private int mTargetValue;
+    private int mPredictedValue;
+    private int mCurrentKey;
+    private boolean mCurrentKeyValid;
+    private Bitmap mBitmap;
+
+    ScrubPreview(Callback callback) {
+        mCallback = callback;
+    }
+
+    void setLoader(PreviewLoader loader, int step) {
+        if (mLoader != loader) {
+            stop();
+            mCache.clear();
+        }
+        mLoader = loader;
+        mStep = Math.max(1, step);
+    }
+
+    PreviewLoader getLoader() {
+        return mLoader;
+    }
+
+    void setCacheSize(int maxBytes) {
+        mCache.setMaxBytes(maxBytes);
+    }
+
+    Bitmap getBitmap() {
+        return mBitmap;
+    }
+
+    int getHitCount() {
+        return mCache.getHitCount();
+    }
+
+    int getMissCount() {
+        return mCache.getMissCount();
+    }
+
+    PreviewCache getCache() {
+        return mCache;
+    }
+
+    /**
+     * 更新手指所在的值，在下一帧处理。
+     *
+     * @param value          手指所在的值
+     * @param predictedValue 按拖动速度估计的稍后到达的值，决定预取的方向和数量
+     */
+    void update(int value, int predictedValue, int minValue, int maxValue) {
+        if (mLoader == null) {
+            return;
+        }
+
+        mActive = true;
+        mTargetValue = value;
+        mPredictedValue = predictedValue;
+        mMinValue = minValue;
+        mMaxValue = maxValue;
+        postFrame();
+    }
+
+    /**
+     * 拖动结束，取消所有请求并隐藏预览图。
+     */
+    void stop() {
+        if (mFramePosted) {
+            Choreographer.getInstance().removeFrameCallback(this);
+            mFramePosted = false;
+        }
+        for (int i = mInFlight.size() - 1; i >= 0; i--) {
+            cancel(mInFlight.valueAt(i));
+        }
+        mInFlight.clear();
+
+        mActive = false;
+        mCurrentKeyValid = false;
+        if (mBitmap != null) {
+            mBitmap = null;
+            mCallback.onPreviewChanged();
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        mFramePosted = false;
+        if (!mActive || mLoader == null) {
+            return;
+        }
+
+        final int step = mStep;
+        int key = quantize(mTargetValue);
+        int predictedKey = quantize(mPredictedValue);
+        int direction = Integer.signum(predictedKey - key);
+        int count = direction == 0 ? 1 :
+                Math.max(1, Math.min(MAX_PREFETCH, Math.abs(predictedKey - key) / step));
+
+        // 先取消预取范围以外的请求，腾出位置
+        int low = direction > 0 ? key : key - count * step;
+        int high = direction < 0 ? key : key + count * step;
+        for (int i = mInFlight.size() - 1; i >= 0; i--) {
+            int k = mInFlight.keyAt(i);
+            if (k < low || k > high) {
+                cancel(mInFlight.valueAt(i));
+                mInFlight.removeAt(i);
+            }
+        }
+
+        if (!mCurrentKeyValid || key != mCurrentKey) {
+            mCurrentKey = key;
+            mCurrentKeyValid = true;
+            Bitmap bitmap = mCache.get(key);
+            if (bitmap != null) {
+                mBitmap = bitmap;
+                mCallback.onPreviewChanged();
+            } else if (mInFlight.get(key) == null) {
+                // 加载完成前继续显示上一张预览图
+                request(key);
+            }
+        }
+
+        // 由近及远预取，静止时预取两侧相邻的位置
+        if (direction == 0) {
+            prefetch(key - step);
+            prefetch(key + step);
+        } else {
+            for (int i = 1; i <= count; i++) {
+                prefetch(key + direction * i * step);
+            }
+        }
+    }
+
+    /**
+     * 加载器可能在任意线程提交结果，切换到主线程处理。
+     */
+    void postResult(Runnable resultTask) {
+        XSlider.getMainHandler().post(resultTask);
+    }
+
+    void onLoaded(PreviewRequest request) {
+        int key = request.getValue();
+        Bitmap bitmap = request.getResult();
+        boolean cancelled = request.isCancelled();
+        if (mInFlight.get(key) == request) {
+            mInFlight.remove(key);
+        }
+        // 结果已经提交，加载器不会再访问这个请求
+        recycleRequest(request);
+
+        if (bitmap == null) {
+            return;
+        }
+        if (cancelled || mLoader == null) {
+            mCache.release(bitmap);
+            return;
+        }
+
+        mCache.put(key, bitmap);
+        if (mActive) {
+            if (mCurrentKeyValid && key == mCurrentKey) {
+                mBitmap = bitmap;
+                mCallback.onPreviewChanged();
+            }
+            // 空出了请求的位置，在下一帧继续预取
+            postFrame();
+        }
+    }
+
+    private void prefetch(int key) {
+        if (key < mMinValue || key > mMaxValue || mCache.contains(key) ||
+                mInFlight.get(key) != null || mInFlight.size() >= MAX_IN_FLIGHT) {
+            return;
+        }
+        request(key);
+    }
+
+    private void request(int key) {
+        int last = mRequestPool.size() - 1;
+        PreviewRequest request = last >= 0 ? mRequestPool.remove(last) : new PreviewRequest(this);
+        request.reset(key, mCache.obtainReusable(mBitmap));
+        mInFlight.put(key, request);
+        mLoader.load(request);
+    }
+
+    /**
+     * 被取消但一直没有提交结果的请求不会回到复用池，由垃圾回收处理。
+     */
+    private void recycleRequest(PreviewRequest request) {
+        request.recycle();
+        if (mRequestPool.size() <= MAX_IN_FLIGHT) {
+            mRequestPool.add(request);
+        }
+    }
+
+    private void cancel(PreviewRequest request) {
+        request.cancel();
+        mLoader.cancel(request);
+    }
+
+    private int quantize(int value) {
+        int steps = Math.round((float) (value - mMinValue) / mStep);
+        return Math.min(mMaxValue, mMinValue + steps * mStep);
+    }
+
+    private void postFrame() {
+        if (!mFramePosted) {
+            mFramePosted = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.xslider.android;
+
+import java.util.ArrayList;
+
+/**
+ * 一组相互约束的滑动条，例如均衡器（每个频段与相邻频段相差不超过 6 dB）、资产配置（总和等于 100）。
+ * <p>
+ * 组持有所有滑动条的值。其中一个滑动条被拖动或调用 {@link #setValue(int, float)} 时，
+ * 固定这个值并增量地修正其他值；同一帧内的所有修改合并起来，在下一帧一次性更新到各个滑动条，
+ * 并只回调一次 {@link OnSliderGroupChangeListener}，带上所有改变了的索引。
+ * <p>
+ * 组内的值是确切值，滑动条设置了步长时显示的值会被吸附，总和可能与约束有微小的差别。只能在主线程使用。
+ * <p>
+ * 所有滑动条都离开窗口时，尚未更新的值会立即更新，并从帧时钟中移除，组和滑动条不会因此无法回收。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ */
+public final class SliderGroup {
+
+    private final ArrayList<XSlider> mSliders = new ArrayList<XSlider>();
+    private final GroupSolver mSolver = new GroupSolver();
+    private final Publisher mPublisher = new Publisher();
+    private int[] mPublishedIndices = new int[0];
+    private OnSliderGroupChangeListener mOnGroupChangeListener;
+    private boolean mPublishing;
+
+    /**
+     * 添加滑动条，索引按添加的顺序。添加时不修正约束，设置约束时才会修正。
+     *
+     * @param slider 滑动条，不能属于其他组
+     * @return 滑动条在组内的索引
+     */
+    public int addSlider(XSlider slider) {
+        if (slider.getGroup() != null) {
+            throw new IllegalArgumentException("slider already belongs to a group");
+        }
+
+        int index = mSolver.add(slider.getExactValue(), slider.getMinValue(),
+                slider.getMaxValue());
+        mSliders.add(slider);
+        slider.setGroup(this, index);
+        return index;
+    }
+
+    /**
+     * 移除所有的滑动条，约束保持不变。
+     */
+    public void clear() {
+        for (int i = 0; i < mSliders.size(); i++) {
+            mSliders.get(i).setGroup(null, -1);
+        }
+        mSliders.clear();
+        mSolver.clear();
+        XSlider.getFrameClock().unregister(mPublisher);
+    }
+
+    public int size() {
+        return mSliders.size();
+    }
+
+    public XSlider getSlider(int index) {
+        return mSliders.get(index);
+    }
+
+    /**
+     * 获取组内的值。修改后、更新到滑动条之前就是修正后的值。
+     *
+     * @param index 滑动条的索引
+     * @return 确切值
+     */
+    public float getValue(int index) {
+        return mSolver.getValue(index);
+    }
+
+    /**
+     * 修改一个滑动条的值，其他滑动条按约束修正，下一帧更新。
+     *
+     * @param index 滑动条的索引
+     * @param value 值
+     */
+    public void setValue(int index, float value) {
+        mSolver.set(index, value);
+        schedulePublish();
+    }
+
+    /**
+     * 约束所有滑动条的值的总和，设置后立即修正。
+     *
+     * @param sum 总和
+     */
+    public void setSumConstraint(float sum) {
+        mSolver.setSum(true, sum);
+        solveAll();
+    }
+
+    public void clearSumConstraint() {
+        mSolver.setSum(false, 0);
+    }
+
+    /**
+     * 约束相邻两个滑动条的值之差，设置后立即修正。
+     *
+     * @param maxDelta 差值的最大值
+     */
+    public void setNeighbourConstraint(float maxDelta) {
+        if (maxDelta < 0) {
+            throw new IllegalArgumentException("maxDelta must not be negative");
+        }
+        mSolver.setNeighbourDelta(maxDelta);
+        solveAll();
+    }
+
+    public void clearNeighbourConstraint() {
+        mSolver.setNeighbourDelta(-1);
+    }
+
+    /**
+     * 设置组内的值改变的监听事件。
+     *
+     * @param listener 监听事件
+     */
+    public void setOnGroupChangeListener(OnSliderGroupChangeListener listener) {
+        mOnGroupChangeListener = listener;
+    }
+
+    /**
+     * 组内的滑动条位置改变，由滑动条在分发位置改变时调用。
+     */
+    void onSliderChanged(int index, float value) {
+        if (mPublishing) {
+            return;
+        }
+        setValue(index, value);
+    }
+
+    /**
+     * 组内的滑动条的范围改变，由滑动条在修改范围时调用，在修正之前。
+     */
+    void onSliderRangeChanged(int index, int min, int max) {
+        mSolver.setRange(index, min, max);
+    }
+
+    /**
+     * 组内的滑动条离开窗口，由滑动条调用。所有滑动条都离开窗口时立即更新，并从帧时钟移除，
+     * 之后的修改在下一次 {@link #setValue(int, float)} 时继续在下一帧更新。
+     */
+    void onSliderDetached(int index) {
+        for (int i = 0; i < mSliders.size(); i++) {
+            // 离开窗口的回调中，这个滑动条的 getWindowToken() 还不是 null
+            if (i != index && mSliders.get(i).getWindowToken() != null) {
+                return;
+            }
+        }
+        publish();
+        XSlider.getFrameClock().unregister(mPublisher);
+    }
+
+    private void solveAll() {
+        mSolver.solveAll();
+        schedulePublish();
+    }
+
+    private void schedulePublish() {
+        if (mSolver.getChangedCount() > 0) {
+            XSlider.getFrameClock().register(mPublisher);
+        }
+    }
+
+    /**
+     * 把所有改变了的值更新到滑动条，再回调一次监听事件。所有滑动条都在批量修改中更新，
+     * 滑动条自己的监听事件在所有值都更新之后才回调，回调中读取其他滑动条得到的都是新的值。
+     * 正在拖动的滑动条的值就是手指的位置，只有被约束限制时才更新，不与手指争夺滑块。
+     */
+    private void publish() {
+        final int count = mSolver.getChangedCount();
+        if (count == 0) {
+            return;
+        }
+
+        // 先取出本次改变的索引，回调中再次修改时记录到下一帧
+        if (mPublishedIndices.length < count) {
+            mPublishedIndices = new int[Math.max(count, mSliders.size())];
+        }
+        final int[] changed = mPublishedIndices;
+        System.arraycopy(mSolver.getChangedIndices(), 0, changed, 0, count);
+        mSolver.clearChanged();
+
+        mPublishing = true;
+        try {
+            for (int i = 0; i < count; i++) {
+                mSliders.get(changed[i]).beginBatchUpdate();
+            }
+            try {
+                for (int i = 0; i < count; i++) {
+                    int index = changed[i];
+                    XSlider slider = mSliders.get(index);
+                    float value = mSolver.getValue(index);
+                    if (!slider.isDragging() || value != slider.getExactValue()) {
+                        slider.setValue(value, false);
+                    }
+                }
+            } finally {
+                for (int i = 0; i < count; i++) {
+                    mSliders.get(changed[i]).endBatchUpdate();
+                }
+            }
+        } finally {
+            mPublishing = false;
+        }
+
+        if (mOnGroupChangeListener != null) {
+            mOnGroupChangeListener.onGroupChanged(this, changed, count);
+        }
+    }
+
+    /**
+     * 每次修改后在下一帧更新一次，更新后自动从帧时钟移除；回调中又有修改时留到下一帧。
+     */
+    private class Publisher extends FrameClock.Client {
+
+        @Override
+        boolean onFrame(long frameTimeNanos) {
+            publish();
+            return mSolver.getChangedCount() > 0;
+        }
+    }
+}
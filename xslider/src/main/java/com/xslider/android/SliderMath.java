@@ -0,0 +1,160 @@
+package com.xslider.android;
+
+/**
+ * 滑动条中与 Android 无关的计算：位置和值的换算、步长吸附、最近滑块的查找和点中的判断。
+ * 不依赖任何 Android 类，可以直接在 JVM 上做基准测试。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ */
+final class SliderMath {
+
+    private SliderMath() {
+    }
+
+    /**
+     * 位置转换为确切值。
+     *
+     * @param position 位置的百分比。范围: [0..1]
+     * @param min      最小值
+     * @param max      最大值
+     * @return 确切值
+     */
+    static float toValue(float position, int min, int max) {
+        return (max - min) * position + min;
+    }
+
+    /**
+     * 值转换为位置，超出范围的值会被截断。
+     *
+     * @param value 值
+     * @param min   最小值
+     * @param max   最大值
+     * @return 位置的百分比。范围: [0..1]
+     */
+    static float toPosition(float value, int min, int max) {
+        if (max <= min) {
+            return 0;
+        }
+        value = Math.min(max, Math.max(value, min));
+        return (value - min) / (max - min);
+    }
+
+    /**
+     * 将位置吸附到最近的步长位置。范围不是步长的整数倍时，最大值也是一个吸附位置。
+     *
+     * @param position 位置的百分比
+     * @param min      最小值
+     * @param max      最大值
+     * @param step     步长，小于等于 0 表示不吸附
+     * @return 吸附后的位置
+     */
+    static float snap(float position, int min, int max, int step) {
+        int range = max - min;
+        if (step <= 0 || range <= 0) {
+            return position;
+        }
+
+        float stepPosition = (float) step / range;
+        float lower = Math.min(1f, (float) Math.floor(position / stepPosition) * stepPosition);
+        float upper = Math.min(1f, lower + stepPosition);
+        return position - lower < upper - position ? lower : upper;
+    }
+
+    /**
+     * 将值吸附到最近的步长位置。范围不是步长的整数倍时，最大值也是一个吸附位置。
+     *
+     * @param value 值
+     * @param min   最小值
+     * @param max   最大值
+     * @param step  步长，小于等于 0 表示不吸附
+     * @return 吸附后的值
+     */
+    static float snapValue(float value, int min, int max, int step) {
+        if (step <= 0 || max <= min) {
+            return value;
+        }
+
+        float lower = Math.min(max, min + (float) Math.floor((value - min) / step) * step);
+        float upper = Math.min(max, lower + step);
+        return value - lower < upper - value ? lower : upper;
+    }
+
+    /**
+     * 在有序数组中二分查找离指定值最近的元素。
+     *
+     * @param sorted 从小到大排列的数组
+     * @param count  数组中有效元素的数量，必须大于 0
+     * @param key    要查找的值
+     * @return 最近的元素的索引，距离相等时返回较小的索引
+     */
+    static int nearestIndex(float[] sorted, int count, float key) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        // low 是第一个不小于 key 的元素，最近的元素是它或它前一个
+        if (low >= count) {
+            return count - 1;
+        }
+        if (low > 0 && key - sorted[low - 1] <= sorted[low] - key) {
+            return low - 1;
+        }
+        return low;
+    }
+
+    /**
+     * 多个元素的值相同时（例如最小间距为 0 时重叠的滑块），按方向选择其中的一端。
+     * 重叠的滑块只有最后一个能向右移动、第一个能向左移动。
+     *
+     * @param sorted    从小到大排列的数组
+     * @param count     数组中有效元素的数量
+     * @param index     重叠的元素中任意一个的索引
+     * @param direction 大于 0 时返回值相同的最后一个元素，小于 0 时返回第一个，等于 0 时不变
+     * @return 选择的元素的索引
+     */
+    static int stackEnd(float[] sorted, int count, int index, float direction) {
+        final float value = sorted[index];
+        if (direction > 0) {
+            while (index + 1 < count && sorted[index + 1] == value) {
+                index++;
+            }
+        } else if (direction < 0) {
+            while (index > 0 && sorted[index - 1] == value) {
+                index--;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 指定的元素是否与相邻的元素值相同。
+     */
+    static boolean isStacked(float[] sorted, int count, int index) {
+        return (index > 0 && sorted[index - 1] == sorted[index])
+                || (index + 1 < count && sorted[index + 1] == sorted[index]);
+    }
+
+    /**
+     * 触摸点是否落在以滑块中心为中心的正方形触摸范围内。
+     *
+     * @param x             触摸点的横坐标
+     * @param y             触摸点的纵坐标
+     * @param cx            滑块中心的横坐标
+     * @param cy            滑块中心的纵坐标
+     * @param range         正方形边长的一半
+     * @param includeBottom 下边界是否包含在范围内（圆形滑块包含，矩形滑块不包含）
+     */
+    static boolean isInTouchRange(float x, float y, float cx, float cy, float range,
+                                  boolean includeBottom) {
+        return x >= cx - range && x <= cx + range && y >= cy - range
+                && (includeBottom ? y <= cy + range : y < cy + range);
+    }
+}
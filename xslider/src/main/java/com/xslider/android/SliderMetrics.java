@@ -0,0 +1,48 @@
+package com.xslider.android;
+
+/**
+ * 滑动条的性能统计回调。所有方法都在界面线程中调用，参数都是基本类型，
+ * 实现时不应该分配对象或执行耗时操作。没有设置时不会产生任何开销。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ * @see XSlider#setMetrics(SliderMetrics)
+ * @see SliderMetricsAggregator
+ */
+public interface SliderMetrics {
+
+    /**
+     * 完成一次绘制。
+     *
+     * @param durationNanos draw() 的耗时，单位: 纳秒
+     */
+    void onDraw(long durationNanos);
+
+    /**
+     * 滑块动画产生了一帧。
+     *
+     * @param skippedFrames 距离上一帧跳过的帧数，没有跳帧时为 0
+     */
+    void onAnimationFrame(int skippedFrames);
+
+    /**
+     * 回调了一次位置改变的监听事件。
+     *
+     * @param durationNanos 监听事件的耗时，单位: 纳秒
+     */
+    void onListenerDispatch(long durationNanos);
+
+    /**
+     * 拖动的触摸事件到下一次绘制之间的延迟。
+     *
+     * @param latencyMillis 延迟，单位: 毫秒
+     */
+    void onTouchToDraw(long latencyMillis);
+
+    /**
+     * 请求了一次重绘。
+     *
+     * @param partial 是否只重绘滑块移动的区域
+     */
+    void onInvalidate(boolean partial);
+}
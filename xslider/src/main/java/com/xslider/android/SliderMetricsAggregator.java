@@ -0,0 +1,186 @@
+package com.xslider.android;
+
+/**
+ * 默认的性能统计实现，把各项耗时记录到按 2 的幂分桶的直方图中。记录时不分配对象。
+ * 可以通过 {@link #toString()} 输出统计结果。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ */
+public class SliderMetricsAggregator implements SliderMetrics {
+
+    private final Histogram mDrawDuration = new Histogram();
+    private final Histogram mDispatchDuration = new Histogram();
+    private final Histogram mTouchToDraw = new Histogram();
+
+    private long mAnimationFrames;
+    private long mSkippedFrames;
+    private long mPartialInvalidates;
+    private long mFullInvalidates;
+
+    @Override
+    public void onDraw(long durationNanos) {
+        mDrawDuration.record(durationNanos);
+    }
+
+    @Override
+    public void onAnimationFrame(int skippedFrames) {
+        mAnimationFrames++;
+        mSkippedFrames += skippedFrames;
+    }
+
+    @Override
+    public void onListenerDispatch(long durationNanos) {
+        mDispatchDuration.record(durationNanos);
+    }
+
+    @Override
+    public void onTouchToDraw(long latencyMillis) {
+        mTouchToDraw.record(latencyMillis);
+    }
+
+    @Override
+    public void onInvalidate(boolean partial) {
+        if (partial) {
+            mPartialInvalidates++;
+        } else {
+            mFullInvalidates++;
+        }
+    }
+
+    /**
+     * 获取 draw() 耗时的直方图，单位: 纳秒。
+     */
+    public Histogram getDrawDuration() {
+        return mDrawDuration;
+    }
+
+    /**
+     * 获取监听事件耗时的直方图，单位: 纳秒。
+     */
+    public Histogram getDispatchDuration() {
+        return mDispatchDuration;
+    }
+
+    /**
+     * 获取触摸到绘制延迟的直方图，单位: 毫秒。
+     */
+    public Histogram getTouchToDraw() {
+        return mTouchToDraw;
+    }
+
+    public long getAnimationFrames() {
+        return mAnimationFrames;
+    }
+
+    public long getSkippedFrames() {
+        return mSkippedFrames;
+    }
+
+    public long getPartialInvalidates() {
+        return mPartialInvalidates;
+    }
+
+    public long getFullInvalidates() {
+        return mFullInvalidates;
+    }
+
+    /**
+     * 清空所有统计。
+     */
+    public void reset() {
+        mDrawDuration.reset();
+        mDispatchDuration.reset();
+        mTouchToDraw.reset();
+        mAnimationFrames = 0;
+        mSkippedFrames = 0;
+        mPartialInvalidates = 0;
+        mFullInvalidates = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "SliderMetrics{draw(ns)=" + mDrawDuration +
+                ", dispatch(ns)=" + mDispatchDuration +
+                ", touchToDraw(ms)=" + mTouchToDraw +
+                ", animationFrames=" + mAnimationFrames +
+                ", skippedFrames=" + mSkippedFrames +
+                ", partialInvalidates=" + mPartialInvalidates +
+                ", fullInvalidates=" + mFullInvalidates + "}";
+    }
+
+    /**
+     * 按 2 的幂分桶的直方图，第 i 个桶记录 [2^(i-1), 2^i) 范围内的值，第 0 个桶记录 0。
+     */
+    public static class Histogram {
+
+        private static final int BUCKET_COUNT = 64;
+
+        private final long[] mBuckets = new long[BUCKET_COUNT];
+        private long mCount;
+        private long mSum;
+        private long mMax;
+
+        void record(long value) {
+            if (value < 0) {
+                value = 0;
+            }
+            mBuckets[BUCKET_COUNT - Long.numberOfLeadingZeros(value)]++;
+            mCount++;
+            mSum += value;
+            if (value > mMax) {
+                mMax = value;
+            }
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                mBuckets[i] = 0;
+            }
+            mCount = 0;
+            mSum = 0;
+            mMax = 0;
+        }
+
+        public long getCount() {
+            return mCount;
+        }
+
+        public long getMax() {
+            return mMax;
+        }
+
+        public long getMean() {
+            return mCount == 0 ? 0 : mSum / mCount;
+        }
+
+        /**
+         * 获取百分位数的近似值（所在桶的上界）。
+         *
+         * @param percentile 百分位。范围: [0..100]
+         * @return 近似值
+         */
+        public long getPercentile(double percentile) {
+            if (mCount == 0) {
+                return 0;
+            }
+
+            long target = (long) Math.ceil(mCount * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                seen += mBuckets[i];
+                if (seen >= Math.max(1, target)) {
+                    return i == 0 ? 0 : Math.min(mMax, (1L << i) - 1);
+                }
+            }
+            return mMax;
+        }
+
+        @Override
+        public String toString() {
+            return "{count=" + mCount + ", mean=" + getMean() + ", p50=" + getPercentile(50) +
+                    ", p90=" + getPercentile(90) + ", p99=" + getPercentile(99) +
+                    ", max=" + mMax + "}";
+        }
+    }
+}
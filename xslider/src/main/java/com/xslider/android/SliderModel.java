@@ -0,0 +1,176 @@
+package com.xslider.android;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 滑动条的数据模型，不依赖 Android，可以在任意线程中读写。
+ * <p>
+ * 后台线程通过 {@link #postPosition(float)}、{@link #postValue(float)} 提交新的位置或值，
+ * 提交只是无锁地替换“待处理的更新”，不会排队：无论提交多少次，界面在下一帧只会取到最新的一次。
+ * 界面中滑块当前的位置、值可以通过 {@link #getPosition()}、{@link #getExactValue()} 在任意线程读取，
+ * 需要同一时刻的位置和值时使用 {@link #getSnapshot()}。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ */
+public class SliderModel {
+
+    static final long NO_UPDATE = 0;
+    static final long KIND_POSITION = 1L << 32;
+    static final long KIND_VALUE = 2L << 32;
+    private static final long KIND_MASK = 0xffffffffL << 32;
+
+    /**
+     * 有新的待处理更新时的回调，在提交更新的线程中调用。取走更新之前只会回调一次。
+     */
+    interface Callback {
+
+        void onUpdatePending(SliderModel model);
+    }
+
+    /**
+     * 高 32 位是更新的类型，低 32 位是位置或值的浮点数位。
+     */
+    private final AtomicLong mPendingUpdate = new AtomicLong(NO_UPDATE);
+
+    /**
+     * 界面中滑块当前的状态，高 32 位是位置的浮点数位，低 32 位是值的浮点数位，一次读写即可得到一致的快照。
+     */
+    private final AtomicLong mState = new AtomicLong(pack(0f, 0f));
+
+    private volatile Callback mCallback;
+
+    /**
+     * 拖动期间取到、暂缓应用的更新，只在界面线程读写。
+     */
+    private long mDeferredUpdate = NO_UPDATE;
+
+    /**
+     * 提交新的位置，可以在任意线程调用。
+     *
+     * @param position 位置的百分比。范围: [0..1]
+     */
+    public void postPosition(float position) {
+        postUpdate(KIND_POSITION | (Float.floatToIntBits(position) & 0xffffffffL));
+    }
+
+    /**
+     * 提交新的值，可以在任意线程调用。
+     *
+     * @param value 值
+     */
+    public void postValue(float value) {
+        postUpdate(KIND_VALUE | (Float.floatToIntBits(value) & 0xffffffffL));
+    }
+
+    private void postUpdate(long update) {
+        if (mPendingUpdate.getAndSet(update) == NO_UPDATE) {
+            Callback callback = mCallback;
+            if (callback != null) {
+                callback.onUpdatePending(this);
+            }
+        }
+    }
+
+    /**
+     * 获取当前的位置，可以在任意线程调用。
+     *
+     * @return 位置的百分比。范围: [0..1]
+     */
+    public float getPosition() {
+        return positionOf(mState.get());
+    }
+
+    /**
+     * 获取当前的确切值，可以在任意线程调用。
+     *
+     * @return 确切值
+     */
+    public float getExactValue() {
+        return valueOf(mState.get());
+    }
+
+    /**
+     * 获取同一时刻的位置和值，可以在任意线程调用。分别调用 {@link #getPosition()} 和 {@link #getExactValue()}
+     * 时两次读取之间界面可能已经更新。
+     *
+     * @return 打包的状态，通过 {@link #positionOf(long)}、{@link #valueOf(long)} 取出位置和值
+     */
+    public long getSnapshot() {
+        return mState.get();
+    }
+
+    /**
+     * 从 {@link #getSnapshot()} 返回的状态中取出位置。
+     *
+     * @param snapshot 打包的状态
+     * @return 位置的百分比。范围: [0..1]
+     */
+    public static float positionOf(long snapshot) {
+        return Float.intBitsToFloat((int) (snapshot >>> 32));
+    }
+
+    /**
+     * 从 {@link #getSnapshot()} 返回的状态中取出确切值。
+     *
+     * @param snapshot 打包的状态
+     * @return 确切值
+     */
+    public static float valueOf(long snapshot) {
+        return Float.intBitsToFloat((int) snapshot);
+    }
+
+    static long pack(float position, float value) {
+        return ((long) Float.floatToIntBits(position) << 32)
+                | (Float.floatToIntBits(value) & 0xffffffffL);
+    }
+
+    void setCallback(Callback callback) {
+        mCallback = callback;
+    }
+
+    /**
+     * 取走待处理的更新。
+     *
+     * @return 待处理的更新，没有时返回 {@link #NO_UPDATE}
+     */
+    long takePendingUpdate() {
+        return mPendingUpdate.getAndSet(NO_UPDATE);
+    }
+
+    /**
+     * 取走需要应用的更新，只能在界面线程调用。拖动期间取到的更新被暂存，新的覆盖旧的，
+     * 拖动结束后第一次调用时返回最新的一次。
+     *
+     * @param dragging 用户是否正在拖动
+     * @return 需要应用的更新，没有或者正在拖动时返回 {@link #NO_UPDATE}
+     */
+    long takeUpdate(boolean dragging) {
+        long update = takePendingUpdate();
+        if (update != NO_UPDATE) {
+            mDeferredUpdate = update;
+        }
+        if (dragging) {
+            return NO_UPDATE;
+        }
+
+        update = mDeferredUpdate;
+        mDeferredUpdate = NO_UPDATE;
+        return update;
+    }
+
+    static long kindOf(long update) {
+        return update & KIND_MASK;
+    }
+
+    static float floatOf(long update) {
+        return Float.intBitsToFloat((int) update);
+    }
+
+    /**
+     * 发布界面中滑块当前的状态，只能在界面线程调用。
+     */
+    void publish(float position, float value) {
+        mState.set(pack(position, value));
+    }
+}
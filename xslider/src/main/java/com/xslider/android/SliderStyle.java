@@ -0,0 +1,349 @@
+package com.xslider.android;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.graphics.Color;
+import android.util.AttributeSet;
+import android.util.SparseArray;
+import android.util.TypedValue;
+
+import java.util.WeakHashMap;
+
+/**
+ * 不可变的滑动条样式，可以被任意多个 {@link XSlider} 共享。
+ * <p>
+ * 从布局中创建时，如果没有直接在标签上设置 XSlider 的属性（只使用 style），
+ * 同一个主题下的同一个样式资源只解析一次；也可以用 {@link Builder} 直接创建，完全跳过属性解析。
+ * 只能在主线程使用。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ */
+public final class SliderStyle {
+
+    /**
+     * 圆形滑块。
+     */
+    public static final int THUMB_TYPE_OVAL = 0;
+
+    /**
+     * 圆角矩形滑块。
+     */
+    public static final int THUMB_TYPE_RECTANGLE = 1;
+
+    private static final int DEFAULT_COLOR = Color.BLACK;
+    private static final int DEFAULT_ENLARGE_TOUCH_RANGE = 20;
+    private static final int DEFAULT_PREDICTION_MAX_DISTANCE = 24;
+
+    private static final WeakHashMap<Resources.Theme, SparseArray<SliderStyle>> sCache =
+            new WeakHashMap<Resources.Theme, SparseArray<SliderStyle>>();
+
+    final boolean mEnabled;
+    final int mProgressColor;
+    final int mTrackColor;
+    final int mThumbColor;
+    final int mTrackSize;
+    final int mValue;
+    final boolean mValueDefined;
+    final int mMinValue;
+    final int mMaxValue;
+    final boolean mValueRangeDefined;
+    final int mThumbType;
+    final int mThumbRadius;
+    final int mThumbWidth;
+    final int mThumbHeight;
+    final int mStepSize;
+    final boolean mShowTicks;
+    final int mTickColor;
+    final int mSecondaryColor;
+    final int mTrackDataColor;
+
+    final int mEnlargeTouchRange;
+    final int mPredictionMaxDistance;
+    final int mAnimationDuration;
+    final int mShortAnimationDuration;
+
+    private SliderStyle(Builder builder) {
+        mEnabled = builder.mEnabled;
+        mProgressColor = builder.mProgressColor;
+        mTrackColor = builder.mTrackColor;
+        mThumbColor = builder.mThumbColor;
+        mTrackSize = builder.mTrackSize;
+        mValue = builder.mValue;
+        mValueDefined = builder.mValueDefined;
+        mMinValue = builder.mMinValue;
+        mMaxValue = builder.mMaxValue;
+        mValueRangeDefined = builder.mValueRangeDefined;
+        mThumbType = builder.mThumbType;
+        mThumbRadius = builder.mThumbRadius;
+        mThumbWidth = builder.mThumbWidth;
+        mThumbHeight = builder.mThumbHeight;
+        mStepSize = builder.mStepSize;
+        mShowTicks = builder.mShowTicks;
+        mTickColor = builder.mTickColor;
+        mSecondaryColor = builder.mSecondaryColor;
+        mTrackDataColor = builder.mTrackDataColor;
+        mEnlargeTouchRange = builder.mEnlargeTouchRange;
+        mPredictionMaxDistance = builder.mPredictionMaxDistance;
+        mAnimationDuration = builder.mAnimationDuration;
+        mShortAnimationDuration = builder.mShortAnimationDuration;
+    }
+
+    /**
+     * 获取样式资源对应的样式，同一个主题下只解析一次。
+     *
+     * @param context  上下文
+     * @param styleRes 样式资源，为 0 时只使用主题中的默认值
+     * @return 共享的样式
+     */
+    public static SliderStyle obtain(Context context, int styleRes) {
+        Resources.Theme theme = context.getTheme();
+        SparseArray<SliderStyle> styles = sCache.get(theme);
+        if (styles == null) {
+            styles = new SparseArray<SliderStyle>();
+            sCache.put(theme, styles);
+        }
+
+        SliderStyle style = styles.get(styleRes);
+        if (style == null) {
+            style = parse(context, null, 0, styleRes);
+            styles.put(styleRes, style);
+        }
+        return style;
+    }
+
+    /**
+     * 从布局属性获取样式。标签上直接设置了 XSlider 的属性，或者使用了默认样式属性时无法共享，每次都解析。
+     */
+    static SliderStyle obtain(Context context, AttributeSet attrs, int defStyleAttr,
+                              int defStyleRes) {
+        if (defStyleAttr == 0 && defStyleRes == 0 && !hasInlineAttributes(attrs)) {
+            return obtain(context, attrs != null ? attrs.getStyleAttribute() : 0);
+        }
+        return parse(context, attrs, defStyleAttr, defStyleRes);
+    }
+
+    private static boolean hasInlineAttributes(AttributeSet attrs) {
+        if (attrs == null) {
+            return false;
+        }
+
+        final int[] styleable = R.styleable.XSlider;
+        for (int i = 0, count = attrs.getAttributeCount(); i < count; i++) {
+            int id = attrs.getAttributeNameResource(i);
+            if (id == 0) {
+                continue;
+            }
+            for (int attr : styleable) {
+                if (attr == id) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static SliderStyle parse(Context context, AttributeSet attrs, int defStyleAttr,
+                                     int defStyleRes) {
+        Builder b = new Builder(context);
+        TypedArray a = context
+                .obtainStyledAttributes(attrs, R.styleable.XSlider, defStyleAttr, defStyleRes);
+        b.mEnabled = a.getBoolean(R.styleable.XSlider_android_enabled, true);
+        b.mProgressColor = a.getColor(R.styleable.XSlider_xslider_progressColor, DEFAULT_COLOR);
+        b.mTrackColor = a.getColor(R.styleable.XSlider_xslider_trackColor, DEFAULT_COLOR);
+        b.mThumbColor = a.getColor(R.styleable.XSlider_xslider_thumbColor, b.mProgressColor);
+        b.mTrackSize = a.getDimensionPixelSize(R.styleable.XSlider_xslider_trackSize, b.mTrackSize);
+        b.mValue = a.getInteger(R.styleable.XSlider_xslider_value, 0);
+        b.mValueDefined = a.hasValue(R.styleable.XSlider_xslider_value);
+        b.mMinValue = a.getInteger(R.styleable.XSlider_xslider_minValue, b.mMinValue);
+        b.mMaxValue = a.getInteger(R.styleable.XSlider_xslider_maxValue, b.mMaxValue);
+        b.mValueRangeDefined = a.hasValue(R.styleable.XSlider_xslider_minValue)
+                && a.hasValue(R.styleable.XSlider_xslider_maxValue);
+        b.mThumbType = a.getInteger(R.styleable.XSlider_xslider_thumbType, THUMB_TYPE_OVAL);
+        b.mThumbRadius = a.getDimensionPixelSize(R.styleable.XSlider_xslider_thumbRadius,
+                b.mThumbRadius);
+        b.mThumbWidth = a.getDimensionPixelSize(R.styleable.XSlider_xslider_thumbWidth,
+                b.mThumbWidth);
+        b.mThumbHeight = a.getDimensionPixelSize(R.styleable.XSlider_xslider_thumbHeight,
+                b.mThumbHeight);
+        b.mStepSize = Math.max(0, a.getInteger(R.styleable.XSlider_xslider_stepSize, 0));
+        b.mShowTicks = a.getBoolean(R.styleable.XSlider_xslider_showTicks, false);
+        b.mTickColor = a.getColor(R.styleable.XSlider_xslider_tickColor, b.mThumbColor);
+        b.mSecondaryColor = a.getColor(R.styleable.XSlider_xslider_secondaryColor,
+                (b.mProgressColor & 0x00FFFFFF) | 0x66000000);
+        b.mTrackDataColor = a.getColor(R.styleable.XSlider_xslider_trackDataColor,
+                (b.mTrackColor & 0x00FFFFFF) | 0x66000000);
+        a.recycle();
+        return new SliderStyle(b);
+    }
+
+    /**
+     * 以当前样式为基础创建一个 {@link Builder}。
+     */
+    public Builder buildUpon(Context context) {
+        Builder builder = new Builder(context);
+        builder.mEnabled = mEnabled;
+        builder.mProgressColor = mProgressColor;
+        builder.mTrackColor = mTrackColor;
+        builder.mThumbColor = mThumbColor;
+        builder.mTrackSize = mTrackSize;
+        builder.mValue = mValue;
+        builder.mValueDefined = mValueDefined;
+        builder.mMinValue = mMinValue;
+        builder.mMaxValue = mMaxValue;
+        builder.mValueRangeDefined = mValueRangeDefined;
+        builder.mThumbType = mThumbType;
+        builder.mThumbRadius = mThumbRadius;
+        builder.mThumbWidth = mThumbWidth;
+        builder.mThumbHeight = mThumbHeight;
+        builder.mStepSize = mStepSize;
+        builder.mShowTicks = mShowTicks;
+        builder.mTickColor = mTickColor;
+        builder.mSecondaryColor = mSecondaryColor;
+        builder.mTrackDataColor = mTrackDataColor;
+        return builder;
+    }
+
+    /**
+     * 在代码中创建样式，默认值与布局中不设置任何属性时相同（颜色除外，不读取主题）。
+     */
+    public static final class Builder {
+
+        private boolean mEnabled = true;
+        private int mProgressColor = DEFAULT_COLOR;
+        private int mTrackColor = DEFAULT_COLOR;
+        private int mThumbColor = DEFAULT_COLOR;
+        private int mTrackSize;
+        private int mValue;
+        private boolean mValueDefined;
+        private int mMinValue = 0;
+        private int mMaxValue = 100;
+        private boolean mValueRangeDefined;
+        private int mThumbType = THUMB_TYPE_OVAL;
+        private int mThumbRadius;
+        private int mThumbWidth;
+        private int mThumbHeight;
+        private int mStepSize;
+        private boolean mShowTicks;
+        private int mTickColor = DEFAULT_COLOR;
+        private int mSecondaryColor = (DEFAULT_COLOR & 0x00FFFFFF) | 0x66000000;
+        private int mTrackDataColor = (DEFAULT_COLOR & 0x00FFFFFF) | 0x66000000;
+
+        private final int mEnlargeTouchRange;
+        private final int mPredictionMaxDistance;
+        private final int mAnimationDuration;
+        private final int mShortAnimationDuration;
+
+        public Builder(Context context) {
+            Resources resources = context.getResources();
+            mTrackSize = dp2px(resources, 2);
+            mThumbRadius = dp2px(resources, 10);
+            mThumbWidth = dp2px(resources, 3);
+            mThumbHeight = dp2px(resources, 10);
+            mEnlargeTouchRange = dp2px(resources, DEFAULT_ENLARGE_TOUCH_RANGE);
+            mPredictionMaxDistance = dp2px(resources, DEFAULT_PREDICTION_MAX_DISTANCE);
+            mAnimationDuration = resources.getInteger(android.R.integer.config_mediumAnimTime);
+            mShortAnimationDuration = resources.getInteger(android.R.integer.config_shortAnimTime);
+        }
+
+        public Builder setEnabled(boolean enabled) {
+            mEnabled = enabled;
+            return this;
+        }
+
+        public Builder setProgressColor(int color) {
+            mProgressColor = color;
+            return this;
+        }
+
+        public Builder setTrackColor(int color) {
+            mTrackColor = color;
+            return this;
+        }
+
+        public Builder setThumbColor(int color) {
+            mThumbColor = color;
+            return this;
+        }
+
+        public Builder setTrackSize(int size) {
+            mTrackSize = size;
+            return this;
+        }
+
+        public Builder setValue(int value) {
+            mValue = value;
+            mValueDefined = true;
+            return this;
+        }
+
+        public Builder setValueRange(int min, int max) {
+            mMinValue = min;
+            mMaxValue = max;
+            mValueRangeDefined = true;
+            return this;
+        }
+
+        /**
+         * 使用圆形滑块。
+         *
+         * @param radius 半径
+         */
+        public Builder setOvalThumb(int radius) {
+            mThumbType = THUMB_TYPE_OVAL;
+            mThumbRadius = radius;
+            return this;
+        }
+
+        /**
+         * 使用圆角矩形滑块。
+         *
+         * @param width        宽度
+         * @param height       高度
+         * @param cornerRadius 圆角的半径
+         */
+        public Builder setRectangleThumb(int width, int height, int cornerRadius) {
+            mThumbType = THUMB_TYPE_RECTANGLE;
+            mThumbWidth = width;
+            mThumbHeight = height;
+            mThumbRadius = cornerRadius;
+            return this;
+        }
+
+        public Builder setStepSize(int stepSize) {
+            mStepSize = Math.max(0, stepSize);
+            return this;
+        }
+
+        public Builder setShowTicks(boolean showTicks) {
+            mShowTicks = showTicks;
+            return this;
+        }
+
+        public Builder setTickColor(int color) {
+            mTickColor = color;
+            return this;
+        }
+
+        public Builder setSecondaryColor(int color) {
+            mSecondaryColor = color;
+            return this;
+        }
+
+        public Builder setTrackDataColor(int color) {
+            mTrackDataColor = color;
+            return this;
+        }
+
+        public SliderStyle build() {
+            return new SliderStyle(this);
+        }
+
+        private static int dp2px(Resources resources, float dpValue) {
+            float value = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, dpValue,
+                    resources.getDisplayMetrics());
+            return (int) (value + 0.5f);
+        }
+    }
+}
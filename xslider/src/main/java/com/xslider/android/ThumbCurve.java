@@ -0,0 +1,168 @@
+package com.xslider.android;
+
+/**
+ * 滑块移动动画的曲线：按动画开始后经过的时间计算位置和速度。
+ * <p>
+ * 普通动画按插值器从起点移动到终点；动画进行中改变终点时使用三次 Hermite 曲线，起点的速度等于转向前的速度，
+ * 位置和速度都连续；惯性滑动时速度按 e^(-kt) 衰减。不依赖 Android，时间由调用方传入，可以在 JVM 上测试。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ */
+class ThumbCurve {
+
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    private static final int TYPE_EASE = 0;
+    private static final int TYPE_RETARGET = 1;
+    private static final int TYPE_FLING = 2;
+
+    private int mType;
+    private float mStartPosition;
+    private float mEndPosition;
+    private float mStartVelocity;
+    private float mFriction;
+    private int mDuration;
+
+    /**
+     * 按插值器从起点移动到终点。
+     *
+     * @param duration 时长，单位: 毫秒
+     */
+    void start(float from, float to, int duration) {
+        mType = TYPE_EASE;
+        mStartPosition = from;
+        mEndPosition = to;
+        mDuration = duration;
+        mStartVelocity = 0;
+    }
+
+    /**
+     * 从正在移动的位置转向新的终点，起点的速度保持不变，终点的速度为 0。
+     * 速度较大时曲线会先越过终点或者背离终点再折返，位置限制在 [0..1] 内，不会超出滑动条。
+     *
+     * @param velocity 转向时的速度，单位: 位置/毫秒
+     * @param duration 时长，单位: 毫秒
+     */
+    void retarget(float from, float to, float velocity, int duration) {
+        mType = TYPE_RETARGET;
+        mStartPosition = from;
+        mEndPosition = to;
+        mDuration = duration;
+        // Hermite 曲线的参数是 [0..1] 的进度，速度换算为位置/进度
+        mStartVelocity = velocity * duration;
+    }
+
+    /**
+     * 惯性滑动到终点，终点通常由 {@link #projectFling(float, float, float)} 计算后再吸附、限制范围。
+     *
+     * @param friction 摩擦系数，单位: 1/秒
+     */
+    void fling(float from, float to, float friction) {
+        mType = TYPE_FLING;
+        mStartPosition = from;
+        mEndPosition = to;
+        mFriction = friction;
+        mStartVelocity = 0;
+    }
+
+    /**
+     * 按摩擦力自然停止的位置：速度 v·e^(-kt) 对时间积分为 v/k。
+     *
+     * @param position 开始时的位置
+     * @param velocity 开始时的速度，单位: 位置/秒
+     * @param friction 摩擦系数，单位: 1/秒
+     */
+    static float projectFling(float position, float velocity, float friction) {
+        return position + velocity / friction;
+    }
+
+    boolean isFling() {
+        return mType == TYPE_FLING;
+    }
+
+    float getStartPosition() {
+        return mStartPosition;
+    }
+
+    float getEndPosition() {
+        return mEndPosition;
+    }
+
+    int getDuration() {
+        return mDuration;
+    }
+
+    /**
+     * 普通动画的插值，默认为线性，子类可以换成其他插值器。
+     */
+    float interpolate(float progress) {
+        return progress;
+    }
+
+    /**
+     * 计算动画开始后经过指定时间时的位置。
+     *
+     * @param elapsed 经过的时间，单位: 纳秒
+     */
+    float getPositionAt(long elapsed) {
+        float delta = mEndPosition - mStartPosition;
+        if (mType == TYPE_FLING) {
+            // 速度按 e^(-kt) 衰减，位置为 start + (end - start) * (1 - e^(-kt))，
+            // 初速度由终点反推，保证正好停在终点
+            float value = 1f - (float) Math.exp(-mFriction * elapsed / 1e9f);
+            return delta * value + mStartPosition;
+        }
+
+        float progress = mDuration <= 0 ? 1f
+                : Math.min(1f, (float) elapsed / (mDuration * NANOS_PER_MILLI));
+        if (mType == TYPE_RETARGET) {
+            // 三次 Hermite 曲线：起点速度等于转向前的速度，终点速度为 0
+            float s2 = progress * progress;
+            float s3 = s2 * progress;
+            float position = mStartPosition + delta * (3 * s2 - 2 * s3)
+                    + mStartVelocity * (s3 - 2 * s2 + progress);
+            return Math.max(0f, Math.min(1f, position));
+        }
+        return delta * interpolate(progress) + mStartPosition;
+    }
+
+    /**
+     * 计算经过时长的指定比例时完成的比例，用作图层属性动画的插值，与 {@link #getPositionAt(long)} 一致。
+     * 转向时可能小于 0 或大于 1。
+     *
+     * @param progress 经过的时间占时长的比例。范围: [0..1]
+     */
+    float getFraction(float progress) {
+        float delta = mEndPosition - mStartPosition;
+        if (delta == 0) {
+            return 1f;
+        }
+        long elapsed = (long) (progress * mDuration * NANOS_PER_MILLI);
+        return (getPositionAt(elapsed) - mStartPosition) / delta;
+    }
+
+    /**
+     * 计算动画开始后经过指定时间时的速度，单位: 位置/毫秒。
+     *
+     * @param elapsed 经过的时间，单位: 纳秒
+     */
+    float getVelocity(long elapsed) {
+        return getPositionAt(elapsed + NANOS_PER_MILLI) - getPositionAt(elapsed);
+    }
+
+    /**
+     * 动画是否可以结束。惯性滑动在理论上不会到达终点，距离终点小于指定的像素后结束。
+     *
+     * @param elapsed      经过的时间，单位: 纳秒
+     * @param position     当前的位置
+     * @param width        滑动条的宽度，单位: 像素
+     * @param stopDistance 惯性滑动结束时与终点的距离，单位: 像素
+     */
+    boolean isFinished(long elapsed, float position, float width, float stopDistance) {
+        if (mType == TYPE_FLING) {
+            return Math.abs(mEndPosition - position) * width < stopDistance;
+        }
+        return elapsed >= mDuration * NANOS_PER_MILLI;
+    }
+}
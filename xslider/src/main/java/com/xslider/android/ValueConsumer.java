@@ -0,0 +1,19 @@
+package com.xslider.android;
+
+/**
+ * 在后台线程接收滑动条的值，适合执行查询等耗时的操作。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ * @see XSlider#subscribeValues(java.util.concurrent.Executor, ValueConsumer, boolean)
+ */
+public interface ValueConsumer {
+
+    /**
+     * 在订阅时指定的 Executor 中调用，同一个订阅不会并发调用。处理期间产生的值只保留最新的一个。
+     *
+     * @param value   确切值
+     * @param settled 是否已经停止改变（没有在拖动，也没有在动画）
+     */
+    void onValue(float value, boolean settled);
+}
@@ -0,0 +1,196 @@
+package com.xslider.android;
+
+/**
+ * 位置和值之间的映射方式，例如线性、对数、指数、分段线性。映射必须是单调递增的。
+ * <p>
+ * 非线性的映射在设置给 {@link XSlider} 时会预先采样成查找表，
+ * 拖动和动画时只做查表和线性插值，不再调用 {@code Math.log}、{@code Math.pow}。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ * @see XSlider#setValueScale(ValueScale)
+ */
+public abstract class ValueScale {
+
+    /**
+     * 线性映射（默认）。
+     */
+    public static final ValueScale LINEAR = new ValueScale() {
+        @Override
+        public float toValue(float position, float min, float max) {
+            return (max - min) * position + min;
+        }
+
+        @Override
+        public float toPosition(float value, float min, float max) {
+            return max <= min ? 0 : (value - min) / (max - min);
+        }
+    };
+
+    /**
+     * 对数映射：{@code value = min * (max / min) ^ position}，适合频率等跨越多个数量级的值。
+     * 最小值小于等于 0 时按线性映射。
+     *
+     * @return 对数映射
+     */
+    public static ValueScale log() {
+        return new LogScale();
+    }
+
+    /**
+     * 指数映射：{@code value = min + (max - min) * position ^ exponent}。
+     *
+     * @param exponent 指数，必须大于 0
+     * @return 指数映射
+     */
+    public static ValueScale exponential(float exponent) {
+        if (exponent <= 0) {
+            throw new IllegalArgumentException("exponent must be > 0");
+        }
+        return new ExponentialScale(exponent);
+    }
+
+    /**
+     * 分段线性映射。两个数组长度相同，都从 0 递增到 1，
+     * {@code positions[i]} 处的值为 {@code min + (max - min) * fractions[i]}。
+     *
+     * @param positions 分段点的位置，第一个必须为 0，最后一个必须为 1
+     * @param fractions 分段点的值在范围内的比例，第一个必须为 0，最后一个必须为 1
+     * @return 分段线性映射
+     * @throws IllegalArgumentException 数组长度不同、不是递增的或者没有覆盖 [0..1]
+     */
+    public static ValueScale piecewise(float[] positions, float[] fractions) {
+        if (positions == null || fractions == null || positions.length != fractions.length ||
+                positions.length < 2) {
+            throw new IllegalArgumentException("positions and fractions must have the same " +
+                    "length of at least 2");
+        }
+        int last = positions.length - 1;
+        if (positions[0] != 0 || positions[last] != 1 ||
+                fractions[0] != 0 || fractions[last] != 1) {
+            throw new IllegalArgumentException("positions and fractions must start at 0 and end " +
+                    "at 1");
+        }
+        for (int i = 1; i < positions.length; i++) {
+            if (positions[i] <= positions[i - 1] || fractions[i] < fractions[i - 1]) {
+                throw new IllegalArgumentException("positions and fractions must be increasing");
+            }
+        }
+        return new PiecewiseScale(positions.clone(), fractions.clone());
+    }
+
+    /**
+     * 位置转换为值。
+     *
+     * @param position 位置的百分比。范围: [0..1]
+     * @param min      最小值
+     * @param max      最大值
+     * @return 值
+     */
+    public abstract float toValue(float position, float min, float max);
+
+    /**
+     * 值转换为位置。默认使用二分法求 {@link #toValue(float, float, float)} 的反函数。
+     *
+     * @param value 值，在 [min..max] 范围内
+     * @param min   最小值
+     * @param max   最大值
+     * @return 位置的百分比。范围: [0..1]
+     */
+    public float toPosition(float value, float min, float max) {
+        float low = 0;
+        float high = 1;
+        for (int i = 0; i < 32; i++) {
+            float mid = (low + high) / 2;
+            if (toValue(mid, min, max) < value) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return (low + high) / 2;
+    }
+
+    private static class LogScale extends ValueScale {
+
+        @Override
+        public float toValue(float position, float min, float max) {
+            if (min <= 0 || max <= min) {
+                return LINEAR.toValue(position, min, max);
+            }
+            return (float) (min * Math.pow(max / min, position));
+        }
+
+        @Override
+        public float toPosition(float value, float min, float max) {
+            if (min <= 0 || max <= min) {
+                return LINEAR.toPosition(value, min, max);
+            }
+            return (float) (Math.log(value / min) / Math.log(max / min));
+        }
+    }
+
+    private static class ExponentialScale extends ValueScale {
+
+        private final float mExponent;
+
+        ExponentialScale(float exponent) {
+            mExponent = exponent;
+        }
+
+        @Override
+        public float toValue(float position, float min, float max) {
+            return (float) (min + (max - min) * Math.pow(position, mExponent));
+        }
+
+        @Override
+        public float toPosition(float value, float min, float max) {
+            if (max <= min) {
+                return 0;
+            }
+            return (float) Math.pow((value - min) / (max - min), 1 / mExponent);
+        }
+    }
+
+    private static class PiecewiseScale extends ValueScale {
+
+        private final float[] mPositions;
+        private final float[] mFractions;
+
+        PiecewiseScale(float[] positions, float[] fractions) {
+            mPositions = positions;
+            mFractions = fractions;
+        }
+
+        @Override
+        public float toValue(float position, float min, float max) {
+            return min + (max - min) * interpolate(mPositions, mFractions, position);
+        }
+
+        @Override
+        public float toPosition(float value, float min, float max) {
+            if (max <= min) {
+                return 0;
+            }
+            return interpolate(mFractions, mPositions, (value - min) / (max - min));
+        }
+
+        private static float interpolate(float[] xs, float[] ys, float x) {
+            int n = xs.length;
+            if (x <= xs[0]) {
+                return ys[0];
+            }
+            if (x >= xs[n - 1]) {
+                return ys[n - 1];
+            }
+
+            int i = 1;
+            while (xs[i] < x) {
+                i++;
+            }
+            float span = xs[i] - xs[i - 1];
+            float f = span == 0 ? 0 : (x - xs[i - 1]) / span;
+            return ys[i - 1] + (ys[i] - ys[i - 1]) * f;
+        }
+    }
+}
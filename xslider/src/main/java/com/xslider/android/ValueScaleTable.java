@@ -0,0 +1,67 @@
+package com.xslider.android;
+
+/**
+ * 把 {@link ValueScale} 按均匀的位置预先采样成查找表，位置转值时直接线性插值，
+ * 值转位置时二分查找后线性插值。
+ * <p>
+ * 精度：插值误差约为 {@code h² / 8 * max|f''|}，其中 {@code h = 1 / (size - 1)}。
+ * 默认 1025 个采样点时，对数映射（最大值与最小值之比不超过 10⁴）的相对误差小于 1e-5。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ */
+final class ValueScaleTable {
+
+    static final int DEFAULT_SIZE = 1025;
+
+    private final float[] mValues;
+    private final int mLast;
+
+    ValueScaleTable(ValueScale scale, float min, float max, int size) {
+        mValues = new float[size];
+        mLast = size - 1;
+        for (int i = 0; i < size; i++) {
+            mValues[i] = scale.toValue((float) i / mLast, min, max);
+        }
+        // 保证表中的值单调，避免浮点误差影响二分查找
+        for (int i = 1; i < size; i++) {
+            if (mValues[i] < mValues[i - 1]) {
+                mValues[i] = mValues[i - 1];
+            }
+        }
+    }
+
+    float toValue(float position) {
+        float x = Math.min(1f, Math.max(0f, position)) * mLast;
+        int i = (int) x;
+        if (i >= mLast) {
+            return mValues[mLast];
+        }
+        return mValues[i] + (mValues[i + 1] - mValues[i]) * (x - i);
+    }
+
+    float toPosition(float value) {
+        if (value <= mValues[0]) {
+            return 0;
+        }
+        if (value >= mValues[mLast]) {
+            return 1;
+        }
+
+        // 找到 mValues[low] <= value < mValues[low + 1]
+        int low = 0;
+        int high = mLast;
+        while (high - low > 1) {
+            int mid = (low + high) >>> 1;
+            if (mValues[mid] <= value) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+
+        float span = mValues[high] - mValues[low];
+        float f = span == 0 ? 0 : (value - mValues[low]) / span;
+        return (low + f) / mLast;
+    }
+}
@@ -0,0 +1,110 @@
+package com.xslider.android;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 值的订阅。新的值只是替换“待处理的值”，不会排队：Executor 中同一时间最多只有一个任务，
+ * 处理得再慢也只会拿到最新的值，占用的内存是固定的。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ */
+public final class ValueSubscription {
+
+    private static final long NO_VALUE = 0;
+    private static final long KIND_CHANGING = 1L << 32;
+    private static final long KIND_SETTLED = 2L << 32;
+
+    private final Executor mExecutor;
+    private final ValueConsumer mConsumer;
+    private final boolean mSettledOnly;
+
+    /**
+     * 高 32 位表示是否已停止改变，低 32 位是值的浮点数位。
+     */
+    private final AtomicLong mPending = new AtomicLong(NO_VALUE);
+    private final AtomicBoolean mScheduled = new AtomicBoolean();
+    private volatile boolean mCancelled;
+
+    /**
+     * 上一次提交的值，只在界面线程访问，用于去掉重复的值。
+     */
+    private long mLastOffered = NO_VALUE;
+
+    private final Runnable mDrain = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+
+    ValueSubscription(Executor executor, ValueConsumer consumer, boolean settledOnly) {
+        mExecutor = executor;
+        mConsumer = consumer;
+        mSettledOnly = settledOnly;
+    }
+
+    /**
+     * 取消订阅，可以在任意线程调用。已经开始的回调会执行完，之后不再回调。
+     */
+    public void cancel() {
+        mCancelled = true;
+        mPending.set(NO_VALUE);
+    }
+
+    public boolean isCancelled() {
+        return mCancelled;
+    }
+
+    /**
+     * 提交新的值，在界面线程调用。
+     */
+    void offer(float value, boolean settled) {
+        if (mCancelled || (mSettledOnly && !settled)) {
+            return;
+        }
+
+        long update = (settled ? KIND_SETTLED : KIND_CHANGING) |
+                (Float.floatToIntBits(value) & 0xffffffffL);
+        if (update == mLastOffered) {
+            return;
+        }
+        mLastOffered = update;
+
+        mPending.set(update);
+        if (mScheduled.compareAndSet(false, true)) {
+            try {
+                mExecutor.execute(mDrain);
+            } catch (RuntimeException e) {
+                mScheduled.set(false);
+                throw e;
+            }
+        }
+    }
+
+    private void drain() {
+        while (!mCancelled) {
+            long update = mPending.getAndSet(NO_VALUE);
+            if (update == NO_VALUE) {
+                mScheduled.set(false);
+                // 放弃调度之后又有新的值，并且没有被其它任务接手时继续处理
+                if (mPending.get() == NO_VALUE || !mScheduled.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+
+            try {
+                mConsumer.onValue(Float.intBitsToFloat((int) update),
+                        (update & KIND_SETTLED) != 0);
+            } catch (RuntimeException e) {
+                // 交还调度权，之后的值还能继续处理
+                mScheduled.set(false);
+                throw e;
+            }
+        }
+        mScheduled.set(false);
+    }
+}
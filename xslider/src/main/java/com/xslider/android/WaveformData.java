@@ -0,0 +1,179 @@
+package com.xslider.android;
+
+/**
+ * 绘制在滑动条后方的数据（音频波形、直方图等），支持在末尾追加采样。
+ * 每 {@link #BLOCK_SIZE} 个采样额外保存一份最小值和最大值，按像素降采样时整块跳过，
+ * 只有每个像素两端不完整的块才需要逐个比较采样。
+ * <p>
+ * 只在主线程追加；要在其它线程降采样时先在主线程调用 {@link #snapshot()}，
+ * 快照与原数据共用数组，但只读取快照时已有的采样和已填满的块，之后的追加不会影响它。
+ *
+ * @author wuzhen
+ * @since 2017/08/21
+ */
+final class WaveformData {
+
+    static final int BLOCK_SIZE = 256;
+
+    private float[] mSamples;
+    private int mSize;
+    private float[] mBlockMin;
+    private float[] mBlockMax;
+    private float mMin = Float.POSITIVE_INFINITY;
+    private float mMax = Float.NEGATIVE_INFINITY;
+
+    WaveformData(int capacity) {
+        capacity = Math.max(capacity, BLOCK_SIZE);
+        mSamples = new float[capacity];
+        mBlockMin = new float[blockCount(capacity)];
+        mBlockMax = new float[mBlockMin.length];
+    }
+
+    private WaveformData() {
+    }
+
+    /**
+     * 生成一个只读的快照，供其它线程降采样。
+     */
+    WaveformData snapshot() {
+        WaveformData snapshot = new WaveformData();
+        snapshot.mSamples = mSamples;
+        snapshot.mSize = mSize;
+        snapshot.mBlockMin = mBlockMin;
+        snapshot.mBlockMax = mBlockMax;
+        snapshot.mMin = mMin;
+        snapshot.mMax = mMax;
+        return snapshot;
+    }
+
+    int size() {
+        return mSize;
+    }
+
+    float getMin() {
+        return mMin;
+    }
+
+    float getMax() {
+        return mMax;
+    }
+
+    void append(float[] samples, int offset, int count) {
+        ensureCapacity(mSize + count);
+
+        System.arraycopy(samples, offset, mSamples, mSize, count);
+        int from = mSize;
+        mSize += count;
+
+        // 更新受影响的块，最后一块可能只有一部分
+        for (int block = from / BLOCK_SIZE; block * BLOCK_SIZE < mSize; block++) {
+            int start = block * BLOCK_SIZE;
+            int end = Math.min(start + BLOCK_SIZE, mSize);
+            float min;
+            float max;
+            if (start < from) {
+                // 继续上次没有填满的块
+                min = mBlockMin[block];
+                max = mBlockMax[block];
+                start = from;
+            } else {
+                min = Float.POSITIVE_INFINITY;
+                max = Float.NEGATIVE_INFINITY;
+            }
+            for (int i = start; i < end; i++) {
+                float v = mSamples[i];
+                if (v < min) {
+                    min = v;
+                }
+                if (v > max) {
+                    max = v;
+                }
+            }
+            mBlockMin[block] = min;
+            mBlockMax[block] = max;
+            if (min < mMin) {
+                mMin = min;
+            }
+            if (max > mMax) {
+                mMax = max;
+            }
+        }
+    }
+
+    /**
+     * 把所有采样平均分成 buckets 份，计算每份的最小值和最大值。
+     *
+     * @param buckets 份数，通常是滑动条的像素宽度
+     */
+    void downsample(int buckets, float[] outMin, float[] outMax) {
+        final int size = mSize;
+        final float[] samples = mSamples;
+        final float[] blockMin = mBlockMin;
+        final float[] blockMax = mBlockMax;
+
+        for (int b = 0; b < buckets; b++) {
+            int start = (int) ((long) b * size / buckets);
+            int end = (int) ((long) (b + 1) * size / buckets);
+            if (end <= start) {
+                // 采样比像素少时，一个采样占多个像素
+                end = Math.min(start + 1, size);
+            }
+
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            int firstBlock = (start + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            int lastBlock = end / BLOCK_SIZE;
+            if (firstBlock < lastBlock) {
+                for (int i = start, n = firstBlock * BLOCK_SIZE; i < n; i++) {
+                    float v = samples[i];
+                    if (v < min) {
+                        min = v;
+                    }
+                    if (v > max) {
+                        max = v;
+                    }
+                }
+                for (int k = firstBlock; k < lastBlock; k++) {
+                    if (blockMin[k] < min) {
+                        min = blockMin[k];
+                    }
+                    if (blockMax[k] > max) {
+                        max = blockMax[k];
+                    }
+                }
+                start = lastBlock * BLOCK_SIZE;
+            }
+            for (int i = start; i < end; i++) {
+                float v = samples[i];
+                if (v < min) {
+                    min = v;
+                }
+                if (v > max) {
+                    max = v;
+                }
+            }
+            outMin[b] = min;
+            outMax[b] = max;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > mSamples.length) {
+            // 扩容时换成新数组，正在其它线程降采样的任务仍然读取旧数组
+            int newCapacity = Math.max(capacity, mSamples.length * 2);
+            float[] samples = new float[newCapacity];
+            System.arraycopy(mSamples, 0, samples, 0, mSize);
+            float[] blockMin = new float[blockCount(newCapacity)];
+            float[] blockMax = new float[blockMin.length];
+            System.arraycopy(mBlockMin, 0, blockMin, 0, mBlockMin.length);
+            System.arraycopy(mBlockMax, 0, blockMax, 0, mBlockMax.length);
+            mSamples = samples;
+            mBlockMin = blockMin;
+            mBlockMax = blockMax;
+        }
+    }
+
+    private static int blockCount(int capacity) {
+        return (capacity + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    }
+}
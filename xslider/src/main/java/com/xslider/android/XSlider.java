@@ -1,25 +1,35 @@
 package com.xslider.android;
 
 import android.content.Context;
-import android.content.res.TypedArray;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Path;
-import android.graphics.PointF;
 import android.graphics.RectF;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
 import android.os.Parcel;
 import android.os.Parcelable;
 import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.util.TypedValue;
+import android.view.Choreographer;
+import android.view.HapticFeedbackConstants;
 import android.view.MotionEvent;
+import android.view.VelocityTracker;
 import android.view.View;
 import android.view.ViewConfiguration;
+import android.view.ViewGroup;
 import android.view.animation.DecelerateInterpolator;
 import android.view.animation.Interpolator;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
 /**
  * 滑动选择器控件。
  *
@@ -28,19 +38,56 @@ import android.view.animation.Interpolator;
  */
 public class XSlider extends View {
 
-    private static final long FRAME_DURATION = 1000 / 60;
+    /**
+     * 每次位置改变都回调监听事件（默认）。
+     * <p>
+     * 回调方式同时作用于 {@link OnPositionChangeListener} 和 {@link OnThumbPositionChangeListener}。
+     */
+    public static final int DISPATCH_MODE_ALWAYS = 0;
+
+    /**
+     * 只有 {@link #getValue()} 改变时才回调监听事件，多个滑块时按每个滑块的位置对应的值计算。
+     */
+    public static final int DISPATCH_MODE_VALUE_CHANGED = 1;
+
+    /**
+     * 限制每秒回调监听事件的次数，并保证最后一次改变一定会被回调。
+     */
+    public static final int DISPATCH_MODE_THROTTLED = 2;
+
+    /**
+     * 只在拖动结束或动画停止时回调监听事件。
+     */
+    public static final int DISPATCH_MODE_GESTURE_END = 3;
+
+    private static final long NANOS_PER_MILLI = 1000000L;
+    private static final long DEFAULT_FRAME_INTERVAL = 1000000000L / 60;
+
+    private static final int THUMB_TYPE_OVAL = SliderStyle.THUMB_TYPE_OVAL;
+    private static final int THUMB_TYPE_RECTANGLE = SliderStyle.THUMB_TYPE_RECTANGLE;
 
-    private static final int THUMB_TYPE_OVAL = 0;
-    private static final int THUMB_TYPE_RECTANGLE = 1;
+    private static final int DEFAULT_PREDICTION_MAX_LOOKAHEAD = 50;
+    private static final float DEFAULT_FLING_FRICTION = 4.2f;
+    private static final float FLING_STOP_DISTANCE = 0.5f;
+    private static final int PREVIEW_LOOKAHEAD = 200;
+
+    /**
+     * 插值器没有状态，所有滑动条共用一个。
+     */
+    private static final Interpolator DEFAULT_INTERPOLATOR = new DecelerateInterpolator();
 
-    private static final int DEFAULT_COLOR = Color.BLACK;
-    private static final int DEFAULT_ENLARGE_TOUCH_RANGE = 20;
+    private static Handler sMainHandler;
+    private static FrameClock sFrameClock;
 
     private Paint mPaint;
     private RectF mDrawRect;
     private RectF mTempRect;
     private Path mLeftTrackPath;
     private Path mRightTrackPath;
+    private boolean mTrackGeometryValid;
+    private float mTrackLeft;
+    private float mTrackRight;
+    private float mTrackRadius;
 
     private int mMinValue = 0;
     private int mMaxValue = 100;
@@ -50,7 +97,63 @@ public class XSlider extends View {
     private int mProgressColor;
 
     private int mTrackSize;
-    private float mThumbPosition = -1;
+    private float[] mThumbPositions = {-1};
+    private int mThumbCount = 1;
+    private int mActiveThumb;
+    private float mMinThumbGap;
+    private float[] mThumbPoints = new float[2];
+
+    private ValueScale mValueScale = ValueScale.LINEAR;
+    private ValueScaleTable mScaleTable;
+
+    private int mStepSize;
+    private boolean mShowTicks;
+    private int mTickColor;
+    private float[] mTickPoints;
+    private int mTickCount;
+    private boolean mTicksValid;
+    private float mDragPosition;
+
+    private final IntervalSet mSecondaryRanges = new IntervalSet();
+    private int mSecondaryColor;
+
+    private WaveformData mTrackData;
+    private int mTrackDataColor;
+    private Executor mTrackDataExecutor;
+    private float[] mTrackDataMin;
+    private float[] mTrackDataMax;
+    private float[] mTrackDataLines;
+    private int mTrackDataLineCount;
+    private boolean mTrackDataValid;
+    private int mTrackDataGeneration;
+    private int mTrackDataSet;
+    private boolean mTrackDataInFlight;
+
+    private DetentTable mDetents;
+    private boolean mDetentPositionsValid;
+    private int mDetentCaptureRadius;
+    private int mDetentReleaseRadius;
+    private boolean mDetentHapticFeedback = true;
+
+    private ScrubPreview mScrubPreview;
+    private Paint mPreviewPaint;
+    private int mPreviewWidth;
+    private int mPreviewHeight;
+
+    private boolean mStaticTrackCache;
+    private boolean mTrackCacheValid;
+    private Bitmap mTrackCache;
+    private Bitmap mProgressCache;
+    private Canvas mTrackCacheCanvas;
+    private int mTrackCacheTop;
+
+    private SliderGroup mGroup;
+    private int mGroupIndex = -1;
+
+    private boolean mThumbLayerEnabled;
+    private ViewGroup mThumbLayerHost;
+    private ThumbLayer mThumbLayer;
+    private ThumbLayer mProgressLayer;
 
     private int mThumbType = THUMB_TYPE_OVAL;
     private int mThumbWidth;
@@ -61,18 +164,78 @@ public class XSlider extends View {
     private int mEnlargeTouchRange;
     private boolean mIsRtl;
     private boolean mIsDragging;
+    private boolean mStackedHit;
+
+    private boolean mTouchPrediction;
+    private int mPredictionMaxLookahead = DEFAULT_PREDICTION_MAX_LOOKAHEAD;
+    private float mPredictionMaxDistance;
+    private DragPredictor mDragPredictor;
+    private VsyncTracker mVsyncTracker;
+    /**
+     * 屏幕每帧的时长，单位: 纳秒。添加到窗口、配置改变以及每次拖动和动画开始时更新，
+     * 不在每一帧中查询屏幕的刷新率。
+     */
+    private long mFrameIntervalNanos = DEFAULT_FRAME_INTERVAL;
+    private float mPredictedOffset;
 
-    private PointF mMemoPoint;
+    private boolean mFlingEnabled;
+    private float mFlingFriction = DEFAULT_FLING_FRICTION;
+    private int mMinFlingVelocity;
+    private int mMaxFlingVelocity;
+    private VelocityTracker mVelocityTracker;
+
+    private float mMemoX;
+    private float mMemoY;
     private Interpolator mInterpolator;
+    private int mAnimationDuration;
+    private int mShortAnimationDuration;
     private ThumbMoveAnimator mThumbMoveAnimator;
 
+    private int mDispatchMode = DISPATCH_MODE_ALWAYS;
+    private long mDispatchInterval;
+    private final PositionDispatcher mDispatcher = new PositionDispatcher();
+    private PositionDispatcher[] mThumbDispatchers = {new PositionDispatcher()};
+    private Runnable mPendingDispatchRunnable;
+
+    private int mBatchDepth;
+    private boolean mBatchInvalidate;
+    private boolean mBatchRequestLayout;
+    private boolean mBatchAnimate;
+    private boolean mBatchFromUser;
+    private float mBatchOldPosition;
+    private int mBatchOldValue;
+    private float mBatchOldDrawPosition;
+    private float[] mBatchOldThumbPositions;
+
+    private SliderMetrics mMetrics;
+    private long mPendingTouchTime;
+
+    private SliderModel mModel;
+
     private OnPositionChangeListener mOnPositionChangeListener;
+    private OnTrackingTouchListener mOnTrackingTouchListener;
+    private OnThumbPositionChangeListener mOnThumbPositionChangeListener;
+    private ArrayList<ValueSubscription> mValueSubscriptions;
+    private OnDetentChangeListener mOnDetentChangeListener;
 
     public XSlider(Context context) {
         super(context);
         init(context, null, 0, 0);
     }
 
+    /**
+     * 使用共享的样式创建，不解析任何属性。
+     *
+     * @param context 上下文
+     * @param style   样式，可以被多个滑动条共享
+     */
+    public XSlider(Context context, SliderStyle style) {
+        super(context);
+        initView(context);
+        applyStyle(style);
+        publishModelState();
+    }
+
     public XSlider(Context context, AttributeSet attrs) {
         super(context, attrs);
         init(context, attrs, 0, 0);
@@ -89,54 +252,297 @@ public class XSlider extends View {
     }
 
     private void init(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+        initView(context);
+        applyStyle(SliderStyle.obtain(context, attrs, defStyleAttr, defStyleRes));
+        publishModelState();
+    }
+
+    private void initView(Context context) {
         mPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
         mDrawRect = new RectF();
         mTempRect = new RectF();
         mLeftTrackPath = new Path();
         mRightTrackPath = new Path();
         mThumbMoveAnimator = new ThumbMoveAnimator();
+        mDragPredictor = new DragPredictor();
+        mVsyncTracker = new VsyncTracker();
+
+        ViewConfiguration configuration = ViewConfiguration.get(context);
+        mTouchSlop = configuration.getScaledTouchSlop();
+        mMinFlingVelocity = configuration.getScaledMinimumFlingVelocity();
+        mMaxFlingVelocity = configuration.getScaledMaximumFlingVelocity();
+
+        mModel = new SliderModel();
+        mModel.setCallback(new ModelUpdater());
+    }
+
+    /**
+     * 所有滑动条和预览图共用的主线程 Handler，可以在任意线程调用。
+     */
+    static Handler getMainHandler() {
+        synchronized (XSlider.class) {
+            if (sMainHandler == null) {
+                sMainHandler = new Handler(Looper.getMainLooper());
+            }
+            return sMainHandler;
+        }
+    }
+
+    /**
+     * 所有滑动条的移动动画共用一个帧时钟，每帧只有一个帧回调。只在主线程调用。
+     */
+    static FrameClock getFrameClock() {
+        if (sFrameClock == null) {
+            sFrameClock = new FrameClock(new FrameClockDriver());
+        }
+        return sFrameClock;
+    }
+
+    /**
+     * 把帧时钟的下一帧请求转成 {@link Choreographer} 的帧回调。
+     */
+    private static class FrameClockDriver implements Runnable, Choreographer.FrameCallback {
+
+        @Override
+        public void run() {
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            sFrameClock.tick(frameTimeNanos);
+        }
+    }
+
+    /**
+     * 提交更新后注册到共用的帧时钟，在下一帧取出最新的一次更新。帧时钟只能在界面线程使用，
+     * 后台线程提交时先切换到界面线程，界面线程提交时直接注册。
+     */
+    private class ModelUpdater extends FrameClock.Client implements SliderModel.Callback,
+            Runnable {
+
+        @Override
+        public void onUpdatePending(SliderModel model) {
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                run();
+            } else {
+                getMainHandler().post(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            getFrameClock().register(this);
+        }
+
+        @Override
+        boolean onFrame(long frameTimeNanos) {
+            applyModelUpdate();
+            return false;
+        }
+    }
+
+    /**
+     * 应用后台提交的最新一次更新。用户正在拖动时暂存，拖动结束时再应用。
+     */
+    private void applyModelUpdate() {
+        long update = mModel.takeUpdate(mIsDragging);
+        if (update == SliderModel.NO_UPDATE) {
+            return;
+        }
+
+        long kind = SliderModel.kindOf(update);
+        if (kind == SliderModel.KIND_POSITION) {
+            setPosition(Math.min(1f, Math.max(0f, SliderModel.floatOf(update))), false);
+        } else if (kind == SliderModel.KIND_VALUE) {
+            setValue(SliderModel.floatOf(update), false);
+        }
+    }
+
+    private void publishModelState() {
+        mModel.publish(getPosition(), getExactValue());
+    }
+
+    /**
+     * 设置性能统计的回调，传入 null 关闭统计。
+     *
+     * @param metrics 统计回调，例如 {@link SliderMetricsAggregator}
+     */
+    public void setMetrics(SliderMetrics metrics) {
+        mMetrics = metrics;
+        mPendingTouchTime = 0;
+    }
+
+    /**
+     * 获取滑动条的数据模型。后台线程可以通过它高频率地提交位置或值，
+     * 界面每帧只会应用最新的一次，用户拖动时以用户为准。
+     *
+     * @return 数据模型
+     */
+    public SliderModel getModel() {
+        return mModel;
+    }
+
+    /**
+     * 在任意线程提交新的值，等同于 {@code getModel().postValue(value)}。
+     *
+     * @param value 值
+     */
+    public void postValue(float value) {
+        mModel.postValue(value);
+    }
+
+    /**
+     * 在任意线程提交新的位置，等同于 {@code getModel().postPosition(position)}。
+     *
+     * @param position 位置的百分比。范围: [0..1]
+     */
+    public void postPosition(float position) {
+        mModel.postPosition(position);
+    }
+
+    /**
+     * 批量执行修改，等同于在 {@link #beginBatchUpdate()} 和 {@link #endBatchUpdate()} 之间执行，
+     * 修改过程中抛出异常时也会结束批量修改。
+     *
+     * @param updates 要执行的修改
+     */
+    public void batch(Runnable updates) {
+        beginBatchUpdate();
+        try {
+            updates.run();
+        } finally {
+            endBatchUpdate();
+        }
+    }
+
+    /**
+     * 开始批量修改。在 {@link #endBatchUpdate()} 之前的所有修改都立即生效，但不会重绘、
+     * 不会开始动画，也不会回调监听事件；结束时只重绘一次、最多开始一个动画，
+     * 并把位置从开始前到结束后的变化合并成一次回调。可以嵌套，最外层结束时生效。
+     * <p>
+     * 必须与 {@link #endBatchUpdate()} 成对调用，否则之后的修改都不会重绘。
+     * 中间的代码可能抛出异常时在 finally 中结束，或者使用 {@link #batch(Runnable)}：
+     * <pre>
+     * slider.beginBatchUpdate();
+     * try {
+     *     ...
+     * } finally {
+     *     slider.endBatchUpdate();
+     * }
+     * </pre>
+     */
+    public void beginBatchUpdate() {
+        if (mBatchDepth++ > 0) {
+            return;
+        }
+
+        mBatchInvalidate = false;
+        mBatchRequestLayout = false;
+        mBatchAnimate = false;
+        mBatchFromUser = false;
+        mBatchOldPosition = getPosition();
+        mBatchOldValue = getValue();
+        mBatchOldDrawPosition = mThumbPositions[0];
+        if (mBatchOldThumbPositions == null || mBatchOldThumbPositions.length != mThumbCount) {
+            mBatchOldThumbPositions = new float[mThumbCount];
+        }
+        for (int i = 0; i < mThumbCount; i++) {
+            mBatchOldThumbPositions[i] = getThumbPosition(i);
+        }
+    }
+
+    /**
+     * 结束批量修改。
+     *
+     * @throws IllegalStateException 没有对应的 {@link #beginBatchUpdate()}
+     */
+    public void endBatchUpdate() {
+        if (mBatchDepth == 0) {
+            throw new IllegalStateException("endBatchUpdate() without beginBatchUpdate()");
+        }
+        if (--mBatchDepth > 0) {
+            return;
+        }
+
+        float newPos = getPosition();
+        int newValue = getValue();
+
+        // 单个滑块时，从开始前绘制的位置动画到最终的位置
+        if (mBatchAnimate && mThumbCount == 1 && mBatchOldThumbPositions.length == 1 &&
+                mBatchOldDrawPosition != newPos) {
+            mThumbPositions[0] = mBatchOldDrawPosition;
+            if (!mThumbMoveAnimator.startAnimation(newPos)) {
+                mThumbPositions[0] = newPos;
+            }
+        }
+
+        if (newPos != mBatchOldPosition || newValue != mBatchOldValue) {
+            dispatchPositionChanged(mBatchFromUser, mBatchOldPosition, newPos, mBatchOldValue,
+                    newValue);
+        }
+        if (mBatchOldThumbPositions.length == mThumbCount) {
+            for (int i = 0; i < mThumbCount; i++) {
+                float pos = getThumbPosition(i);
+                if (pos != mBatchOldThumbPositions[i]) {
+                    dispatchThumbPositionChanged(i, mBatchFromUser, mBatchOldThumbPositions[i],
+                            pos);
+                }
+            }
+        }
+        onPositionSettled();
+
+        if (mBatchInvalidate && mThumbLayer != null) {
+            // 批量修改期间移动滑块时没有同步图层
+            syncThumbLayer();
+        }
+        if (mBatchRequestLayout) {
+            requestLayout();
+        }
+        if (mBatchInvalidate) {
+            invalidate();
+        }
+    }
 
-        mTouchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
-        mMemoPoint = new PointF();
-
-        applyStyle(getContext(), attrs, defStyleAttr, defStyleRes);
-    }
-
-    private void applyStyle(Context context, AttributeSet attrs, int defStyleAttr,
-                            int defStyleRes) {
-
-        TypedArray a = context
-                .obtainStyledAttributes(attrs, R.styleable.XSlider, defStyleAttr, defStyleRes);
-        setEnabled(a.getBoolean(R.styleable.XSlider_android_enabled, true));
-        mProgressColor = a.getColor(R.styleable.XSlider_xslider_progressColor, DEFAULT_COLOR);
-        mTrackColor = a.getColor(R.styleable.XSlider_xslider_trackColor, DEFAULT_COLOR);
-        mThumbColor = a.getColor(R.styleable.XSlider_xslider_thumbColor, mProgressColor);
-        mTrackSize = a.getDimensionPixelSize(R.styleable.XSlider_xslider_trackSize, dp2px(2));
-        int value = a.getInteger(R.styleable.XSlider_xslider_value, 0);
-        boolean valueDefined = a.hasValue(R.styleable.XSlider_xslider_value);
-        int minValue = a.getInteger(R.styleable.XSlider_xslider_minValue, getMinValue());
-        int maxValue = a.getInteger(R.styleable.XSlider_xslider_maxValue, getMaxValue());
-        boolean valueRangeDefined = a.hasValue(R.styleable.XSlider_xslider_minValue)
-                && a.hasValue(R.styleable.XSlider_xslider_maxValue);
-        mThumbType = a.getInteger(R.styleable.XSlider_xslider_thumbType, THUMB_TYPE_OVAL);
-        mThumbRadius = a.getDimensionPixelSize(R.styleable.XSlider_xslider_thumbRadius, dp2px(10));
-        mThumbWidth = a.getDimensionPixelSize(R.styleable.XSlider_xslider_thumbWidth, dp2px(3));
-        mThumbHeight = a.getDimensionPixelSize(R.styleable.XSlider_xslider_thumbHeight, dp2px(10));
-        a.recycle();
-
-        if (valueRangeDefined) {
-            setValueRange(minValue, maxValue, false);
-        }
-
-        if (valueDefined) {
-            setValue(value, false);
-        } else if (mThumbPosition < 0) {
+    boolean isBatchUpdating() {
+        return mBatchDepth > 0;
+    }
+
+    private void applyStyle(SliderStyle style) {
+        setEnabled(style.mEnabled);
+        mProgressColor = style.mProgressColor;
+        mTrackColor = style.mTrackColor;
+        mThumbColor = style.mThumbColor;
+        mTrackSize = style.mTrackSize;
+        mThumbType = style.mThumbType;
+        mThumbRadius = style.mThumbRadius;
+        mThumbWidth = style.mThumbWidth;
+        mThumbHeight = style.mThumbHeight;
+        mStepSize = style.mStepSize;
+        mShowTicks = style.mShowTicks;
+        mTickColor = style.mTickColor;
+        mSecondaryColor = style.mSecondaryColor;
+        mTrackDataColor = style.mTrackDataColor;
+
+        if (style.mValueRangeDefined) {
+            setValueRange(style.mMinValue, style.mMaxValue, false);
+        }
+
+        if (style.mValueDefined) {
+            setValue(style.mValue, false);
+        } else if (mThumbPositions[mActiveThumb] < 0) {
             setValue(mMinValue, false);
         }
 
-        mEnlargeTouchRange = dp2px(DEFAULT_ENLARGE_TOUCH_RANGE);
-        mInterpolator = new DecelerateInterpolator();
+        mEnlargeTouchRange = style.mEnlargeTouchRange;
+        mPredictionMaxDistance = style.mPredictionMaxDistance;
+        mInterpolator = DEFAULT_INTERPOLATOR;
+        mAnimationDuration = style.mAnimationDuration;
+        mShortAnimationDuration = style.mShortAnimationDuration;
 
+        mTrackGeometryValid = false;
+        mTicksValid = false;
+        mTrackCacheValid = false;
         invalidate();
     }
 
@@ -170,19 +576,169 @@ public class XSlider extends View {
             return;
         }
 
+        mTicksValid = false;
+        mTrackCacheValid = false;
+        invalidate();
+
+        if (mThumbCount > 1) {
+            setMultiThumbValueRange(min, max);
+            return;
+        }
+
         float oldValue = getExactValue();
         float oldPosition = getPosition();
         mMinValue = min;
         mMaxValue = max;
+        if (mGroup != null) {
+            mGroup.onSliderRangeChanged(mGroupIndex, min, max);
+        }
+        rebuildScaleTable();
+        publishModelState();
 
         setValue(oldValue, animation);
-        if (mOnPositionChangeListener != null && oldPosition == getPosition() &&
-                oldValue != getExactValue()) {
+        if (oldPosition == getPosition() && oldValue != getExactValue()) {
+            dispatchPositionChanged(false, oldPosition, oldPosition, Math.round(oldValue),
+                    getValue());
+        }
+    }
+
+    /**
+     * 多个滑块时改变范围，保持每个滑块的确切值不变。多个滑块时没有动画。
+     */
+    private void setMultiThumbValueRange(int min, int max) {
+        if (mThumbMoveAnimator.isRunning()) {
+            mThumbMoveAnimator.stopAnimation();
+        }
+
+        float oldValue = getExactValue();
+        float oldPosition = getPosition();
+        float[] oldPositions = new float[mThumbCount];
+        float[] oldValues = new float[mThumbCount];
+        for (int i = 0; i < mThumbCount; i++) {
+            oldPositions[i] = mThumbPositions[i];
+            oldValues[i] = positionToValue(mThumbPositions[i]);
+        }
+
+        mMinValue = min;
+        mMaxValue = max;
+        if (mGroup != null) {
+            mGroup.onSliderRangeChanged(mGroupIndex, min, max);
+        }
+        rebuildScaleTable();
+        for (int i = 0; i < mThumbCount; i++) {
+            mThumbPositions[i] = valueToPosition(oldValues[i]);
+        }
+        publishModelState();
+        invalidate();
+
+        if (oldValue != getExactValue()) {
+            dispatchPositionChanged(false, oldPosition, getPosition(), Math.round(oldValue),
+                    getValue());
+        }
+        for (int i = 0; i < mThumbCount; i++) {
+            if (oldPositions[i] != mThumbPositions[i]) {
+                dispatchThumbPositionChanged(i, false, oldPositions[i], mThumbPositions[i]);
+            }
+        }
+    }
+
+    /**
+     * 设置多个滑块的位置，滑块的数量等于数组的长度。位置会按从小到大排序。
+     *
+     * @param positions 每个滑块位置的百分比。范围: [0..1]
+     */
+    public void setThumbPositions(float... positions) {
+        if (positions == null || positions.length == 0) {
+            throw new IllegalArgumentException("positions must not be empty");
+        }
+
+        if (mThumbMoveAnimator.isRunning()) {
+            mThumbMoveAnimator.stopAnimation();
+        }
+        clearPredictedOffset();
+        mIsDragging = false;
+
+        int count = positions.length;
+        if (mThumbPositions.length != count) {
+            mThumbPositions = new float[count];
+            mThumbPoints = new float[count * 2];
+        }
+        for (int i = 0; i < count; i++) {
+            mThumbPositions[i] = Math.min(1f, Math.max(0f, positions[i]));
+        }
+        Arrays.sort(mThumbPositions, 0, count);
+        mThumbCount = count;
+        mActiveThumb = 0;
+        publishModelState();
+
+        resetDispatchState();
+        if (mThumbLayerEnabled) {
+            updateThumbLayer();
+        }
+        invalidate();
+    }
+
+    /**
+     * 获取滑块的数量。
+     *
+     * @return 滑块的数量
+     */
+    public int getThumbCount() {
+        return mThumbCount;
+    }
 
-            mOnPositionChangeListener
-                    .onPositionChanged(this, false, oldPosition, oldPosition, Math.round(oldValue),
-                            getValue());
+    /**
+     * 获取指定滑块的位置。
+     *
+     * @param index 滑块的索引，滑块按位置从小到大排列
+     * @return 位置的百分比。范围: [0..1]
+     */
+    public float getThumbPosition(int index) {
+        if (index == mActiveThumb && mThumbMoveAnimator.isRunning()) {
+            return mThumbMoveAnimator.getPosition();
         }
+        return mThumbPositions[index];
+    }
+
+    /**
+     * 设置指定滑块的位置。位置会被限制在相邻两个滑块之间，并保持最小间距。
+     *
+     * @param index     滑块的索引
+     * @param pos       位置的百分比。范围: [0..1]
+     * @param animation 是否有动画
+     */
+    public void setThumbPosition(int index, float pos, boolean animation) {
+        setThumbPosition(index, pos, animation, false);
+    }
+
+    /**
+     * 获取指定滑块的值。
+     *
+     * @param index 滑块的索引
+     * @return 值
+     */
+    public int getThumbValue(int index) {
+        return Math.round(positionToValue(getThumbPosition(index)));
+    }
+
+    /**
+     * 设置指定滑块的值。
+     *
+     * @param index     滑块的索引
+     * @param value     值
+     * @param animation 是否有动画
+     */
+    public void setThumbValue(int index, float value, boolean animation) {
+        setThumbPosition(index, valueToPosition(value), animation);
+    }
+
+    /**
+     * 设置相邻两个滑块之间的最小间距。
+     *
+     * @param gap 最小间距，位置的百分比。范围: [0..1]
+     */
+    public void setMinThumbGap(float gap) {
+        mMinThumbGap = Math.max(0, gap);
     }
 
     /**
@@ -200,7 +756,7 @@ public class XSlider extends View {
      * @return 确切值
      */
     public float getExactValue() {
-        return (mMaxValue - mMinValue) * getPosition() + mMinValue;
+        return positionToValue(getPosition());
     }
 
     /**
@@ -209,7 +765,7 @@ public class XSlider extends View {
      * @return 当前滑动的位置的百分比
      */
     public float getPosition() {
-        return mThumbMoveAnimator.isRunning() ? mThumbMoveAnimator.getPosition() : mThumbPosition;
+        return getThumbPosition(0);
     }
 
     /**
@@ -219,61 +775,513 @@ public class XSlider extends View {
      * @param animation 是否有动画
      */
     public void setPosition(float pos, boolean animation) {
-        setPosition(pos, animation, false);
+        setThumbPosition(0, pos, animation, false);
     }
 
     private void setPosition(float pos, boolean moveAnimation, boolean fromUser) {
-        boolean change = getPosition() != pos;
+        setThumbPosition(mActiveThumb, pos, moveAnimation, fromUser);
+    }
+
+    private void setThumbPosition(int index, float pos, boolean moveAnimation, boolean fromUser) {
+        setThumbPosition(index, pos, moveAnimation, fromUser, getThumbDrawPosition(index));
+    }
+
+    /**
+     * @param oldDrawPos 改变之前滑块绘制的位置（包括拖动预测的偏移），从这里到新的绘制位置之间的区域会被重绘
+     */
+    private void setThumbPosition(int index, float pos, boolean moveAnimation, boolean fromUser,
+                                  float oldDrawPos) {
+        if (mBatchDepth > 0) {
+            // 批量修改时先直接移动，结束时再统一动画
+            mBatchAnimate |= moveAnimation;
+            moveAnimation = false;
+        }
+        pos = snapPosition(pos);
+        if (mThumbCount > 1) {
+            pos = clampThumbPosition(index, pos);
+        }
+
+        // 同一时间只有一个滑块在拖动或动画，拖动时其他滑块直接移动
+        boolean animate = moveAnimation && (index == mActiveThumb || !mIsDragging);
+        if (index != mActiveThumb && animate) {
+            if (mThumbMoveAnimator.isRunning()) {
+                mThumbMoveAnimator.stopAnimation();
+            }
+            mActiveThumb = index;
+        }
+
+        float oldThumbPos = getThumbPosition(index);
+        boolean change = oldThumbPos != pos;
         int oldValue = getValue();
         float oldPos = getPosition();
 
-        if (!moveAnimation || !mThumbMoveAnimator.startAnimation(pos)) {
-            mThumbPosition = pos;
+        boolean cancelled = false;
+        if (!animate || !mThumbMoveAnimator.startAnimation(pos)) {
+            if (index == mActiveThumb && mThumbMoveAnimator.isRunning()) {
+                // 停在当前绘制的位置再直接移动，不会先跳到动画的终点
+                mThumbMoveAnimator.cancelAnimation();
+                oldDrawPos = mThumbPositions[index];
+                cancelled = true;
+            }
+            mThumbPositions[index] = pos;
         }
 
-        int newValue = getValue();
-        float newPos = getPosition();
-
-        if (change && mOnPositionChangeListener != null) {
-            mOnPositionChangeListener
-                    .onPositionChanged(this, fromUser, oldPos, newPos, oldValue, newValue);
+        if (change && index == 0) {
+            publishModelState();
+            dispatchPositionChanged(fromUser, oldPos, getPosition(), oldValue, getValue());
         }
 
         if (change) {
-            invalidate();
+            dispatchThumbPositionChanged(index, fromUser, oldThumbPos, pos);
+        }
+
+        invalidateThumbMove(oldDrawPos, getThumbDrawPosition(index));
+        if (cancelled && !change) {
+            // 直接移动到了动画的终点，没有新的位置改变，动画中暂缓的事件在这里回调
+            onPositionSettled();
         }
     }
 
     /**
-     * 设置滑动进度条的颜色。
+     * 设置步长。设置后滑块只能停在 {@code 最小值 + n * 步长} 以及最大值的位置。
      *
-     * @param color 颜色值
+     * @param stepSize 步长，0 表示连续
      */
-    public void setProgressColor(int color) {
-        mProgressColor = color;
+    public void setStepSize(int stepSize) {
+        stepSize = Math.max(0, stepSize);
+        if (mStepSize == stepSize) {
+            return;
+        }
+
+        mStepSize = stepSize;
+        mTicksValid = false;
+        mTrackCacheValid = false;
         invalidate();
+        for (int i = 0; i < mThumbCount; i++) {
+            setThumbPosition(i, getThumbPosition(i), false, false);
+        }
     }
 
     /**
-     * 设置滑动条的颜色。
+     * 获取步长。
      *
-     * @param color 颜色值
+     * @return 步长，0 表示连续
      */
-    public void setTrackColor(int color) {
-        mTrackColor = color;
-        invalidate();
+    public int getStepSize() {
+        return mStepSize;
     }
 
     /**
-     * 设置当前选中的值。
+     * 设置是否在每个步长的位置绘制刻度。
      *
-     * @param value     值
-     * @param animation 是否有切换动画
+     * @param showTicks 是否绘制刻度
      */
-    public void setValue(float value, boolean animation) {
-        value = Math.min(mMaxValue, Math.max(value, mMinValue));
-        setPosition((value - mMinValue) / (mMaxValue - mMinValue), animation);
-    }
+    public void setShowTicks(boolean showTicks) {
+        if (mShowTicks != showTicks) {
+            mShowTicks = showTicks;
+            mTicksValid = false;
+            mTrackCacheValid = false;
+            invalidate();
+        }
+    }
+
+    /**
+     * 设置刻度的颜色。
+     *
+     * @param color 颜色值
+     */
+    public void setTickColor(int color) {
+        mTickColor = color;
+        mTrackCacheValid = false;
+        invalidate();
+    }
+
+    /**
+     * 添加一段次要区间（例如视频已缓冲的部分），绘制在进度下方。
+     * 与已有区间重叠或相接时会自动合并，只重绘新增区间所在的那段滑动条。
+     *
+     * @param startValue 区间起始的值
+     * @param endValue   区间结束的值
+     */
+    public void addSecondaryRange(float startValue, float endValue) {
+        if (mSecondaryRanges.add(startValue, endValue)) {
+            invalidateSecondaryRange(startValue, endValue);
+        }
+    }
+
+    /**
+     * 替换所有的次要区间。
+     *
+     * @param ranges 依次为每段区间的起始值和结束值，为 null 时清空
+     */
+    public void setSecondaryRanges(float[] ranges) {
+        mSecondaryRanges.clear();
+        if (ranges != null) {
+            for (int i = 0; i + 1 < ranges.length; i += 2) {
+                mSecondaryRanges.add(ranges[i], ranges[i + 1]);
+            }
+        }
+        invalidate();
+    }
+
+    /**
+     * 清空所有的次要区间。
+     */
+    public void clearSecondaryRanges() {
+        if (mSecondaryRanges.size() > 0) {
+            mSecondaryRanges.clear();
+            invalidate();
+        }
+    }
+
+    /**
+     * 获取合并后的次要区间的数量。
+     */
+    public int getSecondaryRangeCount() {
+        return mSecondaryRanges.size();
+    }
+
+    /**
+     * 设置次要区间的颜色。
+     *
+     * @param color 颜色值
+     */
+    public void setSecondaryColor(int color) {
+        mSecondaryColor = color;
+        invalidate();
+    }
+
+    /**
+     * 设置绘制在滑动条后方的数据（音频波形、直方图等）。数据按像素降采样为每列的最小值和最大值，
+     * 结果会缓存到尺寸或数据改变为止。
+     *
+     * @param samples 采样数据，会被复制，为 null 时清空
+     */
+    public void setTrackData(float[] samples) {
+        if (samples == null) {
+            clearTrackData();
+            return;
+        }
+        mTrackData = new WaveformData(samples.length);
+        mTrackData.append(samples, 0, samples.length);
+        // 旧的波形对应的是旧的数据，后台降采样完成之前不再绘制
+        mTrackDataLineCount = 0;
+        mTrackDataSet++;
+        invalidateTrackData();
+    }
+
+    /**
+     * 在数据末尾追加采样，用于实时数据。
+     */
+    public void appendTrackData(float[] samples, int offset, int count) {
+        if (count <= 0) {
+            return;
+        }
+        if (mTrackData == null) {
+            mTrackData = new WaveformData(count);
+        }
+        mTrackData.append(samples, offset, count);
+        invalidateTrackData();
+    }
+
+    /**
+     * 清空滑动条后方的数据。
+     */
+    public void clearTrackData() {
+        if (mTrackData != null) {
+            mTrackData = null;
+            mTrackDataLineCount = 0;
+            mTrackDataSet++;
+            invalidateTrackData();
+        }
+    }
+
+    /**
+     * 设置滑动条后方数据的颜色。
+     *
+     * @param color 颜色值
+     */
+    public void setTrackDataColor(int color) {
+        mTrackDataColor = color;
+        invalidate();
+    }
+
+    /**
+     * 设置降采样使用的线程池。采样很多时在后台降采样，计算完成前继续绘制上一次的结果；
+     * 为 null 时在绘制时同步计算。
+     *
+     * @param executor 线程池
+     */
+    public void setTrackDataExecutor(Executor executor) {
+        mTrackDataExecutor = executor;
+    }
+
+    private void invalidateTrackData() {
+        mTrackDataValid = false;
+        mTrackDataGeneration++;
+        invalidate();
+    }
+
+    /**
+     * 设置拖动时的预览图加载器。拖动时在滑块上方显示手指所在值的预览图，
+     * 需要留出足够的高度（滑块上方的空间）。
+     *
+     * @param loader    预览图加载器，为 null 时关闭预览
+     * @param valueStep 预览图对应的值的间隔，相同间隔内的值共用一张预览图
+     */
+    public void setPreviewLoader(PreviewLoader loader, int valueStep) {
+        if (loader == null && mScrubPreview == null) {
+            return;
+        }
+        if (mScrubPreview == null) {
+            mScrubPreview = new ScrubPreview(new ScrubPreview.Callback() {
+                @Override
+                public void onPreviewChanged() {
+                    invalidatePreview();
+                }
+            });
+            mPreviewPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+            if (mPreviewWidth == 0 || mPreviewHeight == 0) {
+                mPreviewWidth = dp2px(96);
+                mPreviewHeight = dp2px(54);
+            }
+        }
+        mScrubPreview.setLoader(loader, valueStep);
+    }
+
+    /**
+     * 设置预览图缓存的大小。
+     *
+     * @param maxBytes 缓存的最大字节数，默认 8MB
+     */
+    public void setPreviewCacheSize(int maxBytes) {
+        if (mScrubPreview != null) {
+            mScrubPreview.setCacheSize(maxBytes);
+        }
+    }
+
+    /**
+     * 设置预览图显示的大小。
+     *
+     * @param width  宽度（像素）
+     * @param height 高度（像素）
+     */
+    public void setPreviewSize(int width, int height) {
+        mPreviewWidth = width;
+        mPreviewHeight = height;
+        invalidatePreview();
+    }
+
+    /**
+     * 获取拖动时预览图缓存命中的次数。
+     */
+    public int getPreviewCacheHitCount() {
+        return mScrubPreview != null ? mScrubPreview.getHitCount() : 0;
+    }
+
+    /**
+     * 获取拖动时预览图缓存未命中的次数。
+     */
+    public int getPreviewCacheMissCount() {
+        return mScrubPreview != null ? mScrubPreview.getMissCount() : 0;
+    }
+
+    /**
+     * 拖动时把手指所在的值交给预览，实际的加载在下一帧进行。
+     */
+    private void updatePreview() {
+        if (mScrubPreview == null || mScrubPreview.getLoader() == null) {
+            return;
+        }
+
+        float width = mDrawRect.width();
+        float predicted = mDragPosition;
+        if (width > 0) {
+            predicted += mDragPredictor.getVelocity() * PREVIEW_LOOKAHEAD / width;
+        }
+        int value = Math.round(positionToValue(mDragPosition));
+        int predictedValue = Math.round(positionToValue(clampPosition(predicted)));
+        mScrubPreview.update(value, predictedValue, mMinValue, mMaxValue);
+        if (mScrubPreview.getBitmap() != null) {
+            // 预览图跟随滑块移动
+            invalidatePreview();
+        }
+    }
+
+    private void stopPreview() {
+        if (mScrubPreview != null) {
+            mScrubPreview.stop();
+        }
+    }
+
+    /**
+     * 重绘滑块上方显示预览图的区域。
+     */
+    private void invalidatePreview() {
+        int bottom = (int) Math.ceil(mDrawRect.top);
+        if (bottom > 0) {
+            invalidate(0, 0, getWidth(), bottom);
+        }
+    }
+
+    /**
+     * 在滑块上方绘制预览图，水平方向限制在控件内。
+     */
+    private void drawPreview(Canvas canvas) {
+        Bitmap bitmap = mScrubPreview != null ? mScrubPreview.getBitmap() : null;
+        if (bitmap == null || !mIsDragging) {
+            return;
+        }
+
+        float x = getThumbCenterX(getThumbDrawPosition(mActiveThumb));
+        float bottom = mDrawRect.top - dp2px(4);
+        float left = Math.max(0, Math.min(getWidth() - mPreviewWidth, x - mPreviewWidth / 2f));
+        mTempRect.set(left, bottom - mPreviewHeight, left + mPreviewWidth, bottom);
+        canvas.drawBitmap(bitmap, null, mTempRect, mPreviewPaint);
+    }
+
+    /**
+     * 只重绘一段区间覆盖的那段滑动条。
+     */
+    private void invalidateSecondaryRange(float startValue, float endValue) {
+        float startX = getThumbCenterX(clampPosition(valueToPosition(startValue)));
+        float endX = getThumbCenterX(clampPosition(valueToPosition(endValue)));
+        float y = mDrawRect.centerY();
+        float halfStroke = mTrackSize / 2f;
+        if (mMetrics != null) {
+            mMetrics.onInvalidate(true);
+        }
+        invalidate((int) Math.floor(Math.min(startX, endX)) - 1,
+                (int) Math.floor(y - halfStroke) - 1,
+                (int) Math.ceil(Math.max(startX, endX)) + 1,
+                (int) Math.ceil(y + halfStroke) + 1);
+    }
+
+    private static float clampPosition(float position) {
+        return Math.max(0f, Math.min(1f, position));
+    }
+
+    /**
+     * 将位置吸附到最近的步长位置。吸附点优先于步长：已经在吸附点上的位置保持不变，
+     * 吸附点不在步长位置上时滑块也不会被拉开。
+     */
+    private float snapPosition(float pos) {
+        if (mStepSize > 0 && isDetentPosition(pos)) {
+            return pos;
+        }
+        if (mScaleTable == null || mStepSize <= 0) {
+            return SliderMath.snap(pos, mMinValue, mMaxValue, mStepSize);
+        }
+
+        // 非线性映射时在值上吸附
+        return valueToPosition(SliderMath.snapValue(positionToValue(pos), mMinValue, mMaxValue,
+                mStepSize));
+    }
+
+    /**
+     * 设置位置和值之间的映射方式。
+     *
+     * @param scale 映射方式，例如 {@link ValueScale#LINEAR}、{@link ValueScale#log()}
+     */
+    public void setValueScale(ValueScale scale) {
+        if (scale == null) {
+            scale = ValueScale.LINEAR;
+        }
+        if (mValueScale == scale) {
+            return;
+        }
+
+        float[] values = new float[mThumbCount];
+        for (int i = 0; i < mThumbCount; i++) {
+            values[i] = positionToValue(getThumbPosition(i));
+        }
+
+        mValueScale = scale;
+        rebuildScaleTable();
+        mTicksValid = false;
+        mTrackCacheValid = false;
+        invalidate();
+
+        // 保持每个滑块的值不变
+        for (int i = 0; i < mThumbCount; i++) {
+            setThumbValue(i, values[i], false);
+        }
+    }
+
+    /**
+     * 获取位置和值之间的映射方式。
+     *
+     * @return 映射方式
+     */
+    public ValueScale getValueScale() {
+        return mValueScale;
+    }
+
+    private void rebuildScaleTable() {
+        mScaleTable = mValueScale == ValueScale.LINEAR ? null :
+                new ValueScaleTable(mValueScale, mMinValue, mMaxValue,
+                        ValueScaleTable.DEFAULT_SIZE);
+        // 值与位置的映射改变了，吸附点的位置需要重新计算
+        mDetentPositionsValid = false;
+    }
+
+    private float positionToValue(float position) {
+        if (mScaleTable != null) {
+            return mScaleTable.toValue(position);
+        }
+        return SliderMath.toValue(position, mMinValue, mMaxValue);
+    }
+
+    private float valueToPosition(float value) {
+        if (mScaleTable != null) {
+            return mScaleTable.toPosition(value);
+        }
+        return SliderMath.toPosition(value, mMinValue, mMaxValue);
+    }
+
+    /**
+     * 将滑块的位置限制在相邻两个滑块之间，并保持最小间距，保证滑块不会交叉。
+     */
+    private float clampThumbPosition(int index, float pos) {
+        float lower = index > 0 ? mThumbPositions[index - 1] + mMinThumbGap : 0f;
+        float upper = index < mThumbCount - 1 ? mThumbPositions[index + 1] - mMinThumbGap : 1f;
+        if (upper < lower) {
+            return mThumbPositions[index];
+        }
+        return Math.min(upper, Math.max(lower, pos));
+    }
+
+    /**
+     * 设置滑动进度条的颜色。
+     *
+     * @param color 颜色值
+     */
+    public void setProgressColor(int color) {
+        mProgressColor = color;
+        mTrackCacheValid = false;
+        invalidate();
+    }
+
+    /**
+     * 设置滑动条的颜色。
+     *
+     * @param color 颜色值
+     */
+    public void setTrackColor(int color) {
+        mTrackColor = color;
+        mTrackCacheValid = false;
+        invalidate();
+    }
+
+    /**
+     * 设置当前选中的值。
+     *
+     * @param value     值
+     * @param animation 是否有切换动画
+     */
+    public void setValue(float value, boolean animation) {
+        setPosition(valueToPosition(value), animation);
+    }
 
     /**
      * 设置滑动条位置改变的监听事件。
@@ -282,238 +1290,1757 @@ public class XSlider extends View {
      */
     public void setOnPositionChangeListener(OnPositionChangeListener listener) {
         this.mOnPositionChangeListener = listener;
+        resetDispatchState();
     }
 
-    @Override
-    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-        int widthSize = MeasureSpec.getSize(widthMeasureSpec);
-        int widthMode = MeasureSpec.getMode(widthMeasureSpec);
+    /**
+     * 设置拖动时是否根据手指的速度预测滑块的位置，以减少滑块落后手指的距离。
+     * 预测只影响滑块的绘制位置，{@link #getPosition()} 和监听事件仍然使用手指的实际位置。
+     *
+     * @param enabled 是否开启预测
+     */
+    public void setTouchPredictionEnabled(boolean enabled) {
+        mTouchPrediction = enabled;
+        if (!enabled) {
+            clearPredictedOffset();
+        }
+    }
 
-        int heightSize = MeasureSpec.getSize(heightMeasureSpec);
-        int heightMode = MeasureSpec.getMode(heightMeasureSpec);
+    /**
+     * 设置拖动预测的参数。预测的时间是从事件发生到下一帧显示出来，由屏幕的刷新率和垂直同步的时间计算，
+     * 这里只限制它的上限。
+     *
+     * @param maxLookahead 预测时间的上限，单位: 毫秒，默认 50
+     * @param maxDistance  预测的最大偏移距离，单位: 像素，默认 24dp
+     */
+    public void setTouchPrediction(int maxLookahead, float maxDistance) {
+        mPredictionMaxLookahead = Math.max(0, maxLookahead);
+        mPredictionMaxDistance = Math.max(0, maxDistance);
+    }
 
-        if (widthMode == MeasureSpec.UNSPECIFIED) {
-            widthSize = getSuggestedMinimumWidth();
-        } else if (widthMode == MeasureSpec.AT_MOST) {
-            widthSize = Math.min(widthSize, getSuggestedMinimumWidth());
+    /**
+     * 设置拖动结束时是否根据手指的速度惯性滑动。惯性滑动按摩擦力衰减，
+     * 位置由经过的时间直接计算，在不同的刷新率下表现一致，设置了步长时会停在步长的位置上。
+     *
+     * @param enabled 是否开启惯性滑动
+     */
+    public void setFlingEnabled(boolean enabled) {
+        mFlingEnabled = enabled;
+    }
+
+    /**
+     * 设置惯性滑动的摩擦系数，越大停得越快。速度为 v 时滑动的距离为 v / friction。
+     *
+     * @param friction 摩擦系数，单位: 1/秒
+     */
+    public void setFlingFriction(float friction) {
+        if (friction > 0) {
+            mFlingFriction = friction;
         }
+    }
 
-        if (heightMode == MeasureSpec.UNSPECIFIED) {
-            heightSize = getSuggestedMinimumHeight();
-        } else if (heightMode == MeasureSpec.AT_MOST) {
-            heightSize = Math.min(heightSize, getSuggestedMinimumHeight());
+    /**
+     * 设置用户开始、结束拖动滑块的监听事件。
+     *
+     * @param listener 监听事件
+     */
+    public void setOnTrackingTouchListener(OnTrackingTouchListener listener) {
+        this.mOnTrackingTouchListener = listener;
+    }
+
+    /**
+     * 设置吸附点。拖动时手指进入吸附点附近的吸附半径内，滑块会被吸到吸附点上，
+     * 离开脱离半径后才放开；惯性滑动停止的位置也会吸附到附近的吸附点。
+     *
+     * @param values 吸附点的值，可以是任意数量、任意间隔，为 null 或空时清除
+     */
+    public void setDetents(float... values) {
+        int captured = getCapturedDetent();
+        if (values == null || values.length == 0) {
+            mDetents = null;
+        } else {
+            mDetents = new DetentTable(values);
+            mDetentPositionsValid = false;
+            if (mDetentCaptureRadius == 0) {
+                mDetentCaptureRadius = dp2px(12);
+                mDetentReleaseRadius = dp2px(18);
+            }
         }
 
-        setMeasuredDimension(widthSize, heightSize);
+        // 原来吸住的吸附点已经不存在，与手指离开脱离半径一样回调放开
+        if (captured != DetentTable.NONE && mOnDetentChangeListener != null) {
+            mOnDetentChangeListener.onDetentChanged(this, DetentTable.NONE,
+                    positionToValue(getThumbPosition(mActiveThumb)));
+        }
+    }
+
+    /**
+     * 设置吸附的半径。
+     *
+     * @param captureRadius 手指与吸附点的距离小于该值时吸住（像素）
+     * @param releaseRadius 吸住后手指离开该距离时放开（像素），不小于吸附半径
+     */
+    public void setDetentRadius(int captureRadius, int releaseRadius) {
+        mDetentCaptureRadius = Math.max(0, captureRadius);
+        mDetentReleaseRadius = Math.max(mDetentCaptureRadius, releaseRadius);
+    }
+
+    /**
+     * 设置吸住吸附点时是否有触觉反馈，默认开启。
+     *
+     * @param enabled 是否开启
+     */
+    public void setDetentHapticFeedbackEnabled(boolean enabled) {
+        mDetentHapticFeedback = enabled;
+    }
+
+    /**
+     * 获取拖动时当前吸住的吸附点。
+     *
+     * @return 吸附点按值从小到大排序后的索引，没有时返回 -1
+     */
+    public int getCapturedDetent() {
+        return mDetents != null ? mDetents.getCaptured() : DetentTable.NONE;
+    }
+
+    private void ensureDetentPositions() {
+        if (mDetentPositionsValid) {
+            return;
+        }
+        for (int i = 0, size = mDetents.size(); i < size; i++) {
+            mDetents.setPosition(i, clampPosition(valueToPosition(mDetents.getValue(i))));
+        }
+        mDetentPositionsValid = true;
+    }
+
+    /**
+     * 拖动时根据手指所在的位置更新吸附状态。
+     *
+     * @param position 手指所在的位置（未吸附）
+     * @return 滑块应该所在的位置
+     */
+    private float applyDetent(float position) {
+        float width = mDrawRect.width();
+        if (mDetents == null || width <= 0) {
+            return position;
+        }
+
+        ensureDetentPositions();
+        int previous = mDetents.getCaptured();
+        int captured = mDetents.update(position, mDetentCaptureRadius / width,
+                mDetentReleaseRadius / width);
+        if (captured == previous) {
+            return captured != DetentTable.NONE ? mDetents.getPosition(captured) : position;
+        }
+
+        if (captured != DetentTable.NONE) {
+            if (mDetentHapticFeedback) {
+                performHapticFeedback(Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP ?
+                        HapticFeedbackConstants.CLOCK_TICK : HapticFeedbackConstants.KEYBOARD_TAP);
+            }
+            position = mDetents.getPosition(captured);
+        }
+        if (mOnDetentChangeListener != null) {
+            mOnDetentChangeListener.onDetentChanged(this, captured,
+                    captured != DetentTable.NONE ? mDetents.getValue(captured)
+                            : positionToValue(position));
+        }
+        return position;
+    }
+
+    /**
+     * 把位置吸附到吸附半径内最近的吸附点，用于惯性滑动停止的位置。
+     */
+    private float snapToDetent(float position) {
+        float width = mDrawRect.width();
+        if (mDetents == null || width <= 0) {
+            return position;
+        }
+
+        ensureDetentPositions();
+        int nearest = mDetents.nearest(position);
+        float detent = mDetents.getPosition(nearest);
+        return Math.abs(detent - position) * width <= mDetentCaptureRadius ? detent : position;
+    }
+
+    /**
+     * 位置是否正好在某个吸附点上。
+     */
+    private boolean isDetentPosition(float position) {
+        if (mDetents == null) {
+            return false;
+        }
+
+        ensureDetentPositions();
+        int nearest = mDetents.nearest(position);
+        return nearest != DetentTable.NONE && mDetents.getPosition(nearest) == position;
+    }
+
+    /**
+     * 手指抬起后放开吸附点，不回调监听事件。
+     */
+    private void releaseDetent() {
+        if (mDetents != null) {
+            mDetents.release();
+        }
+    }
+
+    /**
+     * 设置每个滑块位置改变的监听事件，多个滑块时使用。
+     *
+     * @param listener 监听事件
+     */
+    public void setOnThumbPositionChangeListener(OnThumbPositionChangeListener listener) {
+        this.mOnThumbPositionChangeListener = listener;
+        resetDispatchState();
+    }
+
+    /**
+     * 设置拖动时滑块被吸附点吸住或放开的监听事件。
+     *
+     * @param listener 监听事件
+     */
+    public void setOnDetentChangeListener(OnDetentChangeListener listener) {
+        this.mOnDetentChangeListener = listener;
+    }
+
+    /**
+     * 设置位置改变监听事件的回调方式，{@link OnPositionChangeListener} 和
+     * {@link OnThumbPositionChangeListener} 都按照这个方式回调，每个滑块分别计算。
+     *
+     * @param mode {@link #DISPATCH_MODE_ALWAYS}、{@link #DISPATCH_MODE_VALUE_CHANGED}、
+     *             {@link #DISPATCH_MODE_THROTTLED} 或 {@link #DISPATCH_MODE_GESTURE_END}
+     */
+    public void setDispatchMode(int mode) {
+        flushPendingDispatch();
+        mDispatchMode = mode;
+        mDispatcher.setMode(mode);
+        for (PositionDispatcher dispatcher : mThumbDispatchers) {
+            dispatcher.setMode(mode);
+        }
+        resetDispatchState();
+    }
+
+    /**
+     * 获取位置改变监听事件的回调方式。
+     *
+     * @return 回调方式
+     */
+    public int getDispatchMode() {
+        return mDispatchMode;
+    }
+
+    /**
+     * 设置 {@link #DISPATCH_MODE_THROTTLED} 模式下每秒最多回调的次数。
+     *
+     * @param maxPerSecond 每秒最多回调的次数，小于等于 0 表示不限制
+     */
+    public void setDispatchThrottleRate(int maxPerSecond) {
+        mDispatchInterval = maxPerSecond > 0 ? 1000L / maxPerSecond : 0;
+        mDispatcher.setInterval(mDispatchInterval);
+        for (PositionDispatcher dispatcher : mThumbDispatchers) {
+            dispatcher.setInterval(mDispatchInterval);
+        }
+    }
+
+    private void resetDispatchState() {
+        removeCallbacks(mPendingDispatchRunnable);
+        mDispatcher.reset(getPosition(), getValue());
+        if (mThumbDispatchers.length != mThumbCount) {
+            mThumbDispatchers = new PositionDispatcher[mThumbCount];
+            for (int i = 0; i < mThumbCount; i++) {
+                PositionDispatcher dispatcher = new PositionDispatcher();
+                dispatcher.setMode(mDispatchMode);
+                dispatcher.setInterval(mDispatchInterval);
+                mThumbDispatchers[i] = dispatcher;
+            }
+        }
+        for (int i = 0; i < mThumbCount; i++) {
+            float pos = mThumbPositions[i];
+            mThumbDispatchers[i].reset(pos, getThumbValue(pos));
+        }
+    }
+
+    private int getThumbValue(float pos) {
+        return Math.round(positionToValue(pos));
+    }
+
+    private boolean isMoving() {
+        return mIsDragging || mThumbMoveAnimator.isRunning();
+    }
+
+    /**
+     * 按照当前的回调方式分发位置改变的事件。
+     */
+    private void dispatchPositionChanged(boolean fromUser, float oldPos, float newPos,
+                                         int oldValue, int newValue) {
+        if (mBatchDepth > 0) {
+            mBatchFromUser |= fromUser;
+            return;
+        }
+        if (mGroup != null) {
+            mGroup.onSliderChanged(mGroupIndex, positionToValue(newPos));
+        }
+        offerValue(positionToValue(newPos), !isMoving());
+        if (mOnPositionChangeListener == null) {
+            return;
+        }
+
+        final PositionDispatcher dispatcher = mDispatcher;
+        long now = SystemClock.uptimeMillis();
+        int result = dispatcher.offer(fromUser, newPos, newValue, isMoving(), now);
+        if (result == PositionDispatcher.DELIVER) {
+            if (mDispatchMode == DISPATCH_MODE_ALWAYS) {
+                deliverPositionChanged(fromUser, oldPos, newPos, oldValue, newValue);
+            } else {
+                deliverPositionChanged(fromUser, dispatcher.getPosition(), newPos,
+                        dispatcher.getValue(), newValue);
+            }
+        } else if (result == PositionDispatcher.SCHEDULE) {
+            scheduleDispatch(dispatcher.getDelay(now));
+        }
+    }
+
+    /**
+     * 在指定的时间后回调 {@link #DISPATCH_MODE_THROTTLED} 模式下暂缓的事件。
+     * 每个暂缓的事件各安排一次，到时只回调已经到达最小间隔的事件。
+     */
+    private void scheduleDispatch(long delay) {
+        if (getHandler() == null) {
+            // 没有添加到窗口中，无法延迟，立即回调
+            flushPendingDispatch();
+            return;
+        }
+        if (mPendingDispatchRunnable == null) {
+            mPendingDispatchRunnable = new Runnable() {
+                @Override
+                public void run() {
+                    flushPendingDispatch(false);
+                }
+            };
+        }
+        postDelayed(mPendingDispatchRunnable, delay);
+    }
+
+    /**
+     * 立即回调尚未分发的位置改变事件。
+     */
+    private void flushPendingDispatch() {
+        removeCallbacks(mPendingDispatchRunnable);
+        flushPendingDispatch(true);
+    }
+
+    /**
+     * 回调尚未分发的事件。
+     *
+     * @param force 是否忽略 {@link #DISPATCH_MODE_THROTTLED} 模式下的最小间隔
+     */
+    private void flushPendingDispatch(boolean force) {
+        long now = SystemClock.uptimeMillis();
+        final PositionDispatcher dispatcher = mDispatcher;
+        if (dispatcher.isPending() && (force || dispatcher.getDelay(now) <= 0)) {
+            float newPos = getPosition();
+            int newValue = getValue();
+            if (dispatcher.flush(newPos, newValue) && mOnPositionChangeListener != null) {
+                deliverPositionChanged(dispatcher.isPendingFromUser(), dispatcher.getPosition(),
+                        newPos, dispatcher.getValue(), newValue);
+            }
+        }
+
+        // 回调中可能改变滑块的个数，每次都重新读取
+        for (int i = 0; i < mThumbDispatchers.length; i++) {
+            PositionDispatcher thumbDispatcher = mThumbDispatchers[i];
+            if (thumbDispatcher.isPending() && (force || thumbDispatcher.getDelay(now) <= 0)) {
+                float newPos = mThumbPositions[i];
+                if (thumbDispatcher.flush(newPos, getThumbValue(newPos)) &&
+                        mOnThumbPositionChangeListener != null) {
+                    deliverThumbPositionChanged(i, thumbDispatcher.isPendingFromUser(),
+                            thumbDispatcher.getPosition(), newPos);
+                }
+            }
+        }
+    }
+
+    SliderGroup getGroup() {
+        return mGroup;
+    }
+
+    /**
+     * 是否正在拖动滑块。
+     */
+    boolean isDragging() {
+        return mIsDragging;
+    }
+
+    /**
+     * 由 {@link SliderGroup} 设置，位置改变时通知所属的组。
+     */
+    void setGroup(SliderGroup group, int index) {
+        mGroup = group;
+        mGroupIndex = index;
+    }
+
+    /**
+     * 订阅值的改变，在指定的 Executor 中接收。处理较慢时中间的值会被丢弃，只保留最新的值，
+     * 不会在 Executor 中堆积任务。订阅后会立即提交一次当前的值。
+     *
+     * @param executor    接收值的 Executor
+     * @param consumer    接收值的回调
+     * @param settledOnly 是否只接收拖动结束、动画停止后的值
+     * @return 订阅，用于取消
+     */
+    public ValueSubscription subscribeValues(Executor executor, ValueConsumer consumer,
+                                             boolean settledOnly) {
+        if (executor == null || consumer == null) {
+            throw new IllegalArgumentException("executor and consumer must not be null");
+        }
+
+        ValueSubscription subscription = new ValueSubscription(executor, consumer, settledOnly);
+        if (mValueSubscriptions == null) {
+            mValueSubscriptions = new ArrayList<ValueSubscription>(2);
+        }
+        mValueSubscriptions.add(subscription);
+        subscription.offer(getExactValue(), !mIsDragging && !mThumbMoveAnimator.isRunning());
+        return subscription;
+    }
+
+    /**
+     * 把值提交给所有订阅，同时移除已取消的订阅。
+     */
+    private void offerValue(float value, boolean settled) {
+        final ArrayList<ValueSubscription> subscriptions = mValueSubscriptions;
+        if (subscriptions == null) {
+            return;
+        }
+        for (int i = subscriptions.size() - 1; i >= 0; i--) {
+            ValueSubscription subscription = subscriptions.get(i);
+            if (subscription.isCancelled()) {
+                subscriptions.remove(i);
+            } else {
+                subscription.offer(value, settled);
+            }
+        }
+    }
+
+    /**
+     * 拖动结束或动画停止后，回调尚未分发的事件。
+     */
+    private void onPositionSettled() {
+        if (mBatchDepth == 0 && !mIsDragging && !mThumbMoveAnimator.isRunning()) {
+            offerValue(getExactValue(), true);
+            flushPendingDispatch();
+        }
+    }
+
+    /**
+     * 按照当前的回调方式分发某个滑块位置改变的事件。
+     */
+    private void dispatchThumbPositionChanged(int index, boolean fromUser, float oldPos,
+                                              float newPos) {
+        if (mBatchDepth > 0) {
+            mBatchFromUser |= fromUser;
+            return;
+        }
+        if (mOnThumbPositionChangeListener == null) {
+            return;
+        }
+
+        final PositionDispatcher dispatcher = mThumbDispatchers[index];
+        long now = SystemClock.uptimeMillis();
+        int result = dispatcher.offer(fromUser, newPos, getThumbValue(newPos), isMoving(), now);
+        if (result == PositionDispatcher.DELIVER) {
+            deliverThumbPositionChanged(index, fromUser,
+                    mDispatchMode == DISPATCH_MODE_ALWAYS ? oldPos : dispatcher.getPosition(),
+                    newPos);
+        } else if (result == PositionDispatcher.SCHEDULE) {
+            scheduleDispatch(dispatcher.getDelay(now));
+        }
+    }
+
+    private void deliverThumbPositionChanged(int index, boolean fromUser, float oldPos,
+                                             float newPos) {
+        mThumbDispatchers[index]
+                .onDelivered(newPos, getThumbValue(newPos), SystemClock.uptimeMillis());
+        mOnThumbPositionChangeListener
+                .onThumbPositionChanged(this, index, fromUser, oldPos, newPos);
+    }
+
+    private void deliverPositionChanged(boolean fromUser, float oldPos, float newPos,
+                                        int oldValue, int newValue) {
+        mDispatcher.onDelivered(newPos, newValue, SystemClock.uptimeMillis());
+
+        final SliderMetrics metrics = mMetrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        mOnPositionChangeListener
+                .onPositionChanged(this, fromUser, oldPos, newPos, oldValue, newValue);
+        if (metrics != null) {
+            metrics.onListenerDispatch(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int widthSize = MeasureSpec.getSize(widthMeasureSpec);
+        int widthMode = MeasureSpec.getMode(widthMeasureSpec);
+
+        int heightSize = MeasureSpec.getSize(heightMeasureSpec);
+        int heightMode = MeasureSpec.getMode(heightMeasureSpec);
+
+        if (widthMode == MeasureSpec.UNSPECIFIED) {
+            widthSize = getSuggestedMinimumWidth();
+        } else if (widthMode == MeasureSpec.AT_MOST) {
+            widthSize = Math.min(widthSize, getSuggestedMinimumWidth());
+        }
+
+        if (heightMode == MeasureSpec.UNSPECIFIED) {
+            heightSize = getSuggestedMinimumHeight();
+        } else if (heightMode == MeasureSpec.AT_MOST) {
+            heightSize = Math.min(heightSize, getSuggestedMinimumHeight());
+        }
+
+        setMeasuredDimension(widthSize, heightSize);
+    }
+
+    @Override
+    public int getSuggestedMinimumWidth() {
+        if (mThumbType == THUMB_TYPE_OVAL) {
+            return mThumbRadius * 4 + getPaddingLeft() + getPaddingRight();
+        } else {
+            return mThumbWidth * 2 + getPaddingLeft() + getPaddingRight();
+        }
+    }
+
+    @Override
+    public int getSuggestedMinimumHeight() {
+        final int height;
+        if (mThumbType == THUMB_TYPE_OVAL) {
+            height = mThumbRadius * 2 + getPaddingTop() + getPaddingBottom();
+        } else {
+            height = mThumbHeight + getPaddingTop() + getPaddingBottom();
+        }
+        return (height > mTrackSize ? height : mTrackSize);
+    }
+
+    @Override
+    public void onRtlPropertiesChanged(int layoutDirection) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            boolean rtl = layoutDirection == LAYOUT_DIRECTION_RTL;
+            if (mIsRtl != rtl) {
+                mIsRtl = rtl;
+                mTicksValid = false;
+                mTrackCacheValid = false;
+                if (mThumbLayer != null) {
+                    layoutThumbLayer();
+                    syncThumbLayer();
+                }
+                invalidate();
+            }
+        }
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        boolean changed = enabled != isEnabled();
+        if (changed) {
+            mTrackCacheValid = false;
+        }
+        super.setEnabled(enabled);
+        if (changed && mThumbLayer != null) {
+            mThumbLayer.invalidate();
+            mProgressLayer.invalidate();
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        updateFrameInterval();
+    }
+
+    @Override
+    protected void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        // 移动到其他屏幕时配置会改变
+        updateFrameInterval();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        if (mThumbMoveAnimator.isRunning()) {
+            mThumbMoveAnimator.stopAnimation();
+        }
+        getFrameClock().unregister(mVsyncTracker);
+        if (mGroup != null) {
+            mGroup.onSliderDetached(mGroupIndex);
+        }
+        flushPendingDispatch();
+        releaseTrackCache();
+        stopPreview();
+        if (mThumbLayer != null) {
+            removeThumbLayer();
+        }
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        super.onLayout(changed, left, top, right, bottom);
+        if (mThumbLayerEnabled) {
+            updateThumbLayer();
+        }
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        updateThumbLayerVisibility();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        int offset = (mThumbType == THUMB_TYPE_OVAL ? mThumbRadius : mThumbWidth / 2);
+        mDrawRect.left = getPaddingLeft() + offset;
+        mDrawRect.right = w - getPaddingRight() - offset;
+
+        int height = (mThumbType == THUMB_TYPE_OVAL ? mThumbRadius * 2 : mThumbHeight);
+        mDrawRect.top = (h - height) / 2f;
+        mDrawRect.bottom = mDrawRect.top + height;
+
+        mTrackGeometryValid = false;
+        mTicksValid = false;
+        mTrackCacheValid = false;
+        mTrackDataValid = false;
+        mTrackDataGeneration++;
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        super.onTouchEvent(event);
+
+        if (getParent() != null) {
+            getParent().requestDisallowInterceptTouchEvent(true);
+        }
+
+        if (!isEnabled()) {
+            return false;
+        }
+
+        float x = event.getX();
+        float y = event.getY();
+        if (mIsRtl) {
+            x = 2 * mDrawRect.centerX() - x;
+        }
+
+        int i = event.getAction();
+        if (i == MotionEvent.ACTION_DOWN) {
+            // 动画在图层上运行时先估算滑块当前的位置
+            mThumbMoveAnimator.syncLayerPosition();
+            int hitThumb = findThumbHit(x, y);
+            mIsDragging = hitThumb >= 0;
+            if (mIsDragging && mThumbMoveAnimator.isRunning()) {
+                // 抓住正在移动的滑块：停在当前绘制的位置。拖动已经开始，位置的改变不算停止
+                if (hitThumb == mActiveThumb) {
+                    setThumbPosition(hitThumb, mThumbPositions[hitThumb], false, true);
+                } else {
+                    mThumbMoveAnimator.stopAnimation();
+                }
+            }
+            if (mIsDragging) {
+                mActiveThumb = hitThumb;
+                mDragPosition = mThumbPositions[hitThumb];
+                if (mFlingEnabled) {
+                    if (mVelocityTracker == null) {
+                        mVelocityTracker = VelocityTracker.obtain();
+                    } else {
+                        mVelocityTracker.clear();
+                    }
+                    mVelocityTracker.addMovement(event);
+                }
+            }
+            mMemoX = x;
+            mMemoY = y;
+            mDragPredictor.reset(event.getEventTime());
+            if (mIsDragging && mTouchPrediction) {
+                // 拖动期间记录垂直同步的时间，用于计算下一帧显示的时间
+                updateFrameInterval();
+                mVsyncTracker.mFrameTimeNanos = 0;
+                getFrameClock().register(mVsyncTracker);
+            }
+            if (mIsDragging && mOnTrackingTouchListener != null) {
+                mOnTrackingTouchListener.onStartTrackingTouch(this);
+            }
+            if (mIsDragging) {
+                updatePreview();
+            }
+        } else if (i == MotionEvent.ACTION_MOVE) {
+            if (mIsDragging) {
+                if (mVelocityTracker != null) {
+                    mVelocityTracker.addMovement(event);
+                }
+                if (mStackedHit && x != mMemoX) {
+                    // 按下时正好点在重叠滑块的中心，向右拖动最后一个，向左拖动第一个
+                    mActiveThumb = SliderMath.stackEnd(mThumbPositions, mThumbCount,
+                            mActiveThumb, x - mMemoX);
+                    mStackedHit = false;
+                }
+                float oldDrawPos = getThumbDrawPosition();
+
+                // 依次处理批量的历史采样点，保证滑块在两端被截断时仍然跟随手指
+                // 拖动时累加未吸附的位置，步长较大时才能跨过相邻的刻度
+                float position = mDragPosition;
+                float lower = clampThumbPosition(mActiveThumb, 0f);
+                float upper = clampThumbPosition(mActiveThumb, 1f);
+                final int historySize = event.getHistorySize();
+                for (int h = 0; h <= historySize; h++) {
+                    float sampleX;
+                    long sampleTime;
+                    if (h < historySize) {
+                        sampleX = event.getHistoricalX(h);
+                        sampleTime = event.getHistoricalEventTime(h);
+                        if (mIsRtl) {
+                            sampleX = 2 * mDrawRect.centerX() - sampleX;
+                        }
+                    } else {
+                        sampleX = x;
+                        sampleTime = event.getEventTime();
+                    }
+
+                    float offset = (sampleX - mMemoX) / mDrawRect.width();
+                    position = Math.min(upper, Math.max(lower, position + offset));
+                    mDragPredictor.addSample(sampleX - mMemoX, sampleTime);
+                    mMemoX = sampleX;
+                }
+
+                if (mTouchPrediction) {
+                    float distance = mDragPredictor.predict(mVsyncTracker.mFrameTimeNanos,
+                            mFrameIntervalNanos, mPredictionMaxLookahead * NANOS_PER_MILLI,
+                            mPredictionMaxDistance);
+                    mPredictedOffset = distance / mDrawRect.width();
+                }
+
+                mDragPosition = position;
+                if (mMetrics != null && mPendingTouchTime == 0) {
+                    mPendingTouchTime = event.getEventTime();
+                }
+                float target = applyDetent(position);
+                if (target != position) {
+                    // 被吸住时滑块不动，不需要预测
+                    mPredictedOffset = 0;
+                }
+                setThumbPosition(mActiveThumb, target, false, true, oldDrawPos);
+                updatePreview();
+            }
+        } else if (i == MotionEvent.ACTION_UP) {
+            if (mIsDragging) {
+                mIsDragging = false;
+                clearPredictedOffset();
+                if (!fling(event)) {
+                    setPosition(getThumbPosition(mActiveThumb), true, true);
+                }
+                recycleVelocityTracker();
+                onStopTracking();
+                applyModelUpdate();
+            } else if (distanceSquared(mMemoX, mMemoY, x, y) <=
+                    (float) mTouchSlop * mTouchSlop) {
+                float position = Math.min(1f, Math.max(0f, (x - mDrawRect.left) / mDrawRect.width()));
+                setThumbPosition(findNearestThumb(position), position, true, true);
+            }
+        } else if (i == MotionEvent.ACTION_CANCEL) {
+            if (mIsDragging) {
+                mIsDragging = false;
+                clearPredictedOffset();
+                setPosition(getThumbPosition(mActiveThumb), true, true);
+                recycleVelocityTracker();
+                onStopTracking();
+                applyModelUpdate();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 拖动结束时，如果速度足够大就开始惯性滑动。
+     *
+     * @return 是否开始了惯性滑动
+     */
+    private boolean fling(MotionEvent event) {
+        if (mVelocityTracker == null || mDrawRect.width() <= 0) {
+            return false;
+        }
+
+        mVelocityTracker.addMovement(event);
+        mVelocityTracker.computeCurrentVelocity(1000, mMaxFlingVelocity);
+        float velocity = mVelocityTracker.getXVelocity();
+        if (mIsRtl) {
+            velocity = -velocity;
+        }
+        if (Math.abs(velocity) < mMinFlingVelocity) {
+            return false;
+        }
+
+        // 按摩擦力自然停止的位置，再吸附到步长并限制在可移动的范围内
+        float velocityPosition = velocity / mDrawRect.width();
+        float target = clampThumbPosition(mActiveThumb, snapToDetent(snapPosition(
+                ThumbCurve.projectFling(mDragPosition, velocityPosition, mFlingFriction))));
+        mThumbMoveAnimator.prepareFling();
+        setPosition(target, true, true);
+        return mThumbMoveAnimator.isRunning();
+    }
+
+    private void recycleVelocityTracker() {
+        if (mVelocityTracker != null) {
+            mVelocityTracker.recycle();
+            mVelocityTracker = null;
+        }
+    }
+
+    private void onStopTracking() {
+        stopPreview();
+        releaseDetent();
+        if (mOnTrackingTouchListener != null) {
+            mOnTrackingTouchListener.onStopTrackingTouch(this);
+        }
+        onPositionSettled();
+    }
+
+    private void clearPredictedOffset() {
+        if (mPredictedOffset != 0) {
+            float oldDrawPos = getThumbDrawPosition();
+            mPredictedOffset = 0;
+            invalidateThumbMove(oldDrawPos, mThumbPositions[mActiveThumb]);
+        }
+    }
+
+    /**
+     * 获取滑块绘制的位置，拖动预测开启时包含预测的偏移。
+     */
+    private float getThumbDrawPosition() {
+        return getThumbDrawPosition(mActiveThumb);
+    }
+
+    private float getThumbDrawPosition(int index) {
+        if (mPredictedOffset == 0 || index != mActiveThumb) {
+            return mThumbPositions[index];
+        }
+        return Math.min(1f, Math.max(0f, mThumbPositions[index] + mPredictedOffset));
+    }
+
+    private float distanceSquared(float x1, float y1, float x2, float y2) {
+        float dx = x1 - x2;
+        float dy = y1 - y2;
+        return dx * dx + dy * dy;
+    }
+
+    private int dp2px(float dpValue) {
+        float value = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, dpValue,
+                getContext().getResources().getDisplayMetrics());
+        return (int) (value + 0.5f);
+    }
+
+    /**
+     * 获取滑块在指定位置时的中心点横坐标（已处理 RTL）。
+     */
+    private float getThumbCenterX(float position) {
+        float x = mDrawRect.width() * position + mDrawRect.left;
+        if (mIsRtl) {
+            x = 2 * mDrawRect.centerX() - x;
+        }
+        return x;
+    }
+
+    /**
+     * 滑块从一个位置移动到另一个位置时，只重绘新旧滑块的区域以及两者之间的那段滑动条。
+     *
+     * @param fromPos 原来绘制的位置
+     * @param toPos   新的绘制位置
+     */
+    private void invalidateThumbMove(float fromPos, float toPos) {
+        if (fromPos == toPos) {
+            return;
+        }
+        if (mBatchDepth > 0) {
+            mBatchInvalidate = true;
+            return;
+        }
+        if (mThumbLayer != null) {
+            // 滑块和已填充的滑动条都在图层上，只需移动图层
+            syncThumbLayer();
+            return;
+        }
+
+        computeThumbMoveDirtyRect(fromPos, toPos, mTempRect);
+        if (mMetrics != null) {
+            mMetrics.onInvalidate(true);
+        }
+        invalidate((int) Math.floor(mTempRect.left), (int) Math.floor(mTempRect.top),
+                (int) Math.ceil(mTempRect.right), (int) Math.ceil(mTempRect.bottom));
+    }
+
+    private void computeThumbMoveDirtyRect(float fromPos, float toPos, RectF out) {
+        float fromX = getThumbCenterX(fromPos);
+        float toX = getThumbCenterX(toPos);
+        float y = mDrawRect.centerY();
+
+        // 与 drawSingleThumb 一致：未启用时矩形滑块绘制为两倍大小，启用状态改变时会整体重绘
+        float halfOfWidth;
+        float halfOfHeight;
+        if (mThumbType == THUMB_TYPE_OVAL) {
+            halfOfWidth = mThumbRadius;
+            halfOfHeight = mThumbRadius;
+        } else {
+            halfOfWidth = (isEnabled() ? mThumbWidth : mThumbWidth * 2) / 2f;
+            halfOfHeight = (isEnabled() ? mThumbHeight : mThumbHeight * 2) / 2f;
+        }
+        halfOfHeight = Math.max(halfOfHeight, mTrackSize / 2f);
+
+        // 多留出 1 像素给抗锯齿的边缘
+        out.left = Math.min(fromX, toX) - halfOfWidth - 1;
+        out.right = Math.max(fromX, toX) + halfOfWidth + 1;
+        out.top = y - halfOfHeight - 1;
+        out.bottom = y + halfOfHeight + 1;
+    }
+
+    /**
+     * 二分查找离指定位置最近的滑块。
+     *
+     * @param position 位置的百分比
+     * @return 滑块的索引
+     */
+    private int findNearestThumb(float position) {
+        return SliderMath.nearestIndex(mThumbPositions, mThumbCount, position);
+    }
+
+    /**
+     * 查找被点中的滑块。多个滑块重叠时按点中的位置在滑块中心的哪一侧选择，
+     * 正好点在中心时由第一次移动的方向决定。
+     *
+     * @return 滑块的索引，没有点中任何滑块时返回 -1
+     */
+    private int findThumbHit(float x, float y) {
+        float position = (x - mDrawRect.left) / mDrawRect.width();
+        int index = findNearestThumb(position);
+        if (!isThumbHit(mThumbPositions[index], x, y)) {
+            return -1;
+        }
+        float side = position - mThumbPositions[index];
+        index = SliderMath.stackEnd(mThumbPositions, mThumbCount, index, side);
+        mStackedHit = side == 0 && SliderMath.isStacked(mThumbPositions, mThumbCount, index);
+        return index;
+    }
+
+    private boolean isThumbHit(float position, float x, float y) {
+        float cx = mDrawRect.width() * position + mDrawRect.left;
+        float cy = mDrawRect.centerY();
+
+        if (mThumbType == THUMB_TYPE_OVAL) {
+            float max = Math.max(mEnlargeTouchRange, Math.max(mThumbRadius, getHeight() / 2));
+            return SliderMath.isInTouchRange(x, y, cx, cy, max, true);
+        } else {
+            int max = Math.max(mEnlargeTouchRange, Math.max(mThumbWidth, mThumbHeight));
+            return SliderMath.isInTouchRange(x, y, cx, cy, max, false);
+        }
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        final SliderMetrics metrics = mMetrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+
+        super.draw(canvas);
+
+        float x = getThumbCenterX(getThumbDrawPosition());
+        float y = mDrawRect.centerY();
+        int filledPrimaryColor = isEnabled() ? mProgressColor : mTrackColor;
+
+        if (!mTrackGeometryValid) {
+            getTrackPath(y);
+        }
+
+        drawTrackData(canvas);
+
+        if (mThumbLayer != null) {
+            drawLayerTrack(canvas, y);
+        } else if (mStaticTrackCache && drawCachedTrack(canvas, x, y)) {
+            // 滑动条已从缓存中绘制
+        } else if (mThumbCount > 1) {
+            drawMultiThumbTrack(canvas, y, filledPrimaryColor);
+        } else {
+            drawSingleThumbTrack(canvas, x, y, filledPrimaryColor);
+        }
+
+        if (mThumbCount > 1) {
+            drawMultiThumbs(canvas, y);
+        } else if (mThumbLayer == null) {
+            drawSingleThumb(canvas, x, y);
+        }
+
+        drawPreview(canvas);
+
+        if (metrics != null) {
+            metrics.onDraw(System.nanoTime() - start);
+            if (mPendingTouchTime != 0) {
+                metrics.onTouchToDraw(SystemClock.uptimeMillis() - mPendingTouchTime);
+                mPendingTouchTime = 0;
+            }
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        if (mBatchDepth > 0) {
+            mBatchInvalidate = true;
+            return;
+        }
+        if (mMetrics != null) {
+            mMetrics.onInvalidate(false);
+        }
+        if (mThumbLayer != null) {
+            // 颜色、启用状态等改变时重绘图层的内容，位置和大小只在改变时同步
+            mThumbLayer.invalidate();
+            mProgressLayer.invalidate();
+        }
+        super.invalidate();
+    }
+
+    @Override
+    public void invalidate(int l, int t, int r, int b) {
+        if (mBatchDepth > 0) {
+            mBatchInvalidate = true;
+            return;
+        }
+        super.invalidate(l, t, r, b);
+    }
+
+    @Override
+    public void requestLayout() {
+        if (mBatchDepth > 0) {
+            mBatchRequestLayout = true;
+            return;
+        }
+        super.requestLayout();
+    }
+
+    private void drawSingleThumbTrack(Canvas canvas, float x, float y, int filledPrimaryColor) {
+        // 两段滑动条的形状是相对于滑块中心预先生成的，这里只需平移并裁剪到滑动条的两端
+        boolean drawLeft;
+        boolean drawRight;
+        if (mTrackRadius - 1f < mTrackSize / 2f) {
+            drawLeft = x > mTrackLeft;
+            drawRight = x < mTrackRight;
+        } else {
+            drawLeft = x - mTrackRadius > mTrackLeft;
+            drawRight = x + mTrackRadius < mTrackRight;
+        }
+
+        int saveCount = canvas.save();
+        canvas.clipRect(mTrackLeft, 0, mTrackRight, getHeight());
+        canvas.translate(x, 0);
+        mPaint.setStyle(Paint.Style.FILL);
+        if (drawRight) {
+            mPaint.setColor(mIsRtl ? filledPrimaryColor : mTrackColor);
+            canvas.drawPath(mRightTrackPath, mPaint);
+        }
+        if (drawLeft) {
+            mPaint.setColor(mIsRtl ? mTrackColor : filledPrimaryColor);
+            canvas.drawPath(mLeftTrackPath, mPaint);
+        }
+        canvas.restoreToCount(saveCount);
+
+        // 次要区间只画在未填充的一侧，并让出滑块周围的缺口
+        float gap = mTrackRadius - 1f < mTrackSize / 2f ? 0 : mTrackRadius;
+        if (mIsRtl) {
+            drawSecondaryRanges(canvas, y, mTrackLeft, x - gap);
+        } else {
+            drawSecondaryRanges(canvas, y, x + gap, mTrackRight);
+        }
+
+        drawTicks(canvas, y);
+    }
+
+    private void drawSingleThumb(Canvas canvas, float x, float y) {
+        int thumbColor = isEnabled() ? mThumbColor : mTrackColor;
+        mPaint.setColor(thumbColor);
+        mPaint.setStyle(Paint.Style.FILL);
+
+        if (mThumbType == THUMB_TYPE_OVAL) {
+            float radius = isEnabled() ? mThumbRadius : mThumbRadius;
+            mPaint.setStyle(Paint.Style.FILL);
+            canvas.drawCircle(x, y, radius, mPaint);
+        } else if (mThumbType == THUMB_TYPE_RECTANGLE) {
+            float halfOfWidth = (isEnabled() ? mThumbWidth : mThumbWidth * 2) /
+                    2.f;
+            float halfOfHeight =
+                    (isEnabled() ? mThumbHeight : mThumbHeight * 2) / 2.f;
+
+            float l = x - halfOfWidth;
+            float t = y - halfOfHeight;
+            float r = x + halfOfWidth;
+            float b = y + halfOfHeight;
+
+            // 复用临时矩形，避免每帧分配对象
+            mTempRect.set(l, t, r, b);
+            canvas.drawRoundRect(mTempRect, mThumbRadius, mThumbRadius, mPaint);
+        }
+    }
+
+    /**
+     * 从缓存中绘制滑动条：先绘制未填充的滑动条，再绘制裁剪到进度范围内的已填充滑动条。
+     *
+     * @return 缓存不可用时返回 false
+     */
+    private boolean drawCachedTrack(Canvas canvas, float x, float y) {
+        if (!mTrackCacheValid && !buildTrackCache(y)) {
+            return false;
+        }
+
+        float fillStart;
+        float fillEnd;
+        if (mThumbCount > 1) {
+            float first = getThumbCenterX(getThumbDrawPosition(0));
+            float last = getThumbCenterX(getThumbDrawPosition(mThumbCount - 1));
+            fillStart = Math.min(first, last);
+            fillEnd = Math.max(first, last);
+        } else if (mIsRtl) {
+            fillStart = x;
+            fillEnd = mTrackRight;
+        } else {
+            fillStart = mTrackLeft;
+            fillEnd = x;
+        }
+
+        canvas.drawBitmap(mTrackCache, 0, mTrackCacheTop, null);
+        drawSecondaryRanges(canvas, y, mTrackLeft, mTrackRight);
+        if (fillEnd > fillStart) {
+            int saveCount = canvas.save();
+            canvas.clipRect(fillStart, mTrackCacheTop, fillEnd,
+                    mTrackCacheTop + mTrackCache.getHeight());
+            canvas.drawBitmap(mProgressCache, 0, mTrackCacheTop, null);
+            canvas.restoreToCount(saveCount);
+        }
+        return true;
+    }
+
+    /**
+     * 把未填充和已填充两种颜色的滑动条（包括刻度）分别绘制到两个只有滑动条高度的位图中。
+     * 尺寸、颜色、启用状态、RTL、步长改变后重新生成。
+     */
+    private boolean buildTrackCache(float y) {
+        int width = getWidth();
+        int height = (int) Math.ceil(mTrackSize) + 2;
+        if (width <= 0 || mTrackSize <= 0) {
+            return false;
+        }
+
+        if (mTrackCache == null || mTrackCache.getWidth() != width ||
+                mTrackCache.getHeight() != height) {
+            releaseTrackCache();
+            mTrackCache = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            mProgressCache = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        } else {
+            mTrackCache.eraseColor(Color.TRANSPARENT);
+            mProgressCache.eraseColor(Color.TRANSPARENT);
+        }
+
+        mTrackCacheTop = Math.round(y - height / 2f);
+        float halfStroke = mTrackSize / 2f;
+        int filledPrimaryColor = isEnabled() ? mProgressColor : mTrackColor;
+
+        mPaint.setStyle(Paint.Style.FILL);
+        drawTrackCache(mTrackCache, mTrackColor, y, halfStroke);
+        drawTrackCache(mProgressCache, filledPrimaryColor, y, halfStroke);
+
+        mTrackCacheValid = true;
+        return true;
+    }
+
+    /**
+     * 用同一个 Canvas 依次绘制两个位图，绘制后不再持有位图。
+     */
+    private void drawTrackCache(Bitmap bitmap, int color, float y, float halfStroke) {
+        if (mTrackCacheCanvas == null) {
+            mTrackCacheCanvas = new Canvas();
+        }
+        final Canvas canvas = mTrackCacheCanvas;
+        canvas.setBitmap(bitmap);
+        int saveCount = canvas.save();
+        canvas.translate(0, -mTrackCacheTop);
+        mPaint.setColor(color);
+        canvas.drawRect(mTrackLeft, y - halfStroke, mTrackRight, y + halfStroke, mPaint);
+        drawTicks(canvas, y);
+        canvas.restoreToCount(saveCount);
+        canvas.setBitmap(null);
+    }
+
+    private void releaseTrackCache() {
+        mTrackCache = null;
+        mProgressCache = null;
+        mTrackCacheValid = false;
+    }
+
+    /**
+     * 设置是否缓存滑动条中静态的部分。开启后滑动条和刻度只绘制一次到位图中，
+     * 每帧只需合成缓存、裁剪后的进度以及滑块，适合很宽的滑动条。
+     * 开启后滑块下方的滑动条不再留出缺口，滑块应该是不透明的。
+     *
+     * @param enabled 是否开启缓存
+     */
+    public void setStaticTrackCacheEnabled(boolean enabled) {
+        if (mStaticTrackCache != enabled) {
+            mStaticTrackCache = enabled;
+            if (!enabled) {
+                releaseTrackCache();
+            }
+            invalidate();
+        }
+    }
+
+    /**
+     * 设置是否把滑块和已填充的滑动条放到父布局 overlay 中单独的视图上。开启后滑块的动画
+     * 只改变这两个视图的平移和缩放，动画期间它们使用硬件图层，每帧不再重绘控件和图层的内容。
+     * 动画仍由主线程逐帧计算，主线程繁忙时动画同样会卡住。动画结束后再与 {@link #getPosition()} 同步。
+     * <p>
+     * 只对单个滑块、硬件加速且父布局是 ViewGroup 的情况生效（API 18 以上），其他情况仍按原来的方式绘制。
+     * 开启后滑动条按矩形绘制，已填充的一段不显示刻度，控件本身的平移、缩放和透明度不会作用到图层上。
+     *
+     * @param enabled 是否开启
+     */
+    public void setThumbLayerEnabled(boolean enabled) {
+        if (mThumbLayerEnabled != enabled) {
+            mThumbLayerEnabled = enabled;
+            updateThumbLayer();
+        }
+    }
+
+    /**
+     * 根据当前的状态添加、移除图层，并更新图层的位置。
+     */
+    private void updateThumbLayer() {
+        boolean active = mThumbLayerEnabled && mThumbCount == 1
+                && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2
+                && getParent() instanceof ViewGroup && getWindowToken() != null
+                && isHardwareAccelerated() && getWidth() > 0;
+        if (!active) {
+            if (mThumbLayer != null) {
+                removeThumbLayer();
+                invalidate();
+            }
+            return;
+        }
+
+        if (mThumbLayer != null && mThumbLayerHost != getParent()) {
+            removeThumbLayer();
+        }
+        if (mThumbLayer == null) {
+            mThumbLayerHost = (ViewGroup) getParent();
+            mProgressLayer = new ThumbLayer(getContext(), true);
+            mThumbLayer = new ThumbLayer(getContext(), false);
+            mThumbLayerHost.getOverlay().add(mProgressLayer);
+            mThumbLayerHost.getOverlay().add(mThumbLayer);
+            updateThumbLayerVisibility();
+            super.invalidate();
+        }
+        layoutThumbLayer();
+        syncThumbLayer();
+    }
+
+    private void removeThumbLayer() {
+        if (mThumbMoveAnimator.isRunning()) {
+            mThumbMoveAnimator.stopAnimation();
+        }
+        mThumbLayerHost.getOverlay().remove(mThumbLayer);
+        mThumbLayerHost.getOverlay().remove(mProgressLayer);
+        mThumbLayerHost = null;
+        mThumbLayer = null;
+        mProgressLayer = null;
+    }
+
+    private void updateThumbLayerVisibility() {
+        if (mThumbLayer != null) {
+            int visibility = isShown() ? VISIBLE : INVISIBLE;
+            mThumbLayer.setVisibility(visibility);
+            mProgressLayer.setVisibility(visibility);
+        }
+    }
+
+    /**
+     * 按控件在父布局中的位置摆放图层。滑块图层放在位置 0 处，已填充的滑动条铺满整个滑动条，
+     * 移动时只改变平移和横向缩放。
+     */
+    private void layoutThumbLayer() {
+        float y = mDrawRect.centerY();
+        if (!mTrackGeometryValid) {
+            getTrackPath(y);
+        }
+
+        float halfOfWidth = (mThumbType == THUMB_TYPE_OVAL ? mThumbRadius : mThumbWidth);
+        float halfOfHeight = (mThumbType == THUMB_TYPE_OVAL ? mThumbRadius : mThumbHeight);
+        float cx = getLeft() + getThumbCenterX(0);
+        float cy = getTop() + y;
+        mThumbLayer.layout((int) Math.floor(cx - halfOfWidth - 1),
+                (int) Math.floor(cy - halfOfHeight - 1),
+                (int) Math.ceil(cx + halfOfWidth + 1), (int) Math.ceil(cy + halfOfHeight + 1));
+
+        float halfStroke = mTrackSize / 2f;
+        mProgressLayer.layout((int) Math.floor(getLeft() + mTrackLeft),
+                (int) Math.floor(cy - halfStroke), (int) Math.ceil(getLeft() + mTrackRight),
+                (int) Math.ceil(cy + halfStroke));
+        mProgressLayer.setPivotX(mIsRtl ? mProgressLayer.getWidth() : 0);
+        mProgressLayer.setPivotY(0);
+    }
+
+    /**
+     * 把滑块当前的位置同步到图层上。动画在图层上运行时由动画负责。
+     */
+    private void syncThumbLayer() {
+        if (mThumbLayer == null || mThumbMoveAnimator.isOnLayer()) {
+            return;
+        }
+        float position = getThumbDrawPosition(0);
+        mThumbLayer.setTranslationX(getThumbLayerTranslation(position));
+        mProgressLayer.setScaleX(getProgressLayerScale(position));
+    }
+
+    private float getThumbLayerTranslation(float position) {
+        return getThumbCenterX(position) - getThumbCenterX(0);
+    }
+
+    private float getProgressLayerScale(float position) {
+        int width = mProgressLayer.getWidth();
+        if (width <= 0) {
+            return 0;
+        }
+        float left = mProgressLayer.getLeft() - getLeft();
+        float x = getThumbCenterX(position);
+        float fill = mIsRtl ? left + width - x : x - left;
+        return Math.min(1f, Math.max(0f, fill / width));
+    }
+
+    /**
+     * 图层开启时控件只绘制未填充的滑动条，已填充的部分和滑块由图层绘制。
+     */
+    private void drawLayerTrack(Canvas canvas, float y) {
+        float halfStroke = mTrackSize / 2f;
+        mPaint.setStyle(Paint.Style.FILL);
+        mPaint.setColor(mTrackColor);
+        canvas.drawRect(mTrackLeft, y - halfStroke, mTrackRight, y + halfStroke, mPaint);
+        drawSecondaryRanges(canvas, y, mTrackLeft, mTrackRight);
+        drawTicks(canvas, y);
     }
 
-    @Override
-    public int getSuggestedMinimumWidth() {
-        if (mThumbType == THUMB_TYPE_OVAL) {
-            return mThumbRadius * 4 + getPaddingLeft() + getPaddingRight();
-        } else {
-            return mThumbWidth * 2 + getPaddingLeft() + getPaddingRight();
+    /**
+     * 绘制滑动条后方的数据，每列像素一条竖线，一次 drawLines 绘制。
+     */
+    private void drawTrackData(Canvas canvas) {
+        if (mTrackData == null || mTrackData.size() == 0) {
+            return;
+        }
+        if (!mTrackDataValid) {
+            updateTrackData();
+        }
+        if (mTrackDataLineCount == 0) {
+            return;
         }
+
+        mPaint.setColor(mTrackDataColor);
+        mPaint.setStyle(Paint.Style.STROKE);
+        mPaint.setStrokeWidth(1);
+        canvas.drawLines(mTrackDataLines, 0, mTrackDataLineCount * 4, mPaint);
+        mPaint.setStrokeWidth(0);
+        mPaint.setStyle(Paint.Style.FILL);
     }
 
-    @Override
-    public int getSuggestedMinimumHeight() {
-        final int height;
-        if (mThumbType == THUMB_TYPE_OVAL) {
-            height = mThumbRadius * 2 + getPaddingTop() + getPaddingBottom();
-        } else {
-            height = mThumbHeight + getPaddingTop() + getPaddingBottom();
+    private void updateTrackData() {
+        final int buckets = (int) mDrawRect.width();
+        if (buckets <= 0) {
+            mTrackDataLineCount = 0;
+            mTrackDataValid = true;
+            return;
         }
-        return (height > mTrackSize ? height : mTrackSize);
-    }
 
-    @Override
-    public void onRtlPropertiesChanged(int layoutDirection) {
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
-            boolean rtl = layoutDirection == LAYOUT_DIRECTION_RTL;
-            if (mIsRtl != rtl) {
-                mIsRtl = rtl;
-                invalidate();
+        final Executor executor = mTrackDataExecutor;
+        if (executor == null) {
+            if (mTrackDataMin == null || mTrackDataMin.length < buckets) {
+                mTrackDataMin = new float[buckets];
+                mTrackDataMax = new float[buckets];
             }
+            mTrackData.downsample(buckets, mTrackDataMin, mTrackDataMax);
+            buildTrackDataLines(mTrackDataMin, mTrackDataMax, buckets,
+                    mTrackData.getMin(), mTrackData.getMax());
+            mTrackDataValid = true;
+            return;
+        }
+
+        // 同一时间只有一个后台任务，完成后如果数据又变了再计算最新的
+        if (mTrackDataInFlight) {
+            return;
         }
+        mTrackDataInFlight = true;
+        final int generation = mTrackDataGeneration;
+        final int dataSet = mTrackDataSet;
+        final WaveformData snapshot = mTrackData.snapshot();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final float[] min = new float[buckets];
+                final float[] max = new float[buckets];
+                snapshot.downsample(buckets, min, max);
+                getMainHandler().post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onTrackDataDownsampled(generation, dataSet, snapshot, buckets, min, max);
+                    }
+                });
+            }
+        });
     }
 
-    @Override
-    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
-        int offset = (mThumbType == THUMB_TYPE_OVAL ? mThumbRadius : mThumbWidth / 2);
-        mDrawRect.left = getPaddingLeft() + offset;
-        mDrawRect.right = w - getPaddingRight() - offset;
+    private void onTrackDataDownsampled(int generation, int dataSet, WaveformData snapshot,
+                                        int buckets, float[] min, float[] max) {
+        mTrackDataInFlight = false;
+        if (mTrackData == null) {
+            return;
+        }
 
-        int height = (mThumbType == THUMB_TYPE_OVAL ? mThumbRadius * 2 : mThumbHeight);
-        mDrawRect.top = (h - height) / 2f;
-        mDrawRect.bottom = mDrawRect.top + height;
+        // 尺寸没变时即使又追加了数据也先显示这次的结果；数据被替换时丢弃，不显示旧的波形
+        if (buckets == (int) mDrawRect.width() && dataSet == mTrackDataSet) {
+            buildTrackDataLines(min, max, buckets, snapshot.getMin(), snapshot.getMax());
+            if (generation == mTrackDataGeneration) {
+                mTrackDataValid = true;
+            }
+        }
+        invalidate();
     }
 
-    @Override
-    public boolean onTouchEvent(MotionEvent event) {
-        super.onTouchEvent(event);
+    /**
+     * 把每列的最小值和最大值转换成竖线的坐标。纵向铺满去掉内边距后的高度，并包含 0 所在的基线。
+     */
+    private void buildTrackDataLines(float[] min, float[] max, int buckets,
+                                     float dataMin, float dataMax) {
+        if (mTrackDataLines == null || mTrackDataLines.length < buckets * 4) {
+            mTrackDataLines = new float[buckets * 4];
+        }
 
-        if (getParent() != null) {
-            getParent().requestDisallowInterceptTouchEvent(true);
+        float top = getPaddingTop();
+        float bottom = getHeight() - getPaddingBottom();
+        float low = Math.min(dataMin, 0);
+        float high = Math.max(dataMax, 0);
+        float scale = high > low ? (bottom - top) / (high - low) : 0;
+
+        final float[] lines = mTrackDataLines;
+        for (int b = 0; b < buckets; b++) {
+            float x = mIsRtl ? mDrawRect.right - b - 0.5f : mDrawRect.left + b + 0.5f;
+            lines[b * 4] = x;
+            lines[b * 4 + 1] = bottom - (Math.min(min[b], 0) - low) * scale;
+            lines[b * 4 + 2] = x;
+            lines[b * 4 + 3] = bottom - (Math.max(max[b], 0) - low) * scale;
         }
+        mTrackDataLineCount = buckets;
+    }
 
-        if (!isEnabled()) {
-            return false;
+    /**
+     * 绘制次要区间。相邻区间之间的间隔不足 1 像素时合并成一个矩形，
+     * 因此绘制的矩形数量不会超过滑动条宽度的像素数，与区间的数量无关。
+     * 只有与裁剪范围重叠的区间需要绘制：二分查找第一个，超出裁剪范围后停止。
+     */
+    private void drawSecondaryRanges(Canvas canvas, float y, float clipLeft, float clipRight) {
+        final IntervalSet ranges = mSecondaryRanges;
+        int size = ranges.size();
+        float width = mDrawRect.width();
+        if (size == 0 || width <= 0 || clipRight <= clipLeft) {
+            return;
         }
 
-        float x = event.getX();
-        float y = event.getY();
+        // 裁剪范围换算成距离滑动条起点的像素数
+        float clipStart;
+        float clipEnd;
         if (mIsRtl) {
-            x = 2 * mDrawRect.centerX() - x;
+            clipStart = mDrawRect.right - clipRight;
+            clipEnd = mDrawRect.right - clipLeft;
+        } else {
+            clipStart = clipLeft - mDrawRect.left;
+            clipEnd = clipRight - mDrawRect.left;
+        }
+        if (clipEnd < 0 || clipStart > width) {
+            return;
+        }
+        // 多找 1 像素，与裁剪范围前面的区间合并的结果保持不变
+        int first = ranges.lowerBoundOfEnds(
+                positionToValue(clampPosition((clipStart - 1f) / width)));
+        if (first >= size) {
+            return;
         }
 
-        int i = event.getAction();
-        if (i == MotionEvent.ACTION_DOWN) {
-            mIsDragging = isThumbHit(x, y) && !mThumbMoveAnimator.isRunning();
-            mMemoPoint.set(x, y);
-        } else if (i == MotionEvent.ACTION_MOVE) {
-            if (mIsDragging) {
-                float offset = (x - mMemoPoint.x) / mDrawRect.width();
-                float position = Math.min(1f, Math.max(0f, mThumbPosition + offset));
-                setPosition(position, false, true);
-                mMemoPoint.x = x;
-                invalidate();
-            }
-        } else if (i == MotionEvent.ACTION_UP) {
-            if (mIsDragging) {
-                mIsDragging = false;
-                setPosition(getPosition(), true, true);
-            } else if (distance(mMemoPoint.x, mMemoPoint.y, x, y) <= mTouchSlop) {
-                float position = Math.min(1f, Math.max(0f, (x - mDrawRect.left) / mDrawRect.width()));
-                setPosition(position, true, true);
+        float halfStroke = mTrackSize / 2f;
+        mPaint.setStyle(Paint.Style.FILL);
+        mPaint.setColor(mSecondaryColor);
+
+        // 在像素坐标上合并，runStart/runEnd 是当前待绘制的一段距离滑动条起点的像素数
+        float runStart = clampPosition(valueToPosition(ranges.getStart(first))) * width;
+        float runEnd = clampPosition(valueToPosition(ranges.getEnd(first))) * width;
+        for (int i = first + 1; i < size && runEnd <= clipEnd; i++) {
+            float start = clampPosition(valueToPosition(ranges.getStart(i))) * width;
+            if (start > clipEnd) {
+                break;
             }
-        } else if (i == MotionEvent.ACTION_CANCEL) {
-            if (mIsDragging) {
-                mIsDragging = false;
-                setPosition(getPosition(), true, true);
+            if (start - runEnd < 1f) {
+                runEnd = Math.max(runEnd, clampPosition(valueToPosition(ranges.getEnd(i))) * width);
+                continue;
             }
+            drawSecondaryRun(canvas, runStart, runEnd, y, halfStroke, clipLeft, clipRight);
+            runStart = start;
+            runEnd = clampPosition(valueToPosition(ranges.getEnd(i))) * width;
         }
-        return true;
+        drawSecondaryRun(canvas, runStart, runEnd, y, halfStroke, clipLeft, clipRight);
     }
 
-    private double distance(float x1, float y1, float x2, float y2) {
-        return Math.sqrt(Math.pow(x1 - x2, 2) + Math.pow(y1 - y2, 2));
+    private void drawSecondaryRun(Canvas canvas, float runStart, float runEnd, float y,
+                                  float halfStroke, float clipLeft, float clipRight) {
+        float left;
+        float right;
+        if (mIsRtl) {
+            left = mDrawRect.right - runEnd;
+            right = mDrawRect.right - runStart;
+        } else {
+            left = mDrawRect.left + runStart;
+            right = mDrawRect.left + runEnd;
+        }
+        left = Math.max(left, clipLeft);
+        right = Math.min(right, clipRight);
+        if (right > left) {
+            canvas.drawRect(left, y - halfStroke, right, y + halfStroke, mPaint);
+        }
     }
 
-    private int dp2px(float dpValue) {
-        float value = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, dpValue,
-                getContext().getResources().getDisplayMetrics());
-        return (int) (value + 0.5f);
+    /**
+     * 用一次 drawPoints 绘制所有刻度。
+     */
+    private void drawTicks(Canvas canvas, float y) {
+        if (!mShowTicks || mStepSize <= 0) {
+            return;
+        }
+
+        if (!mTicksValid) {
+            computeTickPoints(y);
+        }
+        if (mTickCount == 0) {
+            return;
+        }
+
+        mPaint.setColor(mTickColor);
+        mPaint.setStyle(Paint.Style.STROKE);
+        mPaint.setStrokeCap(Paint.Cap.ROUND);
+        mPaint.setStrokeWidth(mTrackSize);
+        canvas.drawPoints(mTickPoints, 0, mTickCount * 2, mPaint);
+        mPaint.setStrokeWidth(0);
+        mPaint.setStrokeCap(Paint.Cap.BUTT);
+        mPaint.setStyle(Paint.Style.FILL);
     }
 
-    private boolean isThumbHit(float x, float y) {
-        float cx = mDrawRect.width() * mThumbPosition + mDrawRect.left;
-        float cy = mDrawRect.centerY();
+    /**
+     * 预先计算所有刻度的坐标，只在尺寸、范围、步长改变后重新计算。
+     * 刻度过密时按固定间隔跳过一部分，保证绘制的刻度数量不超过像素能区分的数量。
+     */
+    private void computeTickPoints(float y) {
+        mTicksValid = true;
+        mTickCount = 0;
 
-        if (mThumbType == THUMB_TYPE_OVAL) {
-            float max = Math.max(mEnlargeTouchRange, Math.max(mThumbRadius, getHeight() / 2));
-            return x >= cx - max && x <= cx + max && y >= cy - max && y <= cy + max;
-        } else {
-            int max = Math.max(mEnlargeTouchRange, Math.max(mThumbWidth, mThumbHeight));
-            return x >= cx - max && x <= cx + max && y >= cy - max && y < cy + max;
+        int range = mMaxValue - mMinValue;
+        float width = mDrawRect.width();
+        if (range <= 0 || width <= 0) {
+            return;
         }
-    }
 
-    @Override
-    public void draw(Canvas canvas) {
-        super.draw(canvas);
+        int steps = (range + mStepSize - 1) / mStepSize;
+        float spacing = width * mStepSize / range;
+        float minSpacing = Math.max(mTrackSize * 2, 1);
+        int skip = spacing >= minSpacing ? 1 : (int) Math.ceil(minSpacing / spacing);
 
-        float x = mDrawRect.width() * mThumbPosition + mDrawRect.left;
-        if (mIsRtl) {
-            x = 2 * mDrawRect.centerX() - x;
+        int count = steps / skip + 1;
+        if (steps % skip != 0) {
+            count++;
+        }
+        if (mTickPoints == null || mTickPoints.length < count * 2) {
+            mTickPoints = new float[count * 2];
         }
-        float y = mDrawRect.centerY();
-        int filledPrimaryColor = isEnabled() ? mProgressColor : mTrackColor;
 
-        float trackRadius = (mThumbType == THUMB_TYPE_OVAL ? mThumbRadius : mThumbWidth / 2.f);
-        getTrackPath(x, y, trackRadius);
-        mPaint.setStyle(Paint.Style.FILL);
-        mPaint.setColor(mIsRtl ? filledPrimaryColor : mTrackColor);
-        canvas.drawPath(mRightTrackPath, mPaint);
-        mPaint.setColor(mIsRtl ? mTrackColor : filledPrimaryColor);
-        canvas.drawPath(mLeftTrackPath, mPaint);
+        float stepPosition = (float) mStepSize / range;
+        for (int n = 0; n <= steps; n += skip) {
+            if (mScaleTable != null) {
+                addTickPoint(valueToPosition(mMinValue + n * mStepSize), y);
+            } else {
+                addTickPoint(Math.min(1f, n * stepPosition), y);
+            }
+        }
+        if (steps % skip != 0) {
+            addTickPoint(1f, y);
+        }
+    }
+
+    private void addTickPoint(float position, float y) {
+        mTickPoints[mTickCount * 2] = getThumbCenterX(position);
+        mTickPoints[mTickCount * 2 + 1] = y;
+        mTickCount++;
+    }
+
+    /**
+     * 绘制多个滑块时的滑动条：整条滑动条，以及第一个和最后一个滑块之间的进度。
+     */
+    private void drawMultiThumbTrack(Canvas canvas, float y, int filledPrimaryColor) {
+        float halfStroke = mTrackSize / 2f;
+        float first = getThumbCenterX(getThumbDrawPosition(0));
+        float last = getThumbCenterX(getThumbDrawPosition(mThumbCount - 1));
 
-        int thumbColor = isEnabled() ? mThumbColor : mTrackColor;
-        mPaint.setColor(thumbColor);
         mPaint.setStyle(Paint.Style.FILL);
+        mPaint.setColor(mTrackColor);
+        canvas.drawRect(mTrackLeft, y - halfStroke, mTrackRight, y + halfStroke, mPaint);
+        drawSecondaryRanges(canvas, y, mTrackLeft, mTrackRight);
+        mPaint.setColor(filledPrimaryColor);
+        canvas.drawRect(Math.min(first, last), y - halfStroke, Math.max(first, last),
+                y + halfStroke, mPaint);
+
+        drawTicks(canvas, y);
+    }
 
+    /**
+     * 一次绘制所有滑块。
+     */
+    private void drawMultiThumbs(Canvas canvas, float y) {
+        mPaint.setColor(isEnabled() ? mThumbColor : mTrackColor);
         if (mThumbType == THUMB_TYPE_OVAL) {
-            float radius = isEnabled() ? mThumbRadius : mThumbRadius;
+            // 圆形滑块用圆头的点一次绘制
+            for (int i = 0; i < mThumbCount; i++) {
+                mThumbPoints[i * 2] = getThumbCenterX(getThumbDrawPosition(i));
+                mThumbPoints[i * 2 + 1] = y;
+            }
+            mPaint.setStyle(Paint.Style.STROKE);
+            mPaint.setStrokeCap(Paint.Cap.ROUND);
+            mPaint.setStrokeWidth(mThumbRadius * 2);
+            canvas.drawPoints(mThumbPoints, 0, mThumbCount * 2, mPaint);
+            mPaint.setStrokeWidth(0);
+            mPaint.setStrokeCap(Paint.Cap.BUTT);
             mPaint.setStyle(Paint.Style.FILL);
-            canvas.drawCircle(x, y, radius, mPaint);
-        } else if (mThumbType == THUMB_TYPE_RECTANGLE) {
-            float halfOfWidth = (isEnabled() ? mThumbWidth : mThumbWidth * 2) /
-                    2.f;
-            float halfOfHeight =
-                    (isEnabled() ? mThumbHeight : mThumbHeight * 2) / 2.f;
-
-            float l = x - halfOfWidth;
-            float t = y - halfOfHeight;
-            float r = x + halfOfWidth;
-            float b = y + halfOfHeight;
-
-            canvas.drawRoundRect(new RectF(l, t, r, b), mThumbRadius, mThumbRadius, mPaint);
+        } else {
+            float halfOfWidth = (isEnabled() ? mThumbWidth : mThumbWidth * 2) / 2.f;
+            float halfOfHeight = (isEnabled() ? mThumbHeight : mThumbHeight * 2) / 2.f;
+            for (int i = 0; i < mThumbCount; i++) {
+                float x = getThumbCenterX(getThumbDrawPosition(i));
+                mTempRect.set(x - halfOfWidth, y - halfOfHeight, x + halfOfWidth,
+                        y + halfOfHeight);
+                canvas.drawRoundRect(mTempRect, mThumbRadius, mThumbRadius, mPaint);
+            }
         }
     }
 
-    private void getTrackPath(float x, float y, float radius) {
+    /**
+     * 生成滑动条两段的形状。形状以滑块中心为原点，只依赖尺寸和样式，
+     * 因此只在尺寸或样式改变后重新生成一次，绘制时平移到滑块位置即可。
+     *
+     * @param y 滑动条中心的纵坐标
+     */
+    private void getTrackPath(float y) {
         float halfStroke = mTrackSize / 2f;
+        float radius = (mThumbType == THUMB_TYPE_OVAL ? mThumbRadius : mThumbWidth / 2.f);
 
         mLeftTrackPath.reset();
         mRightTrackPath.reset();
 
         final float left = (mThumbType == THUMB_TYPE_OVAL ? mDrawRect.left : 0);
         final float right = (mThumbType == THUMB_TYPE_OVAL ? mDrawRect.right : getWidth());
-        if (radius - 1f < halfStroke) {
-            if (x > left) {
-                mLeftTrackPath.moveTo(left, y - halfStroke);
-                mLeftTrackPath.lineTo(x, y - halfStroke);
-                mLeftTrackPath.lineTo(x, y + halfStroke);
-                mLeftTrackPath.lineTo(left, y + halfStroke);
-                mLeftTrackPath.close();
-            }
 
-            if (x < right) {
-                mRightTrackPath.moveTo(right, y + halfStroke);
-                mRightTrackPath.lineTo(x, y + halfStroke);
-                mRightTrackPath.lineTo(x, y - halfStroke);
-                mRightTrackPath.lineTo(right, y - halfStroke);
-                mRightTrackPath.close();
-            }
+        // 滑块在任何位置时，平移后的形状都要能覆盖到滑动条的两端，超出部分由裁剪去掉
+        final float leftEnd = left - right - 1f;
+        final float rightEnd = right - left + 1f;
+        if (radius - 1f < halfStroke) {
+            mLeftTrackPath.moveTo(leftEnd, y - halfStroke);
+            mLeftTrackPath.lineTo(0, y - halfStroke);
+            mLeftTrackPath.lineTo(0, y + halfStroke);
+            mLeftTrackPath.lineTo(leftEnd, y + halfStroke);
+            mLeftTrackPath.close();
+
+            mRightTrackPath.moveTo(rightEnd, y + halfStroke);
+            mRightTrackPath.lineTo(0, y + halfStroke);
+            mRightTrackPath.lineTo(0, y - halfStroke);
+            mRightTrackPath.lineTo(rightEnd, y - halfStroke);
+            mRightTrackPath.close();
         } else {
-            mTempRect.set(x - radius + 1f, y - radius + 1f, x + radius - 1f, y + radius - 1f);
+            mTempRect.set(-radius + 1f, y - radius + 1f, radius - 1f, y + radius - 1f);
             float angle = (float) (Math.asin(halfStroke / (radius - 1f)) / Math.PI * 180);
 
-            if (x - radius > left) {
-                mLeftTrackPath.moveTo(left, y - halfStroke);
-                mLeftTrackPath.arcTo(mTempRect, 180 + angle, -angle * 2);
-                mLeftTrackPath.lineTo(left, y + halfStroke);
-                mLeftTrackPath.close();
-            }
+            mLeftTrackPath.moveTo(leftEnd, y - halfStroke);
+            mLeftTrackPath.arcTo(mTempRect, 180 + angle, -angle * 2);
+            mLeftTrackPath.lineTo(leftEnd, y + halfStroke);
+            mLeftTrackPath.close();
 
-            if (x + radius < right) {
-                mRightTrackPath.moveTo(right, y - halfStroke);
-                mRightTrackPath.arcTo(mTempRect, -angle, angle * 2);
-                mRightTrackPath.lineTo(right, y + halfStroke);
-                mRightTrackPath.close();
+            mRightTrackPath.moveTo(rightEnd, y - halfStroke);
+            mRightTrackPath.arcTo(mTempRect, -angle, angle * 2);
+            mRightTrackPath.lineTo(rightEnd, y + halfStroke);
+            mRightTrackPath.close();
+        }
+
+        mTrackLeft = left;
+        mTrackRight = right;
+        mTrackRadius = radius;
+        mTrackGeometryValid = true;
+    }
+
+    /**
+     * 根据当前屏幕的刷新率更新每帧的时长。
+     */
+    private void updateFrameInterval() {
+        long interval = DEFAULT_FRAME_INTERVAL;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1 && getDisplay() != null) {
+            float refreshRate = getDisplay().getRefreshRate();
+            if (refreshRate > 0) {
+                interval = (long) (1000000000L / refreshRate);
             }
         }
+        mFrameIntervalNanos = interval;
+    }
+
+    /**
+     * 拖动预测开启时记录每一帧垂直同步的时间，拖动结束后自动从帧时钟移除。
+     */
+    private class VsyncTracker extends FrameClock.Client {
+
+        long mFrameTimeNanos;
+
+        @Override
+        boolean onFrame(long frameTimeNanos) {
+            mFrameTimeNanos = frameTimeNanos;
+            return mIsDragging && mTouchPrediction;
+        }
     }
 
-    private class ThumbMoveAnimator implements Runnable {
+    /**
+     * 滑块移动动画。由所有滑动条共用的 {@link FrameClock} 驱动，跟随屏幕刷新率，
+     * 并使用帧时间戳计算进度，每帧最多更新一次位置。
+     * <p>
+     * 动画进行中再次设置目标时不会重新开始，而是从当前的位置和速度平滑地转向新的目标。
+     */
+    private class ThumbMoveAnimator extends FrameClock.Client
+            implements Choreographer.FrameCallback {
 
+        final ThumbCurve mCurve = new ThumbCurve() {
+            @Override
+            float interpolate(float progress) {
+                return mInterpolator.getInterpolation(progress);
+            }
+        };
+        /**
+         * 图层动画的插值按 mCurve 计算，转向时保持速度连续，与估算的位置一致。
+         */
+        final Interpolator mLayerInterpolator = new Interpolator() {
+            @Override
+            public float getInterpolation(float input) {
+                return mCurve.getFraction(input);
+            }
+        };
         boolean mRunning = false;
+        boolean mOnLayer;
+        boolean mFlingPrepared;
         long mStartTime;
-        float mStartFillPercent;
-        float mStartPosition;
+        long mLastFrameTime;
         float mPosition;
-        float mFillPercent;
-        int mDuration;
 
         boolean isRunning() {
             return mRunning;
@@ -523,63 +3050,242 @@ public class XSlider extends View {
             return mPosition;
         }
 
-        void resetAnimation() {
-            mStartTime = SystemClock.uptimeMillis();
-            mStartPosition = mThumbPosition;
-            mStartFillPercent = 1;
-            mFillPercent = mPosition == 0 ? 0 : 1;
-            mDuration = getResources().getInteger(android.R.integer.config_mediumAnimTime);
+        /**
+         * 动画是否交给了图层，此时每帧不再回调，滑块的位置由图层的属性动画决定。
+         */
+        boolean isOnLayer() {
+            return mOnLayer;
+        }
+
+        /**
+         * 动画在图层上运行时，按经过的时间估算滑块当前的位置。
+         */
+        void syncLayerPosition() {
+            if (mOnLayer) {
+                long elapsed = Math.max(0, System.nanoTime() - mStartTime);
+                mThumbPositions[mActiveThumb] = mCurve.getPositionAt(elapsed);
+            }
+        }
+
+        void resetAnimation(float position) {
+            // 帧时间戳与 System.nanoTime() 使用同一时间基准
+            long now = System.nanoTime();
+            int duration = mAnimationDuration;
+            float startVelocity = 0;
+            if (mRunning) {
+                // 保持当前的速度，剩余时长不少于较短的动画时长
+                long elapsed = Math.max(0, now - mStartTime);
+                startVelocity = mCurve.getVelocity(elapsed);
+                long remaining = mCurve.getDuration() - elapsed / NANOS_PER_MILLI;
+                duration = (int) Math.max(mShortAnimationDuration,
+                        Math.min(mAnimationDuration, remaining));
+            }
+
+            mStartTime = now;
+            mLastFrameTime = 0;
+            if (mMetrics != null) {
+                updateFrameInterval();
+            }
+            mPosition = position;
+            float start = mThumbPositions[mActiveThumb];
+            if (mFlingPrepared) {
+                mCurve.fling(start, position, mFlingFriction);
+            } else if (mRunning) {
+                mCurve.retarget(start, position, startVelocity, duration);
+            } else {
+                mCurve.start(start, position, duration);
+            }
+            mFlingPrepared = false;
+        }
+
+        /**
+         * 下一次开始的动画使用惯性滑动。
+         */
+        void prepareFling() {
+            mFlingPrepared = true;
         }
 
         boolean startAnimation(float position) {
-            if (mThumbPosition == position) {
+            if (mThumbPositions[mActiveThumb] == position && !mRunning) {
+                mFlingPrepared = false;
                 return false;
             }
 
-            mPosition = position;
+            if (mRunning && mPosition == position && !mFlingPrepared) {
+                return true;
+            }
 
             if (getHandler() != null) {
-                resetAnimation();
-                mRunning = true;
-                getHandler().postAtTime(this, SystemClock.uptimeMillis() + FRAME_DURATION);
-                invalidate();
+                syncLayerPosition();
+                resetAnimation(position);
+                if (mThumbLayer != null && !mCurve.isFling()) {
+                    startLayerAnimation();
+                } else {
+                    if (mOnLayer) {
+                        // 改为逐帧动画，从图层当前的位置继续
+                        cancelLayerAnimation();
+                        syncThumbLayer();
+                        Choreographer.getInstance().removeFrameCallback(this);
+                    }
+                    mRunning = true;
+                    getFrameClock().register(this);
+                }
                 return true;
             } else {
-                mThumbPosition = position;
-                invalidate();
+                mFlingPrepared = false;
                 return false;
             }
         }
 
         void stopAnimation() {
+            float oldThumbPos = mThumbPositions[mActiveThumb];
             mRunning = false;
-            mThumbPosition = mPosition;
-            if (getHandler() != null) {
-                getHandler().removeCallbacks(this);
+            mThumbPositions[mActiveThumb] = mPosition;
+            getFrameClock().unregister(this);
+            if (mOnLayer) {
+                Choreographer.getInstance().removeFrameCallback(this);
+                // 以 getPosition() 为准校正图层，提前停止时图层也会停在最终的位置
+                cancelLayerAnimation();
+                syncThumbLayer();
+            }
+            invalidateThumbMove(oldThumbPos, mThumbPositions[mActiveThumb]);
+            onPositionSettled();
+        }
+
+        /**
+         * 取消动画，滑块停在当前绘制的位置，不移动到终点，也不回调停止的事件。
+         * 由调用方接着设置新的位置。
+         */
+        void cancelAnimation() {
+            syncLayerPosition();
+            mRunning = false;
+            mPosition = mThumbPositions[mActiveThumb];
+            mFlingPrepared = false;
+            getFrameClock().unregister(this);
+            if (mOnLayer) {
+                Choreographer.getInstance().removeFrameCallback(this);
+                cancelLayerAnimation();
+                syncThumbLayer();
+            }
+        }
+
+        /**
+         * 用 ViewPropertyAnimator 移动图层，动画期间使用硬件图层。每帧的属性仍在主线程计算，
+         * 但只改变图层的平移和缩放，不重绘控件和图层的内容。
+         * 不设置任何监听，结束时间到达后再回调一次，与 getPosition() 同步。
+         */
+        private void startLayerAnimation() {
+            // 图层从曲线的起点开始，与估算的位置一致；转向时沿用 resetAnimation 计算的 Hermite 曲线
+            cancelLayerAnimation();
+            syncThumbLayer();
+            mOnLayer = true;
+            mThumbLayer.animate()
+                    .translationX(getThumbLayerTranslation(mPosition))
+                    .setDuration(mCurve.getDuration())
+                    .setInterpolator(mLayerInterpolator)
+                    .withLayer()
+                    .start();
+            mProgressLayer.animate()
+                    .scaleX(getProgressLayerScale(mPosition))
+                    .setDuration(mCurve.getDuration())
+                    .setInterpolator(mLayerInterpolator)
+                    .withLayer()
+                    .start();
+
+            Choreographer choreographer = Choreographer.getInstance();
+            choreographer.removeFrameCallback(this);
+            choreographer.postFrameCallbackDelayed(this, mCurve.getDuration());
+            getFrameClock().unregister(this);
+            mRunning = true;
+        }
+
+        private void cancelLayerAnimation() {
+            mOnLayer = false;
+            if (mThumbLayer != null) {
+                mThumbLayer.animate().cancel();
+                mProgressLayer.animate().cancel();
             }
-            invalidate();
+        }
+
+        private void reportFrame(long frameTimeNanos) {
+            int skipped = 0;
+            if (mLastFrameTime != 0) {
+                long interval = frameTimeNanos - mLastFrameTime;
+                long frameInterval = mFrameIntervalNanos;
+                skipped = (int) Math.max(0, (interval + frameInterval / 2) / frameInterval - 1);
+            }
+            mLastFrameTime = frameTimeNanos;
+            mMetrics.onAnimationFrame(skipped);
         }
 
         @Override
-        public void run() {
-            long curTime = SystemClock.uptimeMillis();
-            float progress = Math.min(1f, (float) (curTime - mStartTime) / mDuration);
-            float value = mInterpolator.getInterpolation(progress);
+        public void doFrame(long frameTimeNanos) {
+            // 只在动画交给图层时使用，到达结束时间后与 getPosition() 同步
+            if (!mRunning || !mOnLayer) {
+                return;
+            }
+
+            long remaining = mCurve.getDuration() - (frameTimeNanos - mStartTime) / NANOS_PER_MILLI;
+            if (remaining > 0 && getHandler() != null) {
+                Choreographer.getInstance().postFrameCallbackDelayed(this, remaining);
+            } else {
+                stopAnimation();
+            }
+        }
+
+        @Override
+        boolean onFrame(long frameTimeNanos) {
+            if (!mRunning || mOnLayer) {
+                return false;
+            }
+
+            if (mMetrics != null) {
+                reportFrame(frameTimeNanos);
+            }
 
-            mThumbPosition = (mPosition - mStartPosition) * value + mStartPosition;
+            long elapsed = Math.max(0, frameTimeNanos - mStartTime);
+            float position = mCurve.getPositionAt(elapsed);
 
-            if (progress == 1f) {
+            float oldThumbPos = mThumbPositions[mActiveThumb];
+            mThumbPositions[mActiveThumb] = position;
+            invalidateThumbMove(oldThumbPos, position);
+
+            if (mCurve.isFinished(elapsed, position, mDrawRect.width(), FLING_STOP_DISTANCE)
+                    || getHandler() == null) {
                 stopAnimation();
             }
+            return mRunning;
+        }
+    }
 
-            if (mRunning) {
-                if (getHandler() != null) {
-                    getHandler().postAtTime(this, SystemClock.uptimeMillis() + FRAME_DURATION);
-                } else {
-                    stopAnimation();
-                }
+    /**
+     * 单独绘制滑块或已填充滑动条的图层，放在父布局的 overlay 中，动画期间使用硬件图层缓存内容。
+     */
+    private class ThumbLayer extends View {
+
+        private final boolean mProgress;
+
+        ThumbLayer(Context context, boolean progress) {
+            super(context);
+            mProgress = progress;
+        }
+
+        @Override
+        protected void onDraw(Canvas canvas) {
+            // 转换到控件的坐标系，按位置 0 绘制
+            int saveCount = canvas.save();
+            canvas.translate(XSlider.this.getLeft() - getLeft(), XSlider.this.getTop() - getTop());
+            float y = mDrawRect.centerY();
+            if (mProgress) {
+                float halfStroke = mTrackSize / 2f;
+                mPaint.setStyle(Paint.Style.FILL);
+                mPaint.setColor(XSlider.this.isEnabled() ? mProgressColor : mTrackColor);
+                canvas.drawRect(getLeft() - XSlider.this.getLeft(), y - halfStroke,
+                        getRight() - XSlider.this.getLeft(), y + halfStroke, mPaint);
+            } else {
+                drawSingleThumb(canvas, getThumbCenterX(0), y);
             }
-            invalidate();
+            canvas.restoreToCount(saveCount);
         }
     }
 
@@ -588,6 +3294,12 @@ public class XSlider extends View {
         Parcelable superState = super.onSaveInstanceState();
         SavedState ss = new SavedState(superState);
         ss.position = getPosition();
+        if (mThumbCount > 1) {
+            ss.positions = new float[mThumbCount];
+            for (int i = 0; i < mThumbCount; i++) {
+                ss.positions[i] = getThumbPosition(i);
+            }
+        }
         return ss;
     }
 
@@ -596,13 +3308,18 @@ public class XSlider extends View {
         SavedState ss = (SavedState) state;
 
         super.onRestoreInstanceState(ss.getSuperState());
-        setPosition(ss.position, false);
+        if (ss.positions != null) {
+            setThumbPositions(ss.positions);
+        } else {
+            setPosition(ss.position, false);
+        }
         requestLayout();
     }
 
     private static class SavedState extends BaseSavedState {
 
         float position;
+        float[] positions;
 
         SavedState(Parcelable superState) {
             super(superState);
@@ -611,12 +3328,14 @@ public class XSlider extends View {
         private SavedState(Parcel in) {
             super(in);
             position = in.readFloat();
+            positions = in.createFloatArray();
         }
 
         @Override
         public void writeToParcel(Parcel out, int flags) {
             super.writeToParcel(out, flags);
             out.writeFloat(position);
+            out.writeFloatArray(positions);
         }
 
         @Override
@@ -0,0 +1,175 @@
+package com.xslider.android;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 拖动预测的回放测试。手指的轨迹按 120Hz 采样（带时间抖动和位置噪声），事件按 60Hz 的垂直同步批量分发，
+ * 与 MotionEvent 的历史采样相同：发生在两个垂直同步之间的事件在后一个垂直同步一起处理，
+ * 这一帧绘制的滑块在再下一个垂直同步显示。比较显示时滑块与手指实际位置之间的距离。
+ */
+public class DragPredictorTest {
+
+    private static final long NANOS_PER_MILLI = 1000000L;
+    private static final long INTERVAL = 16666667L;
+    private static final long MAX_LOOKAHEAD = 50 * NANOS_PER_MILLI;
+    private static final float MAX_DISTANCE = 64;
+
+    private static final int MODE_NONE = 0;
+    private static final int MODE_FIXED_FRAME = 1;
+    private static final int MODE_NEXT_PRESENT = 2;
+
+    private interface Trace {
+        /**
+         * 手指在指定时间的位置，单位: 像素。
+         */
+        float x(float millis);
+    }
+
+    private static final Trace CONSTANT = new Trace() {
+        @Override
+        public float x(float millis) {
+            return millis;
+        }
+    };
+
+    private static final Trace EASE_IN_OUT = new Trace() {
+        @Override
+        public float x(float millis) {
+            return (float) (300 * (1 - Math.cos(Math.PI * Math.min(millis, 800) / 800)));
+        }
+    };
+
+    private static final Trace REVERSAL = new Trace() {
+        @Override
+        public float x(float millis) {
+            return (float) (200 * Math.sin(2 * Math.PI * millis / 600));
+        }
+    };
+
+    @Test
+    public void lookaheadToNextPresent() {
+        long ms = NANOS_PER_MILLI;
+        long vsync = 100 * ms;
+        // 事件在上一次垂直同步之后 10ms：在下一个垂直同步处理，再下一个显示
+        assertEquals(2 * INTERVAL - 10 * ms, DragPredictor.lookahead(vsync + 10 * ms, vsync, INTERVAL));
+        // 事件恰好在下一个垂直同步之前
+        assertEquals(2 * INTERVAL - 16 * ms, DragPredictor.lookahead(vsync + 16 * ms, vsync, INTERVAL));
+        // 批量的历史事件早于上一次垂直同步
+        assertEquals(3 * INTERVAL, DragPredictor.lookahead(vsync - INTERVAL, vsync, INTERVAL));
+        // 几帧没有收到垂直同步时按刷新率推算
+        assertEquals(2 * INTERVAL - 5 * ms,
+                DragPredictor.lookahead(vsync + 3 * INTERVAL + 5 * ms, vsync, INTERVAL));
+        // 没有垂直同步的时间时按一帧计算
+        assertEquals(INTERVAL, DragPredictor.lookahead(10 * ms, 0, INTERVAL));
+    }
+
+    @Test
+    public void predictionIsBounded() {
+        DragPredictor predictor = new DragPredictor();
+        predictor.reset(0);
+        predictor.addSample(100, 1);
+        predictor.addSample(100, 2);
+        assertEquals(MAX_DISTANCE, predictor.predict(1, INTERVAL, MAX_LOOKAHEAD, MAX_DISTANCE), 0f);
+
+        predictor.reset(0);
+        predictor.addSample(-100, 1);
+        assertEquals(-MAX_DISTANCE, predictor.predict(1, INTERVAL, MAX_LOOKAHEAD, MAX_DISTANCE), 0f);
+
+        // 预测时间受上限限制：速度 1px/ms，上限 5ms
+        predictor.reset(0);
+        for (int t = 1; t <= 20; t++) {
+            predictor.addSample(1, t);
+        }
+        assertEquals(5f, predictor.predict(1, INTERVAL, 5 * NANOS_PER_MILLI, MAX_DISTANCE), 0.01f);
+    }
+
+    @Test
+    public void constantSpeedReplay() {
+        float none = replay(CONSTANT, 600, MODE_NONE);
+        float fixed = replay(CONSTANT, 600, MODE_FIXED_FRAME);
+        float predicted = replay(CONSTANT, 600, MODE_NEXT_PRESENT);
+        // 不预测时滑块落后 1 到 2 帧
+        assertTrue("none=" + none, none > 16);
+        assertTrue("predicted=" + predicted + " none=" + none, predicted < none * 0.2f);
+        assertTrue("predicted=" + predicted + " fixed=" + fixed, predicted < fixed * 0.5f);
+    }
+
+    @Test
+    public void easeInOutReplay() {
+        float none = replay(EASE_IN_OUT, 800, MODE_NONE);
+        float fixed = replay(EASE_IN_OUT, 800, MODE_FIXED_FRAME);
+        float predicted = replay(EASE_IN_OUT, 800, MODE_NEXT_PRESENT);
+        assertTrue("predicted=" + predicted + " none=" + none, predicted < none * 0.5f);
+        assertTrue("predicted=" + predicted + " fixed=" + fixed, predicted < fixed);
+    }
+
+    @Test
+    public void reversalReplay() {
+        // 来回拖动时预测在转向处会超出，但总体上仍然更接近手指
+        float none = replay(REVERSAL, 1200, MODE_NONE);
+        float predicted = replay(REVERSAL, 1200, MODE_NEXT_PRESENT);
+        assertTrue("predicted=" + predicted + " none=" + none, predicted < none);
+    }
+
+    /**
+     * 回放一段轨迹。
+     *
+     * @return 每一帧显示时滑块与手指之间距离的平均值，单位: 像素
+     */
+    private static float replay(Trace trace, int durationMillis, int mode) {
+        Random random = new Random(42);
+        DragPredictor predictor = new DragPredictor();
+
+        // 采样时间：约 8.3ms 一次，±1ms 抖动
+        float sampleTime = 0;
+        float lastX = trace.x(0);
+        predictor.reset(0);
+
+        long vsync = 0;
+        long lastVsync = 0;
+        float totalError = 0;
+        int frames = 0;
+        while (sampleTime < durationMillis) {
+            vsync += INTERVAL;
+            // 分发发生在上一个垂直同步之后、这个垂直同步之前的所有事件
+            boolean delivered = false;
+            while (true) {
+                float next = sampleTime + 8.33f + (random.nextFloat() - 0.5f) * 2;
+                if (next * NANOS_PER_MILLI > vsync || next >= durationMillis) {
+                    break;
+                }
+                sampleTime = next;
+                float x = trace.x(sampleTime) + (random.nextFloat() - 0.5f);
+                predictor.addSample(x - lastX, (long) sampleTime);
+                lastX = x;
+                delivered = true;
+            }
+
+            if (delivered) {
+                float offset = 0;
+                if (mode == MODE_FIXED_FRAME) {
+                    offset = Math.min(MAX_DISTANCE, Math.max(-MAX_DISTANCE,
+                            predictor.getVelocity() * 16));
+                } else if (mode == MODE_NEXT_PRESENT) {
+                    offset = predictor.predict(lastVsync, INTERVAL, MAX_LOOKAHEAD, MAX_DISTANCE);
+                }
+                assertTrue(Math.abs(offset) <= MAX_DISTANCE);
+
+                float presentMillis = (float) (vsync + INTERVAL) / NANOS_PER_MILLI;
+                totalError += Math.abs(lastX + offset - trace.x(presentMillis));
+                frames++;
+            }
+            // 垂直同步的时间在动画阶段记录，晚于输入阶段
+            lastVsync = vsync;
+            if (sampleTime + 10 >= durationMillis) {
+                break;
+            }
+        }
+        return totalError / frames;
+    }
+}
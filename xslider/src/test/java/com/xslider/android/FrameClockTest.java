@@ -0,0 +1,280 @@
+package com.xslider.android;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 用假的帧源驱动 {@link FrameClock}：只有请求过下一帧时 {@link #frame()} 才会调用 tick，
+ * 与 Choreographer 的行为相同。
+ */
+public class FrameClockTest {
+
+    private static final long FRAME_INTERVAL = 16666667L;
+
+    private FrameClock mClock;
+    private int mFrameRequests;
+    private boolean mFrameRequested;
+    private long mFrameTime;
+
+    @Before
+    public void setUp() {
+        mClock = new FrameClock(new Runnable() {
+            @Override
+            public void run() {
+                assertFalse("frame requested twice", mFrameRequested);
+                mFrameRequests++;
+                mFrameRequested = true;
+            }
+        });
+    }
+
+    /**
+     * 下一帧到来。
+     *
+     * @return 是否调用了 tick
+     */
+    private boolean frame() {
+        mFrameTime += FRAME_INTERVAL;
+        if (!mFrameRequested) {
+            return false;
+        }
+        mFrameRequested = false;
+        mClock.tick(mFrameTime);
+        return true;
+    }
+
+    @Test
+    public void retargetWithinFrameUpdatesOnce() {
+        // 同一帧内多次开始或转向动画只注册一次，下一帧只更新一次位置
+        CountingClient client = new CountingClient(3);
+        for (int i = 0; i < 20; i++) {
+            mClock.register(client);
+        }
+        assertEquals(1, mClock.size());
+        assertEquals(1, mFrameRequests);
+
+        assertTrue(frame());
+        assertEquals(1, client.mFrames);
+        assertEquals(mFrameTime, client.mLastFrameTime);
+    }
+
+    @Test
+    public void exactlyOneUpdatePerFrame() {
+        CountingClient a = new CountingClient(5);
+        CountingClient b = new CountingClient(3);
+        mClock.register(a);
+        mClock.register(b);
+
+        for (int i = 1; i <= 5; i++) {
+            assertTrue(frame());
+            assertEquals(i, a.mFrames);
+            assertEquals(Math.min(i, 3), b.mFrames);
+            assertEquals(mFrameTime, a.mLastFrameTime);
+        }
+        assertEquals(0, mClock.size());
+        assertEquals(5, mFrameRequests);
+
+        // 所有动画结束后不再请求下一帧
+        assertFalse(frame());
+    }
+
+    @Test
+    public void registerDuringTickStartsNextFrame() {
+        final CountingClient late = new CountingClient(2);
+        CountingClient early = new CountingClient(1) {
+            @Override
+            boolean onFrame(long frameTimeNanos) {
+                mClock.register(late);
+                return super.onFrame(frameTimeNanos);
+            }
+        };
+        mClock.register(early);
+
+        assertTrue(frame());
+        assertEquals(1, early.mFrames);
+        assertEquals(0, late.mFrames);
+        assertEquals(1, mClock.size());
+        assertTrue(mClock.isRegistered(late));
+
+        assertTrue(frame());
+        assertTrue(frame());
+        assertEquals(1, early.mFrames);
+        assertEquals(2, late.mFrames);
+        assertEquals(0, mClock.size());
+        assertFalse(frame());
+    }
+
+    @Test
+    public void unregisterDuringTick() {
+        // 前面的对象移除后面的对象，本帧不再回调被移除的对象
+        final CountingClient removed = new CountingClient(5);
+        CountingClient remover = new CountingClient(3) {
+            @Override
+            boolean onFrame(long frameTimeNanos) {
+                if (mFrames == 0) {
+                    mClock.unregister(removed);
+                }
+                return super.onFrame(frameTimeNanos);
+            }
+        };
+        CountingClient other = new CountingClient(3);
+        mClock.register(remover);
+        mClock.register(removed);
+        mClock.register(other);
+
+        assertTrue(frame());
+        assertEquals(0, removed.mFrames);
+        assertEquals(1, other.mFrames);
+        assertFalse(mClock.isRegistered(removed));
+        assertEquals(2, mClock.size());
+
+        // 移除后再注册，从下一帧开始回调
+        mClock.register(removed);
+        assertTrue(frame());
+        assertEquals(1, removed.mFrames);
+        assertEquals(3, mClock.size());
+    }
+
+    @Test
+    public void selfRemovalDuringTick() {
+        // 回调中移除自己后不再回调；移除后又注册自己的，返回 false 也保持注册
+        CountingClient removesSelf = new CountingClient(5) {
+            @Override
+            boolean onFrame(long frameTimeNanos) {
+                mClock.unregister(this);
+                return super.onFrame(frameTimeNanos);
+            }
+        };
+        CountingClient restarts = new CountingClient(1) {
+            @Override
+            boolean onFrame(long frameTimeNanos) {
+                boolean more = super.onFrame(frameTimeNanos);
+                if (mFrames == 1) {
+                    mClock.unregister(this);
+                    mClock.register(this);
+                }
+                return more;
+            }
+        };
+        CountingClient other = new CountingClient(2);
+        mClock.register(removesSelf);
+        mClock.register(restarts);
+        mClock.register(other);
+
+        assertTrue(frame());
+        assertFalse(mClock.isRegistered(removesSelf));
+        assertTrue(mClock.isRegistered(restarts));
+        assertTrue(mClock.isRegistered(other));
+        assertEquals(2, mClock.size());
+
+        assertTrue(frame());
+        assertEquals(1, removesSelf.mFrames);
+        assertEquals(2, restarts.mFrames);
+        assertEquals(2, other.mFrames);
+        assertEquals(0, mClock.size());
+        assertFalse(frame());
+    }
+
+    @Test
+    public void growsDuringTick() {
+        // 初始容量为 8，8 个对象在同一帧结束，第一个对象的回调中再注册一个，使数组在本帧扩容；
+        // 结束的对象必须从扩容后的数组中移除
+        final CountingClient late = new CountingClient(2);
+        CountingClient[] clients = new CountingClient[8];
+        clients[0] = new CountingClient(1) {
+            @Override
+            boolean onFrame(long frameTimeNanos) {
+                mClock.register(late);
+                return super.onFrame(frameTimeNanos);
+            }
+        };
+        for (int i = 1; i < clients.length; i++) {
+            clients[i] = new CountingClient(1);
+        }
+        for (CountingClient client : clients) {
+            mClock.register(client);
+        }
+        assertEquals(8, mClock.size());
+
+        assertTrue(frame());
+        for (CountingClient client : clients) {
+            assertEquals(1, client.mFrames);
+            assertFalse(mClock.isRegistered(client));
+        }
+        assertEquals(0, late.mFrames);
+        assertEquals(1, mClock.size());
+
+        // 结束的对象不再回调，只有新注册的对象
+        assertTrue(frame());
+        assertTrue(frame());
+        for (CountingClient client : clients) {
+            assertEquals(1, client.mFrames);
+        }
+        assertEquals(2, late.mFrames);
+        assertEquals(0, mClock.size());
+        assertFalse(frame());
+    }
+
+    @Test
+    public void unregisterAfterGrowingDuringTick() {
+        // 第一个对象的回调中再注册一个使数组扩容，然后移除排在后面、本帧还没有回调的对象；
+        // 被移除的对象本帧不能再被回调
+        final CountingClient late = new CountingClient(1);
+        final CountingClient[] clients = new CountingClient[8];
+        clients[0] = new CountingClient(2) {
+            @Override
+            boolean onFrame(long frameTimeNanos) {
+                if (mFrames == 0) {
+                    mClock.register(late);
+                    mClock.unregister(clients[7]);
+                }
+                return super.onFrame(frameTimeNanos);
+            }
+        };
+        for (int i = 1; i < clients.length; i++) {
+            clients[i] = new CountingClient(2);
+        }
+        for (CountingClient client : clients) {
+            mClock.register(client);
+        }
+
+        assertTrue(frame());
+        assertEquals(0, clients[7].mFrames);
+        assertFalse(mClock.isRegistered(clients[7]));
+        for (int i = 0; i < 7; i++) {
+            assertEquals(1, clients[i].mFrames);
+        }
+        assertEquals(0, late.mFrames);
+        assertEquals(8, mClock.size());
+
+        assertTrue(frame());
+        assertEquals(0, clients[7].mFrames);
+        assertEquals(1, late.mFrames);
+        assertEquals(0, mClock.size());
+    }
+
+    /**
+     * 回调指定的帧数后结束。
+     */
+    static class CountingClient extends FrameClock.Client {
+
+        final int mMaxFrames;
+        int mFrames;
+        long mLastFrameTime;
+
+        CountingClient(int maxFrames) {
+            mMaxFrames = maxFrames;
+        }
+
+        @Override
+        boolean onFrame(long frameTimeNanos) {
+            assertTrue("more than one update in a frame", frameTimeNanos > mLastFrameTime);
+            mLastFrameTime = frameTimeNanos;
+            return ++mFrames < mMaxFrames;
+        }
+    }
+}
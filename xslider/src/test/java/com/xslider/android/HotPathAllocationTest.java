@@ -0,0 +1,151 @@
+package com.xslider.android;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 拖动和绘制时每帧调用的纯计算部分在稳定状态下不分配对象：预热后用 HotSpot 的线程分配统计
+ * 检查 10000 次调用分配的字节数。即时编译等一次性的开销也会计入线程，允许少于每次调用一个字节的误差，
+ * 每次调用都分配对象时至少是每次 16 字节。XSlider 自身的 draw() 和 onTouchEvent() 依赖 Android 的运行时，
+ * 不在这里检查。
+ */
+public class HotPathAllocationTest {
+
+    private static final int ITERATIONS = 10000;
+
+    private com.sun.management.ThreadMXBean mThreads;
+
+    @Before
+    public void setUp() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        // OpenJDK 和 Oracle JDK 都支持，其他虚拟机上跳过
+        assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        mThreads = (com.sun.management.ThreadMXBean) threads;
+        assumeTrue(mThreads.isThreadAllocatedMemorySupported());
+        mThreads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    public void previewCacheLookups() {
+        final IntLruMap<Object> map = new IntLruMap<Object>();
+        final Object[] values = new Object[64];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new Object();
+        }
+        assertNoAllocation(new Runnable() {
+            @Override
+            public void run() {
+                // 拖动时先查找缓存，未命中时放入并移除最久未用的一个
+                for (int i = 0; i < ITERATIONS; i++) {
+                    int key = (i * 7) % (values.length * 2);
+                    if (map.get(key) == null) {
+                        map.put(key, values[i % values.length]);
+                        if (map.size() > values.length / 2) {
+                            map.removeEldest();
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void dragPrediction() {
+        final DragPredictor predictor = new DragPredictor();
+        final float[] sink = new float[1];
+        assertNoAllocation(new Runnable() {
+            @Override
+            public void run() {
+                predictor.reset(0);
+                for (int i = 1; i <= ITERATIONS; i++) {
+                    predictor.addSample(3f, i * 8L);
+                    sink[0] += predictor.getVelocity()
+                            + DragPredictor.lookahead(i * 8000000L, i * 8000000L, 16666667L);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void thumbAnimation() {
+        final ThumbCurve curve = new ThumbCurve();
+        final float[] sink = new float[1];
+        assertNoAllocation(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < ITERATIONS; i++) {
+                    if (i % 100 == 0) {
+                        curve.retarget(0.2f, 0.8f, 0.002f, 400);
+                    }
+                    sink[0] += curve.getPositionAt((i % 100) * 4000000L);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void hitTestAndSnap() {
+        final float[] positions = {0.1f, 0.3f, 0.3f, 0.6f, 0.9f};
+        final float[] sink = new float[1];
+        assertNoAllocation(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < ITERATIONS; i++) {
+                    float position = (i % 1000) / 1000f;
+                    int index = SliderMath.nearestIndex(positions, positions.length, position);
+                    index = SliderMath.stackEnd(positions, positions.length, index,
+                            position - positions[index]);
+                    if (SliderMath.isInTouchRange(position * 1000, 30, positions[index] * 1000, 30,
+                            40, true)) {
+                        sink[0] += SliderMath.snap(position, 0, 100, 5);
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void secondaryRanges() {
+        final IntervalSet set = new IntervalSet();
+        for (int i = 0; i < 20; i++) {
+            set.add(i * 5, i * 5 + 3);
+        }
+        final int[] sink = new int[1];
+        assertNoAllocation(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < ITERATIONS; i++) {
+                    sink[0] += set.lowerBoundOfEnds(i % 100);
+                }
+            }
+        });
+    }
+
+    /**
+     * 先运行一次预热（类加载、扩容、即时编译前的解释执行都在这一次中完成），再统计第二次运行分配的字节数。
+     * 统计本身的开销用一次空的运行扣除。
+     */
+    private void assertNoAllocation(Runnable task) {
+        task.run();
+        long overhead = allocatedBytes(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+        long bytes = allocatedBytes(task) - overhead;
+        assertTrue(bytes + " bytes allocated in " + ITERATIONS + " iterations", bytes < ITERATIONS);
+    }
+
+    private long allocatedBytes(Runnable task) {
+        long id = Thread.currentThread().getId();
+        long before = mThreads.getThreadAllocatedBytes(id);
+        task.run();
+        return mThreads.getThreadAllocatedBytes(id) - before;
+    }
+}
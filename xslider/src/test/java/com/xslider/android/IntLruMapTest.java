@@ -0,0 +1,70 @@
+package com.xslider.android;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class IntLruMapTest {
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        IntLruMap<String> map = new IntLruMap<String>();
+        map.put(10, "a");
+        map.put(20, "b");
+        map.put(30, "c");
+
+        // 访问后变为最近使用
+        assertEquals("a", map.get(10));
+        assertEquals("b", map.removeEldest());
+        assertEquals("c", map.removeEldest());
+        assertEquals("a", map.removeEldest());
+        assertNull(map.removeEldest());
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    public void containsKeyKeepsOrder() {
+        IntLruMap<String> map = new IntLruMap<String>();
+        map.put(1, "a");
+        map.put(2, "b");
+
+        assertTrue(map.containsKey(1));
+        assertFalse(map.containsKey(3));
+        assertEquals("a", map.removeEldest());
+    }
+
+    @Test
+    public void putReplacesAndTouches() {
+        IntLruMap<String> map = new IntLruMap<String>();
+        map.put(1, "a");
+        map.put(2, "b");
+
+        assertEquals("a", map.put(1, "c"));
+        assertEquals(2, map.size());
+        assertEquals("b", map.removeEldest());
+        assertEquals("c", map.get(1));
+        assertNull(map.get(2));
+    }
+
+    @Test
+    public void growsBeyondInitialCapacity() {
+        IntLruMap<Integer> map = new IntLruMap<Integer>();
+        Integer[] values = new Integer[100];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i;
+            map.put(i * 7, values[i]);
+        }
+        assertEquals(values.length, map.size());
+        for (int i = 0; i < values.length; i++) {
+            assertSame(values[i], map.get(i * 7));
+        }
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertNull(map.get(0));
+    }
+}
@@ -0,0 +1,94 @@
+package com.xslider.android;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IntervalSetTest {
+
+    @Test
+    public void disjointRangesStaySplitAndSorted() {
+        IntervalSet set = new IntervalSet();
+        assertTrue(set.add(50, 60));
+        assertTrue(set.add(10, 20));
+        assertTrue(set.add(30, 40));
+        assertRanges(set, 10, 20, 30, 40, 50, 60);
+    }
+
+    @Test
+    public void overlappingAndTouchingRangesMerge() {
+        IntervalSet set = new IntervalSet();
+        set.add(10, 20);
+        set.add(30, 40);
+        set.add(50, 60);
+
+        // 与前一个相接
+        assertTrue(set.add(20, 25));
+        assertRanges(set, 10, 25, 30, 40, 50, 60);
+
+        // 跨过多个区间，合并成一个
+        assertTrue(set.add(22, 55));
+        assertRanges(set, 10, 60);
+
+        // 被已有的区间包含，不改变集合
+        assertFalse(set.add(15, 45));
+        assertRanges(set, 10, 60);
+
+        // 向两侧扩展
+        assertTrue(set.add(0, 70));
+        assertRanges(set, 0, 70);
+    }
+
+    @Test
+    public void emptyRangesAreIgnored() {
+        IntervalSet set = new IntervalSet();
+        assertFalse(set.add(10, 10));
+        assertFalse(set.add(20, 10));
+        assertFalse(set.add(Float.NaN, 10));
+        assertEquals(0, set.size());
+    }
+
+    @Test
+    public void growsPastInitialCapacity() {
+        IntervalSet set = new IntervalSet();
+        // 倒序加入，每次都插入到最前面
+        for (int i = 99; i >= 0; i--) {
+            set.add(i * 10, i * 10 + 5);
+        }
+        assertEquals(100, set.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i * 10, set.getStart(i), 0f);
+            assertEquals(i * 10 + 5, set.getEnd(i), 0f);
+        }
+
+        // 填满间隔后合并成一个
+        for (int i = 0; i < 99; i++) {
+            set.add(i * 10 + 5, i * 10 + 10);
+        }
+        assertRanges(set, 0, 995);
+    }
+
+    @Test
+    public void lowerBoundOfEnds() {
+        IntervalSet set = new IntervalSet();
+        set.add(10, 20);
+        set.add(30, 40);
+        set.add(50, 60);
+        assertEquals(0, set.lowerBoundOfEnds(0));
+        assertEquals(0, set.lowerBoundOfEnds(20));
+        assertEquals(1, set.lowerBoundOfEnds(21));
+        assertEquals(1, set.lowerBoundOfEnds(35));
+        assertEquals(2, set.lowerBoundOfEnds(45));
+        assertEquals(3, set.lowerBoundOfEnds(61));
+    }
+
+    private static void assertRanges(IntervalSet set, float... bounds) {
+        assertEquals(bounds.length / 2, set.size());
+        for (int i = 0; i < set.size(); i++) {
+            assertEquals(bounds[i * 2], set.getStart(i), 0f);
+            assertEquals(bounds[i * 2 + 1], set.getEnd(i), 0f);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.xslider.android;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 回调方式的判断：限制频率时的暂缓和延迟，以及拖动结束时回调暂缓的事件。
+ */
+public class PositionDispatcherTest {
+
+    private static final long INTERVAL = 100;
+
+    private PositionDispatcher mDispatcher;
+
+    @Before
+    public void setUp() {
+        mDispatcher = new PositionDispatcher();
+        mDispatcher.setInterval(INTERVAL);
+        mDispatcher.reset(0f, 0);
+    }
+
+    @Test
+    public void alwaysDelivers() {
+        assertEquals(PositionDispatcher.DELIVER, mDispatcher.offer(true, 0f, 0, true, 0));
+        assertEquals(PositionDispatcher.DELIVER, mDispatcher.offer(true, 0.1f, 1, false, 0));
+        assertFalse(mDispatcher.isPending());
+    }
+
+    @Test
+    public void valueChangedSkipsSameValue() {
+        mDispatcher.setMode(XSlider.DISPATCH_MODE_VALUE_CHANGED);
+        assertEquals(PositionDispatcher.SKIP, mDispatcher.offer(true, 0.01f, 0, true, 0));
+        assertEquals(PositionDispatcher.DELIVER, mDispatcher.offer(true, 0.1f, 1, true, 0));
+        mDispatcher.onDelivered(0.1f, 1, 0);
+        assertEquals(PositionDispatcher.SKIP, mDispatcher.offer(true, 0.11f, 1, true, 0));
+    }
+
+    @Test
+    public void throttledSchedulesOnceAndFlushesLatest() {
+        mDispatcher.setMode(XSlider.DISPATCH_MODE_THROTTLED);
+        assertEquals(PositionDispatcher.DELIVER, mDispatcher.offer(true, 0.1f, 1, true, 1000));
+        mDispatcher.onDelivered(0.1f, 1, 1000);
+
+        // 间隔内的改变只安排一次延迟回调
+        assertEquals(PositionDispatcher.SCHEDULE, mDispatcher.offer(true, 0.2f, 2, true, 1030));
+        assertEquals(INTERVAL - 30, mDispatcher.getDelay(1030));
+        assertEquals(PositionDispatcher.SKIP, mDispatcher.offer(false, 0.3f, 3, true, 1060));
+        assertTrue(mDispatcher.isPending());
+        assertFalse(mDispatcher.isPendingFromUser());
+
+        // 到时回调最后的位置，上一次回调的结果作为原来的位置
+        assertTrue(mDispatcher.getDelay(1100) <= 0);
+        assertTrue(mDispatcher.flush(0.3f, 3));
+        assertEquals(0.1f, mDispatcher.getPosition(), 0f);
+        assertEquals(1, mDispatcher.getValue());
+        assertFalse(mDispatcher.isPending());
+        assertFalse(mDispatcher.flush(0.3f, 3));
+    }
+
+    @Test
+    public void throttledDeliversAfterInterval() {
+        mDispatcher.setMode(XSlider.DISPATCH_MODE_THROTTLED);
+        mDispatcher.onDelivered(0.1f, 1, 1000);
+        assertEquals(PositionDispatcher.SCHEDULE, mDispatcher.offer(true, 0.2f, 2, true, 1050));
+
+        // 超过间隔的改变立即回调，之前暂缓的事件随之取消
+        assertEquals(PositionDispatcher.DELIVER, mDispatcher.offer(true, 0.3f, 3, true, 1100));
+        assertFalse(mDispatcher.isPending());
+        mDispatcher.onDelivered(0.3f, 3, 1100);
+        assertFalse(mDispatcher.flush(0.3f, 3));
+    }
+
+    @Test
+    public void throttledFlushSkipsUnchangedPosition() {
+        mDispatcher.setMode(XSlider.DISPATCH_MODE_THROTTLED);
+        mDispatcher.onDelivered(0.1f, 1, 1000);
+        assertEquals(PositionDispatcher.SCHEDULE, mDispatcher.offer(true, 0.2f, 2, true, 1010));
+
+        // 暂缓期间又回到了上一次回调的位置
+        assertFalse(mDispatcher.flush(0.1f, 1));
+        assertFalse(mDispatcher.isPending());
+    }
+
+    @Test
+    public void gestureEndHoldsUntilSettled() {
+        mDispatcher.setMode(XSlider.DISPATCH_MODE_GESTURE_END);
+        assertEquals(PositionDispatcher.SKIP, mDispatcher.offer(true, 0.1f, 1, true, 0));
+        assertEquals(PositionDispatcher.SKIP, mDispatcher.offer(true, 0.5f, 5, true, 10));
+        assertTrue(mDispatcher.isPending());
+        assertTrue(mDispatcher.isPendingFromUser());
+
+        // 拖动结束时回调一次，从手势开始前的位置到最后的位置
+        assertTrue(mDispatcher.flush(0.5f, 5));
+        assertEquals(0f, mDispatcher.getPosition(), 0f);
+        mDispatcher.onDelivered(0.5f, 5, 20);
+        assertFalse(mDispatcher.flush(0.5f, 5));
+    }
+
+    @Test
+    public void gestureEndDeliversWhenNotMoving() {
+        mDispatcher.setMode(XSlider.DISPATCH_MODE_GESTURE_END);
+        assertEquals(PositionDispatcher.SKIP, mDispatcher.offer(true, 0.1f, 1, true, 0));
+
+        // 不在拖动或动画中的改变立即回调，暂缓的事件被合并进去
+        assertEquals(PositionDispatcher.DELIVER, mDispatcher.offer(false, 0.4f, 4, false, 10));
+        assertFalse(mDispatcher.isPending());
+    }
+
+    @Test
+    public void resetDropsPending() {
+        mDispatcher.setMode(XSlider.DISPATCH_MODE_GESTURE_END);
+        mDispatcher.offer(true, 0.1f, 1, true, 0);
+        mDispatcher.reset(0.2f, 2);
+        assertFalse(mDispatcher.isPending());
+        assertFalse(mDispatcher.flush(0.3f, 3));
+        assertEquals(0.2f, mDispatcher.getPosition(), 0f);
+    }
+}
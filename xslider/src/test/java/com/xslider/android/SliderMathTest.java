@@ -0,0 +1,83 @@
+package com.xslider.android;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SliderMathTest {
+
+    @Test
+    public void snapToStep() {
+        assertEquals(0.3f, SliderMath.snap(0.32f, 0, 10, 1), 1e-6f);
+        assertEquals(0.4f, SliderMath.snap(0.36f, 0, 10, 1), 1e-6f);
+        assertEquals(1f, SliderMath.snap(1f, 0, 10, 1), 0f);
+        // 不吸附
+        assertEquals(0.32f, SliderMath.snap(0.32f, 0, 10, 0), 0f);
+    }
+
+    @Test
+    public void snapReachesMaxOnUnevenRange() {
+        // 范围 10、步长 3：吸附位置为 0、3、6、9、10
+        assertEquals(1f, SliderMath.snap(1f, 0, 10, 3), 0f);
+        assertEquals(1f, SliderMath.snap(0.96f, 0, 10, 3), 0f);
+        assertEquals(0.9f, SliderMath.snap(0.94f, 0, 10, 3), 1e-6f);
+        assertEquals(0.6f, SliderMath.snap(0.7f, 0, 10, 3), 1e-6f);
+        assertEquals(0f, SliderMath.snap(0.1f, 0, 10, 3), 0f);
+
+        assertEquals(10f, SliderMath.snapValue(10f, 0, 10, 3), 0f);
+        assertEquals(10f, SliderMath.snapValue(9.6f, 0, 10, 3), 0f);
+        assertEquals(9f, SliderMath.snapValue(9.4f, 0, 10, 3), 0f);
+        assertEquals(15f, SliderMath.snapValue(16f, 5, 20, 5), 0f);
+        assertEquals(20f, SliderMath.snapValue(19f, 5, 20, 5), 0f);
+        assertEquals(13f, SliderMath.snapValue(13f, 5, 20, 0), 0f);
+    }
+
+    @Test
+    public void nearestIndex() {
+        float[] sorted = {0.1f, 0.4f, 0.8f, 0f};
+        assertEquals(0, SliderMath.nearestIndex(sorted, 3, 0f));
+        assertEquals(1, SliderMath.nearestIndex(sorted, 3, 0.3f));
+        assertEquals(2, SliderMath.nearestIndex(sorted, 3, 0.7f));
+        assertEquals(2, SliderMath.nearestIndex(sorted, 3, 1f));
+        // 距离相等时返回较小的索引
+        assertEquals(0, SliderMath.nearestIndex(sorted, 3, 0.25f));
+    }
+
+    @Test
+    public void stackedThumbsResolveBySide() {
+        float[] sorted = {0.2f, 0.5f, 0.5f, 0.5f, 0.9f};
+        int count = sorted.length;
+
+        // 点在重叠滑块的右侧时选择最后一个，左侧时选择第一个
+        int right = SliderMath.nearestIndex(sorted, count, 0.52f);
+        assertEquals(3, SliderMath.stackEnd(sorted, count, right, 0.52f - sorted[right]));
+        int left = SliderMath.nearestIndex(sorted, count, 0.48f);
+        assertEquals(1, SliderMath.stackEnd(sorted, count, left, 0.48f - sorted[left]));
+
+        // 正好在中心时不变，由移动的方向决定
+        int center = SliderMath.nearestIndex(sorted, count, 0.5f);
+        assertEquals(center, SliderMath.stackEnd(sorted, count, center, 0));
+        assertTrue(SliderMath.isStacked(sorted, count, center));
+        assertEquals(3, SliderMath.stackEnd(sorted, count, center, 1));
+        assertEquals(1, SliderMath.stackEnd(sorted, count, 3, -1));
+
+        assertFalse(SliderMath.isStacked(sorted, count, 0));
+        assertFalse(SliderMath.isStacked(sorted, count, 4));
+        assertEquals(4, SliderMath.stackEnd(sorted, count, 4, 1));
+    }
+
+    @Test
+    public void touchRange() {
+        assertTrue(SliderMath.isInTouchRange(100, 20, 100, 20, 10, true));
+        assertTrue(SliderMath.isInTouchRange(90, 10, 100, 20, 10, true));
+        assertTrue(SliderMath.isInTouchRange(110, 30, 100, 20, 10, true));
+        assertFalse(SliderMath.isInTouchRange(111, 20, 100, 20, 10, true));
+        assertFalse(SliderMath.isInTouchRange(100, 9, 100, 20, 10, true));
+
+        // 矩形滑块不包含下边界
+        assertTrue(SliderMath.isInTouchRange(110, 29.5f, 100, 20, 10, false));
+        assertFalse(SliderMath.isInTouchRange(110, 30, 100, 20, 10, false));
+    }
+}
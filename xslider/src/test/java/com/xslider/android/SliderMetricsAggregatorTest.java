@@ -0,0 +1,83 @@
+package com.xslider.android;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 性能统计的计数和直方图：分桶、均值、百分位数以及清空。
+ */
+public class SliderMetricsAggregatorTest {
+
+    @Test
+    public void emptyHistogram() {
+        SliderMetricsAggregator.Histogram histogram = new SliderMetricsAggregator.Histogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMean());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getPercentile(50));
+    }
+
+    @Test
+    public void histogramBuckets() {
+        SliderMetricsAggregator.Histogram histogram = new SliderMetricsAggregator.Histogram();
+        histogram.record(0);
+        histogram.record(1);
+        histogram.record(5);
+        histogram.record(100);
+
+        assertEquals(4, histogram.getCount());
+        assertEquals(26, histogram.getMean());
+        assertEquals(100, histogram.getMax());
+        // 返回所在桶的上界：0 单独一个桶，1 在 [1, 2)，5 在 [4, 8)，100 在 [64, 128)
+        assertEquals(0, histogram.getPercentile(0));
+        assertEquals(0, histogram.getPercentile(25));
+        assertEquals(1, histogram.getPercentile(50));
+        assertEquals(7, histogram.getPercentile(75));
+        // 上界不超过最大值
+        assertEquals(100, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void histogramClampsNegativeAndHandlesLargeValues() {
+        SliderMetricsAggregator.Histogram histogram = new SliderMetricsAggregator.Histogram();
+        histogram.record(-5);
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getPercentile(100));
+
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.getMax());
+        assertEquals(Long.MAX_VALUE, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void countsAndReset() {
+        SliderMetricsAggregator metrics = new SliderMetricsAggregator();
+        metrics.onDraw(1000);
+        metrics.onListenerDispatch(200);
+        metrics.onTouchToDraw(16);
+        metrics.onAnimationFrame(0);
+        metrics.onAnimationFrame(2);
+        metrics.onInvalidate(true);
+        metrics.onInvalidate(true);
+        metrics.onInvalidate(false);
+
+        assertEquals(1, metrics.getDrawDuration().getCount());
+        assertEquals(1000, metrics.getDrawDuration().getMax());
+        assertEquals(200, metrics.getDispatchDuration().getMax());
+        assertEquals(16, metrics.getTouchToDraw().getMax());
+        assertEquals(2, metrics.getAnimationFrames());
+        assertEquals(2, metrics.getSkippedFrames());
+        assertEquals(2, metrics.getPartialInvalidates());
+        assertEquals(1, metrics.getFullInvalidates());
+
+        metrics.reset();
+        assertEquals(0, metrics.getDrawDuration().getCount());
+        assertEquals(0, metrics.getDispatchDuration().getCount());
+        assertEquals(0, metrics.getTouchToDraw().getCount());
+        assertEquals(0, metrics.getAnimationFrames());
+        assertEquals(0, metrics.getSkippedFrames());
+        assertEquals(0, metrics.getPartialInvalidates());
+        assertEquals(0, metrics.getFullInvalidates());
+    }
+}
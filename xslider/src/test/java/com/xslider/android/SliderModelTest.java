@@ -0,0 +1,171 @@
+package com.xslider.android;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * {@link SliderModel} 的提交合并：同一帧内无论提交多少次，界面只收到一次通知、只应用最新的一次；
+ * 以及多线程读取时位置和值的一致性。
+ */
+public class SliderModelTest {
+
+    private SliderModel mModel;
+    private int mPendingCallbacks;
+
+    @Before
+    public void setUp() {
+        mModel = new SliderModel();
+        mModel.setCallback(new SliderModel.Callback() {
+            @Override
+            public void onUpdatePending(SliderModel model) {
+                mPendingCallbacks++;
+            }
+        });
+    }
+
+    @Test
+    public void postsWithinFrameCoalesce() {
+        for (int i = 0; i < 100; i++) {
+            mModel.postValue(i);
+        }
+        assertEquals(1, mPendingCallbacks);
+
+        long update = mModel.takePendingUpdate();
+        assertEquals(SliderModel.KIND_VALUE, SliderModel.kindOf(update));
+        assertEquals(99f, SliderModel.floatOf(update), 0f);
+        assertEquals(SliderModel.NO_UPDATE, mModel.takePendingUpdate());
+    }
+
+    @Test
+    public void latestKindWins() {
+        mModel.postValue(40);
+        mModel.postPosition(0.25f);
+        assertEquals(1, mPendingCallbacks);
+
+        long update = mModel.takePendingUpdate();
+        assertEquals(SliderModel.KIND_POSITION, SliderModel.kindOf(update));
+        assertEquals(0.25f, SliderModel.floatOf(update), 0f);
+    }
+
+    @Test
+    public void notifiesAgainAfterTake() {
+        mModel.postPosition(0.5f);
+        mModel.takePendingUpdate();
+        mModel.postPosition(0.75f);
+        mModel.postPosition(1f);
+        assertEquals(2, mPendingCallbacks);
+        assertEquals(1f, SliderModel.floatOf(mModel.takePendingUpdate()), 0f);
+    }
+
+    @Test
+    public void updatesDuringDragApplyAtGestureEnd() {
+        mModel.postPosition(0.25f);
+        // 拖动中取到的更新不应用，也不会丢失
+        assertEquals(SliderModel.NO_UPDATE, mModel.takeUpdate(true));
+        mModel.postPosition(0.5f);
+        assertEquals(SliderModel.NO_UPDATE, mModel.takeUpdate(true));
+        assertEquals(2, mPendingCallbacks);
+
+        // 拖动结束后应用最新的一次，只应用一次
+        long update = mModel.takeUpdate(false);
+        assertEquals(SliderModel.KIND_POSITION, SliderModel.kindOf(update));
+        assertEquals(0.5f, SliderModel.floatOf(update), 0f);
+        assertEquals(SliderModel.NO_UPDATE, mModel.takeUpdate(false));
+    }
+
+    @Test
+    public void newerUpdateReplacesDeferredOne() {
+        mModel.postValue(10);
+        mModel.takeUpdate(true);
+        mModel.postValue(20);
+
+        long update = mModel.takeUpdate(false);
+        assertEquals(SliderModel.KIND_VALUE, SliderModel.kindOf(update));
+        assertEquals(20f, SliderModel.floatOf(update), 0f);
+        assertEquals(SliderModel.NO_UPDATE, mModel.takeUpdate(false));
+    }
+
+    @Test
+    public void snapshotPacksPositionAndValue() {
+        mModel.publish(0.25f, -40.5f);
+        long snapshot = mModel.getSnapshot();
+        assertEquals(0.25f, SliderModel.positionOf(snapshot), 0f);
+        assertEquals(-40.5f, SliderModel.valueOf(snapshot), 0f);
+        assertEquals(0.25f, mModel.getPosition(), 0f);
+        assertEquals(-40.5f, mModel.getExactValue(), 0f);
+    }
+
+    @Test
+    public void readersNeverSeeTornState() throws InterruptedException {
+        final int writes = 200000;
+        final int readers = 4;
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicReference<String> failure = new AtomicReference<String>();
+        final AtomicBoolean done = new AtomicBoolean();
+
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                await(start);
+                for (int i = 1; i <= writes; i++) {
+                    // 值总是位置的 100 倍，读到的一对不满足时说明位置和值来自不同的写入
+                    float position = i / (float) writes;
+                    mModel.publish(position, position * 100);
+                }
+            }
+        });
+
+        Thread[] threads = new Thread[readers];
+        for (int t = 0; t < readers; t++) {
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    await(start);
+                    float last = 0;
+                    while (failure.get() == null) {
+                        boolean finished = done.get();
+                        long snapshot = mModel.getSnapshot();
+                        float position = SliderModel.positionOf(snapshot);
+                        float value = SliderModel.valueOf(snapshot);
+                        if (value != position * 100) {
+                            failure.compareAndSet(null, "torn: " + position + " / " + value);
+                        } else if (position < last) {
+                            failure.compareAndSet(null, "went back: " + last + " -> " + position);
+                        }
+                        last = position;
+                        if (finished) {
+                            break;
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        writer.start();
+        start.countDown();
+        writer.join();
+        done.set(true);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertNull(failure.get(), failure.get());
+        assertEquals(1f, mModel.getPosition(), 0f);
+        assertEquals(100f, mModel.getExactValue(), 0f);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
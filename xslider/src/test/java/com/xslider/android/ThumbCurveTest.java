@@ -0,0 +1,205 @@
+package com.xslider.android;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link ThumbCurve} 的曲线：惯性滑动的衰减、限制和吸附，以及转向时位置和速度的连续性。
+ * 按固定的帧间隔推进时间，与实际每帧的计算相同。
+ */
+public class ThumbCurveTest {
+
+    private static final long INTERVAL = 16666667L;
+    private static final float FRICTION = 4.2f;
+    private static final float WIDTH = 1000;
+    private static final float STOP_DISTANCE = 0.5f;
+
+    @Test
+    public void flingDecaysExponentially() {
+        ThumbCurve curve = new ThumbCurve();
+        curve.fling(0.2f, 0.8f, FRICTION);
+        for (long t = 0; t <= 1000000000L; t += INTERVAL) {
+            double expected = 0.2 + 0.6 * (1 - Math.exp(-FRICTION * t / 1e9));
+            assertEquals(expected, curve.getPositionAt(t), 1e-5);
+        }
+
+        // 每经过 dt 速度衰减为 e^(-k·dt)
+        long dt = 100000000L;
+        float v0 = curve.getVelocity(0);
+        float v1 = curve.getVelocity(dt);
+        float v2 = curve.getVelocity(2 * dt);
+        double decay = Math.exp(-FRICTION * dt / 1e9);
+        assertEquals(decay, v1 / v0, 1e-2);
+        assertEquals(decay, v2 / v1, 1e-2);
+
+        // 初速度 (end - start)·k 按摩擦力自然停止的位置正好是终点
+        assertEquals(0.8f, ThumbCurve.projectFling(0.2f, 0.6f * FRICTION, FRICTION), 1e-6f);
+    }
+
+    @Test
+    public void flingClampsAtEnds() {
+        // 自然停止的位置超出两端时限制在端点，逐渐减速停在端点，不会越过
+        float target = clamp(ThumbCurve.projectFling(0.9f, 2f, FRICTION));
+        assertEquals(1f, target, 0f);
+        assertSettles(0.9f, target);
+
+        target = clamp(ThumbCurve.projectFling(0.1f, -2f, FRICTION));
+        assertEquals(0f, target, 0f);
+        assertSettles(0.1f, target);
+    }
+
+    @Test
+    public void flingSettlesOnStep() {
+        // 范围 0..100，步长 5：0.31 + 0.5 / 4.2 ≈ 0.429，吸附到 0.45
+        float projected = ThumbCurve.projectFling(0.31f, 0.5f, FRICTION);
+        float target = clamp(SliderMath.snap(projected, 0, 100, 5));
+        assertEquals(0.45f, target, 1e-6f);
+        assertEquals(target, assertSettles(0.31f, target), 0f);
+    }
+
+    @Test
+    public void retargetKeepsPositionAndVelocity() {
+        // 向 1 移动到一半时转向 0.1：新曲线从当前位置、以当前速度开始，在新的终点停下
+        ThumbCurve curve = new SmoothCurve();
+        curve.start(0f, 1f, 300);
+        long elapsed = 120 * 1000000L;
+        float position = curve.getPositionAt(elapsed);
+        float velocity = curve.getVelocity(elapsed);
+        assertTrue(velocity > 0);
+
+        ThumbCurve retarget = new SmoothCurve();
+        retarget.retarget(position, 0.1f, velocity, 250);
+        assertEquals(position, retarget.getPositionAt(0), 0f);
+        assertEquals(velocity, retarget.getVelocity(0), Math.abs(velocity) * 0.05f);
+
+        assertEquals(0.1f, retarget.getPositionAt(250 * 1000000L), 1e-6f);
+        assertEquals(0f, retarget.getVelocity(250 * 1000000L), 0f);
+        // 结束前速度接近 0
+        assertEquals(0f, retarget.getVelocity(249 * 1000000L), 1e-4f);
+    }
+
+    @Test
+    public void retargetHasNoJumpBetweenFrames() {
+        // 逐帧推进，在两帧之间转向：转向前后每帧移动的距离只有很小的变化，不会跳变
+        ThumbCurve curve = new SmoothCurve();
+        curve.start(0.2f, 0.9f, 300);
+        long start = 0;
+        float last = curve.getPositionAt(0);
+        float lastStep = 0;
+        float maxChange = 0;
+        boolean retargeted = false;
+        for (long t = INTERVAL; t <= 40 * INTERVAL; t += INTERVAL) {
+            if (!retargeted && t >= 8 * INTERVAL) {
+                // 转向发生在帧之间，从转向时刻的位置和速度继续
+                long at = t - INTERVAL / 2;
+                float position = curve.getPositionAt(at - start);
+                float velocity = curve.getVelocity(at - start);
+                ThumbCurve next = new SmoothCurve();
+                next.retarget(position, 0.5f, velocity, 250);
+                curve = next;
+                start = at;
+                retargeted = true;
+            }
+            float position = curve.getPositionAt(t - start);
+            float step = position - last;
+            if (t > INTERVAL) {
+                maxChange = Math.max(maxChange, Math.abs(step - lastStep));
+            }
+            last = position;
+            lastStep = step;
+        }
+        assertEquals(0.5f, last, 1e-6f);
+        // 不转向时曲线本身的最大变化约为 0.010，从转向的位置重新开始普通动画（速度归零）时约为 0.028
+        assertTrue("maxChange=" + maxChange, maxChange < 0.015f);
+    }
+
+    @Test
+    public void retargetStaysOnTrack() {
+        // 快速移向 1 时在 0.95 转向 0.98：曲线越过终点的部分限制在 1，最后停在终点
+        ThumbCurve curve = new ThumbCurve();
+        curve.retarget(0.95f, 0.98f, 0.01f, 250);
+        assertOnTrack(curve, 250);
+        assertEquals(1f, curve.getPositionAt(60 * 1000000L), 0f);
+        assertEquals(0.98f, curve.getPositionAt(250 * 1000000L), 1e-6f);
+
+        // 快速移向 0 时在 0.02 转向 0.5：先继续移动再折返，不会低于 0
+        curve.retarget(0.02f, 0.5f, -0.01f, 250);
+        assertOnTrack(curve, 250);
+        assertEquals(0f, curve.getPositionAt(30 * 1000000L), 0f);
+        assertEquals(0.5f, curve.getPositionAt(250 * 1000000L), 1e-6f);
+    }
+
+    @Test
+    public void layerFractionFollowsCurve() {
+        // 图层动画按比例插值，转向时的曲线也与逐帧计算的位置一致，起点的速度保持不变
+        ThumbCurve curve = new SmoothCurve();
+        curve.retarget(0.4f, 0.6f, -0.004f, 250);
+        for (int i = 0; i <= 100; i++) {
+            float progress = i / 100f;
+            float position = curve.getPositionAt((long) (progress * 250 * 1000000L));
+            assertEquals(position, 0.4f + 0.2f * curve.getFraction(progress), 1e-5f);
+        }
+        assertEquals(0f, curve.getFraction(0f), 0f);
+        assertEquals(1f, curve.getFraction(1f), 1e-6f);
+        // 起点的速度与转向方向相反，完成的比例先变成负数
+        assertTrue(curve.getFraction(0.05f) < 0);
+
+        // 普通动画的比例就是插值器的结果
+        curve.start(0.2f, 0.9f, 300);
+        for (int i = 0; i <= 10; i++) {
+            assertEquals(curve.interpolate(i / 10f), curve.getFraction(i / 10f), 1e-5f);
+        }
+    }
+
+    private static void assertOnTrack(ThumbCurve curve, int duration) {
+        for (long t = 0; t <= duration * 1000000L; t += INTERVAL / 4) {
+            float position = curve.getPositionAt(t);
+            assertTrue("left the track " + position + " at " + t,
+                    position >= 0f && position <= 1f);
+        }
+    }
+
+    /**
+     * 逐帧推进惯性滑动直到结束，检查每一帧都朝终点单调移动、不越过终点。
+     *
+     * @return 结束后滑块停留的位置
+     */
+    private static float assertSettles(float from, float to) {
+        ThumbCurve curve = new ThumbCurve();
+        curve.fling(from, to, FRICTION);
+        float direction = Math.signum(to - from);
+        float last = from;
+        int frames = 0;
+        for (long t = INTERVAL; ; t += INTERVAL) {
+            float position = curve.getPositionAt(t);
+            assertTrue("overshoot at " + t, (to - position) * direction >= 0);
+            assertTrue("went back at " + t, (position - last) * direction >= 0);
+            last = position;
+            frames++;
+            if (curve.isFinished(t, position, WIDTH, STOP_DISTANCE)) {
+                break;
+            }
+            assertTrue("never settled", frames < 300);
+        }
+        assertTrue(Math.abs(to - last) * WIDTH < STOP_DISTANCE);
+        // 结束时滑块直接放到终点
+        return curve.getEndPosition();
+    }
+
+    private static float clamp(float position) {
+        return Math.max(0f, Math.min(1f, position));
+    }
+
+    /**
+     * 先加速后减速的插值，与默认的 AccelerateDecelerateInterpolator 形状相同。
+     */
+    private static class SmoothCurve extends ThumbCurve {
+
+        @Override
+        float interpolate(float progress) {
+            return (float) (Math.cos((progress + 1) * Math.PI) / 2.0f) + 0.5f;
+        }
+    }
+}
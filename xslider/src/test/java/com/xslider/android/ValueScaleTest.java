@@ -0,0 +1,52 @@
+package com.xslider.android;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class ValueScaleTest {
+
+    @Test
+    public void piecewiseMapsBreakpoints() {
+        ValueScale scale = ValueScale.piecewise(new float[]{0f, 0.5f, 1f},
+                new float[]{0f, 0.1f, 1f});
+        assertEquals(0f, scale.toValue(0f, 0, 100), 0f);
+        assertEquals(10f, scale.toValue(0.5f, 0, 100), 1e-4f);
+        assertEquals(55f, scale.toValue(0.75f, 0, 100), 1e-4f);
+        assertEquals(100f, scale.toValue(1f, 0, 100), 0f);
+        assertEquals(0.25f, scale.toPosition(5f, 0, 100), 1e-6f);
+        assertEquals(0.75f, scale.toPosition(55f, 0, 100), 1e-6f);
+    }
+
+    @Test
+    public void piecewiseMustCoverWholeRange() {
+        assertRejected(new float[]{0.1f, 1f}, new float[]{0f, 1f});
+        assertRejected(new float[]{0f, 0.9f}, new float[]{0f, 1f});
+        assertRejected(new float[]{0f, 1f}, new float[]{0.2f, 1f});
+        assertRejected(new float[]{0f, 1f}, new float[]{0f, 0.8f});
+        assertRejected(new float[]{0f, 0.5f, 0.5f, 1f}, new float[]{0f, 0.2f, 0.4f, 1f});
+        assertRejected(new float[]{0f, 0.5f, 1f}, new float[]{0f, 0.6f, 0.4f, 1f});
+        assertRejected(new float[]{0f}, new float[]{0f});
+    }
+
+    @Test
+    public void tableRoundTrip() {
+        ValueScaleTable table = new ValueScaleTable(ValueScale.log(), 20, 20000,
+                ValueScaleTable.DEFAULT_SIZE);
+        assertEquals(20f, table.toValue(0f), 1e-3f);
+        assertEquals(20000f, table.toValue(1f), 1e-1f);
+        for (float position = 0; position <= 1; position += 0.05f) {
+            assertEquals(position, table.toPosition(table.toValue(position)), 1e-4f);
+        }
+    }
+
+    private static void assertRejected(float[] positions, float[] fractions) {
+        try {
+            ValueScale.piecewise(positions, fractions);
+            fail("accepted invalid breakpoints");
+        } catch (IllegalArgumentException expected) {
+            // 期望的异常
+        }
+    }
+}
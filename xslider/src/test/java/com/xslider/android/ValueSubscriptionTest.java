@@ -0,0 +1,209 @@
+package com.xslider.android;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link ValueSubscription} 的合并：只交付最新的值，Executor 中同一时间最多只有一个任务，取消后不再交付。
+ */
+public class ValueSubscriptionTest {
+
+    @Test
+    public void latestValueWins() {
+        QueueExecutor executor = new QueueExecutor();
+        RecordingConsumer consumer = new RecordingConsumer();
+        ValueSubscription subscription = new ValueSubscription(executor, consumer, false);
+
+        for (int i = 1; i <= 100; i++) {
+            subscription.offer(i, false);
+        }
+        subscription.offer(100, true);
+        assertEquals(1, executor.mTasks.size());
+
+        executor.runAll();
+        assertEquals(1, consumer.mValues.size());
+        assertEquals(100f, consumer.mValues.get(0), 0f);
+        assertEquals(Boolean.TRUE, consumer.mSettled.get(0));
+    }
+
+    @Test
+    public void atMostOnePendingTask() {
+        final QueueExecutor executor = new QueueExecutor();
+        final ValueSubscription[] subscription = new ValueSubscription[1];
+        final RecordingConsumer consumer = new RecordingConsumer() {
+            @Override
+            public void onValue(float value, boolean settled) {
+                super.onValue(value, settled);
+                if (value == 1) {
+                    // 处理期间提交的值由同一个任务接着处理，不会再排队
+                    subscription[0].offer(2, false);
+                    subscription[0].offer(3, false);
+                    assertEquals(0, executor.mTasks.size());
+                }
+            }
+        };
+        subscription[0] = new ValueSubscription(executor, consumer, false);
+
+        subscription[0].offer(1, false);
+        assertEquals(1, executor.mTasks.size());
+        executor.runAll();
+        assertEquals(2, consumer.mValues.size());
+        assertEquals(1f, consumer.mValues.get(0), 0f);
+        assertEquals(3f, consumer.mValues.get(1), 0f);
+
+        // 处理完之后新的值重新调度
+        subscription[0].offer(4, false);
+        assertEquals(1, executor.mTasks.size());
+        subscription[0].offer(5, false);
+        assertEquals(1, executor.mTasks.size());
+    }
+
+    @Test
+    public void noDeliveryAfterCancel() {
+        QueueExecutor executor = new QueueExecutor();
+        RecordingConsumer consumer = new RecordingConsumer();
+        ValueSubscription subscription = new ValueSubscription(executor, consumer, false);
+
+        subscription.offer(1, false);
+        subscription.cancel();
+        executor.runAll();
+        assertEquals(0, consumer.mValues.size());
+
+        subscription.offer(2, true);
+        assertEquals(0, executor.mTasks.size());
+        assertTrue(subscription.isCancelled());
+    }
+
+    @Test
+    public void cancelDuringDelivery() {
+        QueueExecutor executor = new QueueExecutor();
+        final ValueSubscription[] subscription = new ValueSubscription[1];
+        RecordingConsumer consumer = new RecordingConsumer() {
+            @Override
+            public void onValue(float value, boolean settled) {
+                super.onValue(value, settled);
+                subscription[0].offer(value + 1, false);
+                subscription[0].cancel();
+            }
+        };
+        subscription[0] = new ValueSubscription(executor, consumer, false);
+
+        subscription[0].offer(1, false);
+        executor.runAll();
+        assertEquals(1, consumer.mValues.size());
+    }
+
+    @Test
+    public void settledOnlySkipsChangingValues() {
+        QueueExecutor executor = new QueueExecutor();
+        RecordingConsumer consumer = new RecordingConsumer();
+        ValueSubscription subscription = new ValueSubscription(executor, consumer, true);
+
+        subscription.offer(1, false);
+        subscription.offer(2, false);
+        assertEquals(0, executor.mTasks.size());
+        subscription.offer(2, true);
+        // 重复的值不再提交
+        subscription.offer(2, true);
+        executor.runAll();
+        assertEquals(1, consumer.mValues.size());
+        assertEquals(2f, consumer.mValues.get(0), 0f);
+    }
+
+    @Test
+    public void concurrentDeliveryKeepsOneTask() throws InterruptedException {
+        final ExecutorService service = Executors.newSingleThreadExecutor();
+        final AtomicInteger pending = new AtomicInteger();
+        final AtomicInteger maxPending = new AtomicInteger();
+        Executor executor = new Executor() {
+            @Override
+            public void execute(final Runnable command) {
+                int count = pending.incrementAndGet();
+                while (true) {
+                    int max = maxPending.get();
+                    if (count <= max || maxPending.compareAndSet(max, count)) {
+                        break;
+                    }
+                }
+                service.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        // 开始执行后不再算作排队中的任务
+                        pending.decrementAndGet();
+                        command.run();
+                    }
+                });
+            }
+        };
+
+        final int values = 100000;
+        final CountDownLatch settled = new CountDownLatch(1);
+        final float[] last = new float[1];
+        ValueSubscription subscription = new ValueSubscription(executor, new ValueConsumer() {
+            @Override
+            public void onValue(float value, boolean isSettled) {
+                synchronized (last) {
+                    last[0] = value;
+                }
+                if (isSettled) {
+                    settled.countDown();
+                }
+            }
+        }, false);
+
+        for (int i = 1; i < values; i++) {
+            subscription.offer(i, false);
+        }
+        subscription.offer(values, true);
+
+        assertTrue(settled.await(10, TimeUnit.SECONDS));
+        service.shutdown();
+        assertTrue(service.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(1, maxPending.get());
+        synchronized (last) {
+            assertEquals(values, last[0], 0f);
+        }
+    }
+
+    /**
+     * 只把任务放进队列，由测试决定什么时候执行。
+     */
+    private static class QueueExecutor implements Executor {
+
+        final List<Runnable> mTasks = new ArrayList<Runnable>();
+
+        @Override
+        public void execute(Runnable command) {
+            mTasks.add(command);
+        }
+
+        void runAll() {
+            while (!mTasks.isEmpty()) {
+                mTasks.remove(0).run();
+            }
+        }
+    }
+
+    private static class RecordingConsumer implements ValueConsumer {
+
+        final List<Float> mValues = new ArrayList<Float>();
+        final List<Boolean> mSettled = new ArrayList<Boolean>();
+
+        @Override
+        public void onValue(float value, boolean settled) {
+            mValues.add(value);
+            mSettled.add(settled);
+        }
+    }
+}